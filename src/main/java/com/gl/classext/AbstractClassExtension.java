@@ -1,8 +1,14 @@
 package com.gl.classext;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
@@ -21,18 +27,97 @@ import static java.text.MessageFormat.format;
 public abstract class AbstractClassExtension implements ClassExtension {
     //region Cache methods
     private boolean cacheEnabled = true;
+    private boolean cacheByIdentity;
 
-    private volatile ThreadSafeWeakCache<ThreadSafeWeakCache.ClassExtensionKey, Object> extensionCache;
+    private volatile int cacheMaxSize = 1000;
+    private volatile long cacheMaxWeight;
+    private volatile ToIntFunction<Object> cacheWeigher;
+    private volatile ThreadSafeWeakCache.ReferenceStrength cacheValueStrength = ThreadSafeWeakCache.ReferenceStrength.WEAK;
+    private volatile Duration cacheExpireAfterWrite;
+    private volatile Duration cacheExpireAfterAccess;
+    private volatile boolean cacheCleanupScheduled;
 
-    protected ThreadSafeWeakCache<ThreadSafeWeakCache.ClassExtensionKey, Object> getExtensionCache() {
-        if (extensionCache == null) {
-            synchronized (this) {
-                if (extensionCache == null)
-                    extensionCache = new ThreadSafeWeakCache<>();
+    private volatile ExtensionCaches extensionCaches = new ExtensionCaches();
+
+    /**
+     * Returns a cache partition for an extension interface, creating it if needed. Extensions of every interface are
+     * cached in a separate partition, so a high-churn interface cannot evict extensions of other interfaces.
+     *
+     * @param anExtensionInterface extension interface
+     * @return a cache partition
+     */
+    protected ThreadSafeWeakCache<Object, Object> getExtensionCache(Class<?> anExtensionInterface) {
+        return extensionCaches.get(anExtensionInterface);
+    }
+
+    private ThreadSafeWeakCache<Object, Object> createExtensionCache(Class<?> anExtensionInterface) {
+        ThreadSafeWeakCache<Object, Object> result = new ThreadSafeWeakCache<>(cacheMaxSize(anExtensionInterface));
+        result.setValueStrength(cacheValueStrength);
+        result.setWeigher(cacheWeigher);
+        result.setMaxWeight(cacheMaxWeight);
+        result.setExpireAfterWrite(cacheExpireAfterWrite);
+        result.setExpireAfterAccess(cacheExpireAfterAccess);
+        if (cacheCleanupScheduled)
+            result.scheduleCleanup();
+        return result;
+    }
+
+    /**
+     * Cache partitions by extension interfaces. Partitions are kept along with their extension interfaces, so cached
+     * extensions do not prevent unloading of class loaders of extension interfaces, e.g. of plugins. Partitions are
+     * also referenced weakly to be enumerated, and they are all dropped at once by replacing the whole set.
+     */
+    private final class ExtensionCaches extends ClassValue<ThreadSafeWeakCache<Object, Object>> {
+        private final Map<ThreadSafeWeakCache<Object, Object>, WeakReference<Class<?>>> partitions = new WeakHashMap<>();
+
+        @Override
+        protected ThreadSafeWeakCache<Object, Object> computeValue(Class<?> anExtensionInterface) {
+            ThreadSafeWeakCache<Object, Object> result = createExtensionCache(anExtensionInterface);
+            synchronized (partitions) {
+                partitions.put(result, new WeakReference<>(anExtensionInterface));
+            }
+            return result;
+        }
+
+        /**
+         * Performs an action for every partition of an extension interface that is not unloaded yet
+         */
+        void forEach(BiConsumer<Class<?>, ThreadSafeWeakCache<Object, Object>> anAction) {
+            Map<ThreadSafeWeakCache<Object, Object>, Class<?>> snapshot = new IdentityHashMap<>();
+            synchronized (partitions) {
+                partitions.forEach((cache, extensionInterface) -> {
+                    Class<?> aClass = extensionInterface.get();
+                    if (aClass != null)
+                        snapshot.put(cache, aClass);
+                });
             }
+            snapshot.forEach((cache, extensionInterface) -> anAction.accept(extensionInterface, cache));
+        }
+
+        /**
+         * Returns partitions of extension interfaces that are not unloaded yet
+         */
+        List<ThreadSafeWeakCache<Object, Object>> values() {
+            List<ThreadSafeWeakCache<Object, Object>> result = new ArrayList<>();
+            forEach((extensionInterface, cache) -> result.add(cache));
+            return result;
+        }
+
+        /**
+         * Returns an existing partition of an extension interface
+         *
+         * @return a partition or {@code null} if none is created yet
+         */
+        ThreadSafeWeakCache<Object, Object> find(Class<?> anExtensionInterface) {
+            synchronized (partitions) {
+                for (Map.Entry<ThreadSafeWeakCache<Object, Object>, WeakReference<Class<?>>> entry : partitions.entrySet())
+                    if (entry.getValue().get() == anExtensionInterface)
+                        return entry.getKey();
+            }
+            return null;
         }
-        return extensionCache;
     }
+
     /**
      * {@inheritDoc}
      */
@@ -53,43 +138,419 @@ public abstract class AbstractClassExtension implements ClassExtension {
         }
     }
 
+    /**
+     * Checks if extensions are cached per object identity rather than per object equality by default. This default can
+     * be overridden per extension interface via the {@code @ExtensionInterface.cachePolicy} annotation parameter.
+     *
+     * @return {@code true} if extensions are cached per object identity; {@code false} otherwise
+     */
+    public boolean isCacheByIdentity() {
+        return cacheByIdentity;
+    }
+
+    /**
+     * Specifies whether extensions should be cached per object identity rather than per object equality by default.
+     * Caching by identity avoids calling objects' {@code hashCode()} and {@code equals()}, that can be expensive, and
+     * ensures that equal but distinct objects never share an extension.
+     *
+     * @param isCacheByIdentity {@code true} if extensions should be cached per object identity; {@code false} otherwise
+     */
+    public void setCacheByIdentity(boolean isCacheByIdentity) {
+        if (cacheByIdentity != isCacheByIdentity) {
+            cacheByIdentity = isCacheByIdentity;
+            cacheClear();
+        }
+    }
+
+    /**
+     * Returns the maximum number of extensions a cache partition of an extension interface can hold by default. This
+     * default can be overridden per extension interface via the {@code @ExtensionInterface.cacheSize} annotation
+     * parameter.
+     *
+     * @return maximum cache partition size
+     */
+    public int getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
+    /**
+     * Sets the maximum number of extensions a cache partition of an extension interface can hold by default.
+     *
+     * @param aMaxSize maximum cache partition size (must be > 0)
+     */
+    public void setCacheMaxSize(int aMaxSize) {
+        if (aMaxSize <= 0)
+            throw new IllegalArgumentException(format("Invalid max cache size value: {0}. It must be > 0", aMaxSize));
+
+        cacheMaxSize = aMaxSize;
+        extensionCaches.forEach((extensionInterface, cache) -> cache.setMaxSize(cacheMaxSize(extensionInterface)));
+    }
+
+    /**
+     * Sets the maximum total weight of cached extensions of every extension interface, computed by a specified weigher.
+     *
+     * @param aMaxWeight maximum total weight, or {@code 0} if cache partitions should not be bounded by weight
+     * @param aWeigher   function returning a non-negative weight of an extension, or {@code null} if every extension
+     *                   should weigh {@code 1}
+     */
+    public void setCacheMaxWeight(long aMaxWeight, ToIntFunction<Object> aWeigher) {
+        if (aMaxWeight < 0)
+            throw new IllegalArgumentException(format("Invalid max cache weight value: {0}. It must be >= 0", aMaxWeight));
+
+        cacheWeigher = aWeigher;
+        cacheMaxWeight = aMaxWeight;
+        for (ThreadSafeWeakCache<Object, Object> cache : extensionCaches.values()) {
+            cache.setWeigher(aWeigher);
+            cache.setMaxWeight(aMaxWeight);
+        }
+    }
+
+    /**
+     * Returns the strength of references the cache holds extensions with by default.
+     *
+     * @return reference strength
+     */
+    public ThreadSafeWeakCache.ReferenceStrength getCacheValueStrength() {
+        return cacheValueStrength;
+    }
+
+    /**
+     * Specifies the strength of references the cache holds extensions with by default. This default can be overridden
+     * per extension interface via the {@code @ExtensionInterface.cachePolicy} annotation parameter.
+     *
+     * @param aValueStrength reference strength
+     */
+    public void setCacheValueStrength(ThreadSafeWeakCache.ReferenceStrength aValueStrength) {
+        if (cacheValueStrength != Objects.requireNonNull(aValueStrength)) {
+            cacheValueStrength = aValueStrength;
+            extensionCaches.values().forEach(cache -> cache.setValueStrength(aValueStrength));
+            cacheClear();
+        }
+    }
+
+    /**
+     * Specifies that cached extensions should expire after a fixed time since their creation.
+     *
+     * @param aDuration time after which extensions expire, or {@code null} if they should not expire after creation
+     */
+    public void setCacheExpireAfterWrite(Duration aDuration) {
+        cacheExpireAfterWrite = aDuration;
+        extensionCaches.values().forEach(cache -> cache.setExpireAfterWrite(aDuration));
+    }
+
+    /**
+     * Specifies that cached extensions should expire after a fixed time since their last access.
+     *
+     * @param aDuration time after which extensions expire, or {@code null} if they should not expire after access
+     */
+    public void setCacheExpireAfterAccess(Duration aDuration) {
+        cacheExpireAfterAccess = aDuration;
+        extensionCaches.values().forEach(cache -> cache.setExpireAfterAccess(aDuration));
+    }
+
+    /**
+     * Key standing for a {@code null} object in cache partitions
+     */
+    private static final Object NULL_KEY = new Object();
+
+    /**
+     * Returns a cache key for an object within the cache partition of an extension interface, according to the cache
+     * policy of the interface. A partition holds extensions of a single interface, so an object itself is a key,
+     * unless extensions are cached per object identity.
+     *
+     * @param anObject             object to return a key for
+     * @param anExtensionInterface extension interface
+     * @return a cache key
+     */
+    protected Object cacheKey(Object anObject, Class<?> anExtensionInterface) {
+        Object object = anObject != null ? anObject : NULL_KEY;
+        return isCacheByIdentity(anExtensionInterface) ?
+                new ThreadSafeWeakCache.IdentityClassExtensionKey(object, anExtensionInterface) :
+                object;
+    }
+
+    /**
+     * Returns a cached extension for an object and an extension interface, if any. A cache hit allocates nothing and
+     * takes no locks.
+     *
+     * @param anObject             object to return an extension for
+     * @param anExtensionInterface extension interface
+     * @return an extension object, or {@code null} if it is not cached
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> T getCachedExtension(Object anObject, Class<T> anExtensionInterface) {
+        ThreadSafeWeakCache<Object, Object> cache = getExtensionCache(anExtensionInterface);
+        Object object = anObject != null ? anObject : NULL_KEY;
+        return (T) (isCacheByIdentity(anExtensionInterface) ?
+                cache.getByIdentity(object, anExtensionInterface) :
+                cache.get(object));
+    }
+
+    /**
+     * Returns a cached extension for an object and an extension interface, creating and caching it if needed,
+     * according to the cache policy of the interface. Callers that look an extension up via
+     * {@code getCachedExtension()} first should use {@code createCachedExtension()} on a miss instead.
+     *
+     * @param anObject             object to return an extension for
+     * @param anExtensionInterface extension interface
+     * @param aSupplier            function to create an extension if it is not cached
+     * @return an extension object
+     */
+    protected <T> T cachedExtension(Object anObject, Class<T> anExtensionInterface, Supplier<T> aSupplier) {
+        T result = getCachedExtension(anObject, anExtensionInterface);
+        return result != null ? result : createCachedExtension(anObject, anExtensionInterface, aSupplier);
+    }
+
+    /**
+     * A cache key of an extension implementing supplementary interfaces along with an extension interface. An object
+     * is compared by identity or by equality according to the cache policy of an extension interface. Keys are also
+     * reused per thread as probes to look extensions up without allocating new keys.
+     */
+    private static final class SupplementedCacheKey {
+        private Object object;
+        private Class<?>[] supplementaryInterfaces;
+        private boolean isByIdentity;
+        private int hash;
+
+        SupplementedCacheKey set(Object anObject, Class<?>[] aSupplementaryInterfaces, boolean isByIdentity) {
+            object = anObject;
+            supplementaryInterfaces = aSupplementaryInterfaces;
+            this.isByIdentity = isByIdentity;
+            hash = anObject == null ? 0 :
+                    31 * (isByIdentity ? System.identityHashCode(anObject) : anObject.hashCode()) +
+                            Arrays.hashCode(aSupplementaryInterfaces);
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            return o instanceof SupplementedCacheKey key && hash == key.hash && isByIdentity == key.isByIdentity &&
+                    (isByIdentity ? object == key.object : object.equals(key.object)) &&
+                    Arrays.equals(supplementaryInterfaces, key.supplementaryInterfaces);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final ThreadLocal<SupplementedCacheKey> SUPPLEMENTED_CACHE_PROBES = ThreadLocal.withInitial(SupplementedCacheKey::new);
+
+    /**
+     * Returns a cached extension for an object implementing an extension interface and supplementary interfaces, if
+     * any. A cache hit allocates nothing and takes no locks. Such extensions are cached in the partition of an
+     * extension interface apart from ones implementing an extension interface only, according to the cache policy of
+     * an extension interface, except that {@code CachePolicy.DELEGATE_LIFETIME} falls back to
+     * {@code CachePolicy.IDENTITY}, as such extensions refer to their objects strongly.
+     *
+     * @param anObject                 object to return an extension for
+     * @param anExtensionInterface     extension interface
+     * @param aSupplementaryInterfaces supplementary interfaces; the array is neither retained nor modified
+     * @return an extension object, or {@code null} if it is not cached
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> T getCachedExtension(Object anObject, Class<T> anExtensionInterface, Class<?>[] aSupplementaryInterfaces) {
+        ThreadSafeWeakCache<Object, Object> cache = getExtensionCache(anExtensionInterface);
+        SupplementedCacheKey probe = SUPPLEMENTED_CACHE_PROBES.get().set(anObject != null ? anObject : NULL_KEY,
+                aSupplementaryInterfaces, isCacheByIdentity(anExtensionInterface));
+        try {
+            return (T) cache.get(probe);
+        } finally {
+            probe.set(null, null, false);
+        }
+    }
+
+    /**
+     * Creates and caches an extension for an object implementing an extension interface and supplementary interfaces
+     * after {@code getCachedExtension()} has missed it, unless another thread has already created it
+     *
+     * @param anObject                 object to return an extension for
+     * @param anExtensionInterface     extension interface
+     * @param aSupplementaryInterfaces supplementary interfaces; the array is copied, so it can be reused by callers
+     * @param aSupplier                function to create an extension
+     * @return an extension object
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> T createCachedExtension(Object anObject, Class<T> anExtensionInterface, Class<?>[] aSupplementaryInterfaces,
+                                          Supplier<T> aSupplier) {
+        ThreadSafeWeakCache<Object, Object> cache = getExtensionCache(anExtensionInterface);
+        Object key = new SupplementedCacheKey().set(anObject != null ? anObject : NULL_KEY,
+                aSupplementaryInterfaces.clone(), isCacheByIdentity(anExtensionInterface));
+        return (T) cache.createMissing(key, () -> key, (Supplier<Object>) aSupplier, cacheValueStrength(anExtensionInterface));
+    }
+
+    /**
+     * Creates and caches an extension for an object and an extension interface after {@code getCachedExtension()} has
+     * missed it, unless another thread has already created it
+     *
+     * @param anObject             object to return an extension for
+     * @param anExtensionInterface extension interface
+     * @param aSupplier            function to create an extension
+     * @return an extension object
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> T createCachedExtension(Object anObject, Class<T> anExtensionInterface, Supplier<T> aSupplier) {
+        ThreadSafeWeakCache<Object, Object> cache = getExtensionCache(anExtensionInterface);
+        Object key = cacheKey(anObject, anExtensionInterface);
+        if (anObject != null && isCacheForDelegateLifetime(anExtensionInterface))
+            return (T) cache.createMissing(key, () -> cache.weakKey(anObject, anExtensionInterface),
+                    (Supplier<Object>) aSupplier, null);
+        else
+            return (T) cache.createMissing(key, () -> key, (Supplier<Object>) aSupplier,
+                    cacheValueStrength(anExtensionInterface));
+    }
+
+    /**
+     * Checks if this class extension can cache extensions for the lifetime of their objects. It requires extensions
+     * that do not strongly reference their objects, so it is not supported by default.
+     *
+     * @return {@code true} if {@code CachePolicy.DELEGATE_LIFETIME} is supported; {@code false} otherwise
+     */
+    protected boolean isDelegateLifetimeCacheSupported() {
+        return false;
+    }
+
     /**
      * {@inheritDoc}
      */
     public void cacheCleanup() {
-        if (extensionCache != null)
-            extensionCache.cleanup();
+        extensionCaches.values().forEach(ThreadSafeWeakCache::cleanup);
     }
 
     /**
      * {@inheritDoc}
+     * <p>Cache partitions are dropped rather than emptied, so ones of unused extension interfaces are not retained
+     * along with their statistics.</p>
      */
     public void cacheClear() {
-        if (extensionCache != null)
-            extensionCache.clear();
+        ExtensionCaches caches = extensionCaches;
+        extensionCaches = new ExtensionCaches();
+        caches.forEach((extensionInterface, cache) -> {
+            cache.shutdownCleanup();
+            cache.clear();
+        });
     }
 
     /**
      * {@inheritDoc}
      */
     public void scheduleCacheCleanup() {
-        getExtensionCache().scheduleCleanup();
+        cacheCleanupScheduled = true;
+        extensionCaches.values().forEach(ThreadSafeWeakCache::scheduleCleanup);
     }
 
     /**
      * {@inheritDoc}
      */
     public void shutdownCacheCleanup() {
-        if (extensionCache != null)
-            extensionCache.shutdownCleanup();
+        cacheCleanupScheduled = false;
+        extensionCaches.values().forEach(ThreadSafeWeakCache::shutdownCleanup);
     }
 
     /**
      * {@inheritDoc}
      */
     public boolean cacheIsEmpty() {
-        return extensionCache == null || extensionCache.isEmpty();
+        return extensionCaches.values().stream().allMatch(ThreadSafeWeakCache::isEmpty);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public ThreadSafeWeakCache.Stats cacheStats() {
+        return extensionCaches.values().stream().
+                map(ThreadSafeWeakCache::stats).
+                reduce(ThreadSafeWeakCache.Stats.EMPTY, ThreadSafeWeakCache.Stats::plus);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public ThreadSafeWeakCache.Stats cacheStats(Class<?> anExtensionInterface) {
+        ThreadSafeWeakCache<Object, Object> cache = extensionCaches.find(anExtensionInterface);
+        return cache != null ? cache.stats() : ThreadSafeWeakCache.Stats.EMPTY;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void cacheResetStats() {
+        extensionCaches.values().forEach(ThreadSafeWeakCache::resetStats);
+    }
+    //endregion
+
+    //region Warm-up methods
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public WarmUpReport warmUp(Collection<Class<?>> anExtensionInterfaces, Collection<Class<?>> anObjectClasses, boolean isParallel) {
+        Objects.requireNonNull(anObjectClasses);
+
+        return warmUp(anExtensionInterfaces, anObjectClasses, isParallel, objectClass -> objectClass, this::warmUp);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public WarmUpReport warmUpWithSamples(Collection<Class<?>> anExtensionInterfaces, Collection<?> aSampleObjects, boolean isParallel) {
+        Objects.requireNonNull(aSampleObjects);
+
+        return warmUp(anExtensionInterfaces, aSampleObjects, isParallel, Object::getClass, this::warmUpWithSample);
+    }
+
+    private <E> WarmUpReport warmUp(Collection<Class<?>> anExtensionInterfaces, Collection<E> aTargets, boolean isParallel,
+                                    Function<E, Class<?>> aTargetClass, BiConsumer<Class<?>, E> aWarmUp) {
+        Objects.requireNonNull(anExtensionInterfaces);
+
+        List<Map.Entry<Class<?>, E>> pairs = new ArrayList<>();
+        for (Class<?> extensionInterface : anExtensionInterfaces)
+            for (E target : aTargets)
+                pairs.add(Map.entry(Objects.requireNonNull(extensionInterface), Objects.requireNonNull(target)));
+
+        long start = System.nanoTime();
+        Stream<Map.Entry<Class<?>, E>> stream = isParallel ? pairs.parallelStream() : pairs.stream();
+        List<WarmUpResult> results = stream.map(pair -> {
+            long pairStart = System.nanoTime();
+            Throwable error = null;
+            try {
+                aWarmUp.accept(pair.getKey(), pair.getValue());
+            } catch (RuntimeException | LinkageError ex) {
+                error = ex;
+            }
+            return new WarmUpResult(pair.getKey(), aTargetClass.apply(pair.getValue()),
+                    Duration.ofNanos(System.nanoTime() - pairStart), error);
+        }).toList();
+        WarmUpReport result = new WarmUpReport(results, Duration.ofNanos(System.nanoTime() - start));
+
+        if (isVerbose())
+            logger.info(format("Warmed up {0} extension(s) in {1} ms, {2} failed", results.size(),
+                    result.duration().toMillis(), result.failures().size()));
+
+        return result;
     }
+
+    /**
+     * Eagerly resolves an extension for an object class and prepares its dispatch paths
+     *
+     * @param anExtensionInterface extension interface
+     * @param anObjectClass        object class
+     * @throws IllegalArgumentException if an extension can't be resolved
+     */
+    protected abstract void warmUp(Class<?> anExtensionInterface, Class<?> anObjectClass);
+
+    /**
+     * Eagerly creates an extension for a sample object, bypassing cache, and pre-invokes its dispatch paths
+     *
+     * @param anExtensionInterface extension interface
+     * @param aSampleObject        sample object
+     * @throws IllegalArgumentException if an extension can't be created
+     */
+    protected abstract void warmUpWithSample(Class<?> anExtensionInterface, Object aSampleObject);
     //endregion
 
     protected static String formatAdvice(Object anObject, Object anAdvice, AdviceType anAdviceType) {
@@ -171,6 +632,26 @@ public abstract class AbstractClassExtension implements ClassExtension {
 
     protected final List<SinglePointcut> pointcuts = Collections.synchronizedList(new ArrayList<>());
 
+    /**
+     * Mirrors emptiness of {@code pointcuts}, so it can be checked per operation without locking
+     */
+    private volatile boolean hasPointcuts;
+
+    /**
+     * Checks if there are any pointcuts added
+     * @return {@code true} if there are pointcuts; {@code false} otherwise
+     */
+    boolean hasPointcuts() {
+        return hasPointcuts;
+    }
+
+    /**
+     * Checks if operations for an extension interface must be performed with aspects or verbose logging applied
+     */
+    boolean isOperationIntercepted(Class<?> anExtensionInterface) {
+        return isVerbose() || hasPointcuts() && isAspectsEnabled(anExtensionInterface);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -197,6 +678,7 @@ public abstract class AbstractClassExtension implements ClassExtension {
     protected void addPointcut(SinglePointcut aPointcut) {
         synchronized (pointcuts) {
             pointcuts.add(aPointcut);
+            hasPointcuts = true;
         }
     }
 
@@ -217,6 +699,7 @@ public abstract class AbstractClassExtension implements ClassExtension {
                     removedCount++;
                 }
             }
+            hasPointcuts = ! pointcuts.isEmpty();
         }
         if (removedCount == 0 && isVerbose()) {
             logger.info("No pointcut to remove: " + aPointcut);
@@ -309,6 +792,17 @@ public abstract class AbstractClassExtension implements ClassExtension {
                 toList();
     }
 
+    /**
+     * Cache policies of extension interfaces, memoized to avoid reading annotations on every extension lookup
+     */
+    private static final ClassValue<CachePolicy> CACHE_POLICIES = new ClassValue<>() {
+        @Override
+        protected CachePolicy computeValue(Class<?> aType) {
+            ExtensionInterface extensionInterface = aType.getAnnotation(ExtensionInterface.class);
+            return extensionInterface != null ? extensionInterface.cachePolicy() : CachePolicy.DEFAULT;
+        }
+    };
+
     /**
      * Determines whether caching is enabled for the given extension interface.
      * If the extension interface is annotated with {@code ExtensionInterface}, its specified
@@ -319,15 +813,70 @@ public abstract class AbstractClassExtension implements ClassExtension {
      * @return {@code true} if caching is enabled, {@code false} otherwise
      */
     public <T> boolean isCacheEnabled(Class<T> anExtensionInterface) {
-        boolean result = isCacheEnabled();
+        CachePolicy cachePolicy = CACHE_POLICIES.get(anExtensionInterface);
+        return cachePolicy == CachePolicy.DEFAULT ? isCacheEnabled() : cachePolicy != CachePolicy.DISABLED;
+    }
+
+    /**
+     * Determines whether extensions for the given extension interface are cached per object identity. If the extension
+     * interface is annotated with {@code ExtensionInterface}, its specified caching policy will be considered.
+     * Otherwise, the {@code cacheByIdentity} property applies.
+     *
+     * @param anExtensionInterface the extension interface to check for caching policy
+     * @return {@code true} if extensions are cached per object identity, {@code false} otherwise
+     */
+    public boolean isCacheByIdentity(Class<?> anExtensionInterface) {
+        CachePolicy cachePolicy = CACHE_POLICIES.get(anExtensionInterface);
+        return cachePolicy == CachePolicy.IDENTITY || cachePolicy == CachePolicy.DELEGATE_LIFETIME || isCacheByIdentity();
+    }
+
+    /**
+     * Determines the maximum number of cached extensions for the given extension interface. If the extension interface
+     * is annotated with {@code ExtensionInterface} specifying the {@code cacheSize}, it will be considered. Otherwise,
+     * the {@code cacheMaxSize} property applies.
+     *
+     * @param anExtensionInterface the extension interface to check for cache size
+     * @return maximum size of a cache partition for the extension interface
+     */
+    public int cacheMaxSize(Class<?> anExtensionInterface) {
+        int result = getCacheMaxSize();
         if (anExtensionInterface.isAnnotationPresent(ExtensionInterface.class)) {
-            CachePolicy cachePolicy = anExtensionInterface.getAnnotation(ExtensionInterface.class).cachePolicy();
-            if (cachePolicy != CachePolicy.DEFAULT)
-                result = cachePolicy == CachePolicy.ENABLED;
+            int cacheSize = anExtensionInterface.getAnnotation(ExtensionInterface.class).cacheSize();
+            if (cacheSize > 0)
+                result = cacheSize;
         }
         return result;
     }
 
+    /**
+     * Determines the strength of references to cached extensions for the given extension interface, i.e. if the
+     * extension interface is annotated with {@code ExtensionInterface} specifying the {@code CachePolicy.SOFT} or
+     * {@code CachePolicy.STRONG} caching policy.
+     *
+     * @param anExtensionInterface the extension interface to check for caching policy
+     * @return reference strength, or {@code null} if the {@code cacheValueStrength} property applies
+     */
+    public ThreadSafeWeakCache.ReferenceStrength cacheValueStrength(Class<?> anExtensionInterface) {
+        return switch (CACHE_POLICIES.get(anExtensionInterface)) {
+            case SOFT -> ThreadSafeWeakCache.ReferenceStrength.SOFT;
+            case STRONG -> ThreadSafeWeakCache.ReferenceStrength.STRONG;
+            default -> null;
+        };
+    }
+
+    /**
+     * Determines whether extensions for the given extension interface are cached for the lifetime of their objects,
+     * i.e. if the extension interface is annotated with {@code ExtensionInterface} specifying the
+     * {@code CachePolicy.DELEGATE_LIFETIME} caching policy, and this class extension supports it.
+     *
+     * @param anExtensionInterface the extension interface to check for caching policy
+     * @return {@code true} if extensions are cached for the lifetime of their objects, {@code false} otherwise
+     */
+    public boolean isCacheForDelegateLifetime(Class<?> anExtensionInterface) {
+        return isDelegateLifetimeCacheSupported() &&
+                CACHE_POLICIES.get(anExtensionInterface) == CachePolicy.DELEGATE_LIFETIME;
+    }
+
     /**
      * Determines whether aspects are enabled for the given extension interface. If the extension
      * interface is annotated with {@code ExtensionInterface}, its specified aspects policy will
@@ -24,7 +24,9 @@ SOFTWARE.
 
 package com.gl.classext;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -65,6 +67,31 @@ public interface ClassExtension {
          * Cache is enabled
          */
         ENABLED,
+        /**
+         * Cache is enabled, and extensions are cached per object identity rather than per object equality. Objects'
+         * {@code hashCode()} and {@code equals()} are never called, and equal but distinct objects get distinct
+         * extensions
+         */
+        IDENTITY,
+        /**
+         * Cache is enabled, and an extension is cached per object identity for as long as the object itself is alive:
+         * the cache refers to objects weakly and holds extensions strongly, so extensions survive garbage collections
+         * and are released together with their objects. They are never evicted and do not count toward cache size and
+         * weight bounds. Extensions cached this way do not keep their objects reachable, so keep a reference to an
+         * object while using its extension. Only dynamic extensions support this policy; static extension classes hold
+         * their delegates directly, so for them it is the same as {@code IDENTITY}
+         */
+        DELEGATE_LIFETIME,
+        /**
+         * Cache is enabled, and extensions are held softly, so they survive minor garbage collections and are released
+         * only if the JVM runs low on memory
+         */
+        SOFT,
+        /**
+         * Cache is enabled, and extensions are held strongly, so they are released only when evicted or expired. It
+         * suits small sets of hot extensions; note that such extensions keep their objects reachable while cached
+         */
+        STRONG,
     }
 
     /**
@@ -97,6 +124,11 @@ public interface ClassExtension {
          * Dynamic extension
          */
         DYNAMIC,
+        /**
+         * Dynamic extension using a generated class that calls registered operations or object methods directly; it
+         * supports the same features as proxies do
+         */
+        DYNAMIC_GENERATED,
         /**
          * Static extension using dynamic proxy access to an extension instance
          */
@@ -104,7 +136,12 @@ public interface ClassExtension {
         /**
          * Static extension using direct access to an extension instance
          */
-        STATIC_DIRECT
+        STATIC_DIRECT,
+        /**
+         * Static extension using a generated class that forwards calls directly to an extension instance or its
+         * delegate; it supports the same features as proxies do
+         */
+        STATIC_GENERATED
     }
 
     /**
@@ -198,9 +235,11 @@ public interface ClassExtension {
     static <T> T sharedExtension(Object anObject, Class<T> anExtensionInterface, Type type) {
         switch (type) {
             case DYNAMIC:
+            case DYNAMIC_GENERATED:
                 return DynamicClassExtension.sharedExtension(anObject, anExtensionInterface);
             case STATIC_PROXY:
             case STATIC_DIRECT:
+            case STATIC_GENERATED:
                 return StaticClassExtension.sharedExtension(anObject, anExtensionInterface);
             default:
                 throw new IllegalStateException("Unexpected value: " + type);
@@ -221,9 +260,11 @@ public interface ClassExtension {
         if (annotation != null) {
             switch (annotation.type()) {
                 case DYNAMIC:
+                case DYNAMIC_GENERATED:
                     return DynamicClassExtension.sharedInstance().extension(anObject, anExtensionInterface, aSupplementaryInterfaces);
                 case STATIC_PROXY:
                 case STATIC_DIRECT:
+                case STATIC_GENERATED:
                     return StaticClassExtension.sharedInstance().extension(anObject, anExtensionInterface, aSupplementaryInterfaces);
                 default:
                     throw new IllegalStateException("Unexpected value: " + annotation.type());
@@ -321,6 +362,95 @@ public interface ClassExtension {
      */
     boolean cacheIsEmpty();
 
+    /**
+     * Returns a snapshot of cache statistics: hits, misses, loads, evictions, garbage collected entries, size and
+     * cleanup passes, summed up for all extension interfaces
+     * @return cache statistics
+     */
+    ThreadSafeWeakCache.Stats cacheStats();
+
+    /**
+     * Returns a snapshot of statistics of a cache partition holding extensions for an extension interface
+     * @param anExtensionInterface extension interface
+     * @return cache statistics
+     */
+    ThreadSafeWeakCache.Stats cacheStats(Class<?> anExtensionInterface);
+
+    /**
+     * Resets cache statistics
+     */
+    void cacheResetStats();
+
+    /**
+     * Eagerly resolves extensions for all combinations of extension interfaces and object classes: looks up extension
+     * classes, compiles their factories and prepares dispatch paths, so the first {@code extension(...)} calls do not
+     * pay for it. Failures do not stop warming up; they are reported per pair instead
+     *
+     * @param anExtensionInterfaces extension interfaces to warm up
+     * @param anObjectClasses       classes of objects to warm up extensions for
+     * @param isParallel            {@code true} if pairs should be warmed up in parallel
+     * @return a warm-up report
+     */
+    WarmUpReport warmUp(Collection<Class<?>> anExtensionInterfaces, Collection<Class<?>> anObjectClasses, boolean isParallel);
+
+    /**
+     * Eagerly resolves extensions for all combinations of extension interfaces and sample objects like
+     * {@link #warmUp(Collection, Collection, boolean)} does, additionally creating extensions for the sample objects and
+     * pre-invoking their dispatch paths. Extensions created for sample objects are not cached
+     *
+     * @param anExtensionInterfaces extension interfaces to warm up
+     * @param aSampleObjects        sample objects to warm up extensions for
+     * @param isParallel            {@code true} if pairs should be warmed up in parallel
+     * @return a warm-up report
+     */
+    WarmUpReport warmUpWithSamples(Collection<Class<?>> anExtensionInterfaces, Collection<?> aSampleObjects, boolean isParallel);
+
+    /**
+     * Represents a result of warming up an extension interface for an object class
+     *
+     * @param extensionInterface extension interface
+     * @param objectClass        object class
+     * @param duration           time spent warming up
+     * @param error              an error occurred; {@code null} if warming up succeeded
+     */
+    record WarmUpResult(Class<?> extensionInterface, Class<?> objectClass, Duration duration, Throwable error) {
+        /**
+         * Checks if warming up succeeded
+         * @return {@code true} if warming up succeeded; {@code false} otherwise
+         */
+        public boolean isSuccessful() {
+            return error == null;
+        }
+    }
+
+    /**
+     * Represents a report of warming up
+     *
+     * @param results  results for every extension interface and object class pair
+     * @param duration total time spent warming up
+     */
+    record WarmUpReport(List<WarmUpResult> results, Duration duration) {
+        public WarmUpReport {
+            results = List.copyOf(results);
+        }
+
+        /**
+         * Checks if warming up succeeded for all the pairs
+         * @return {@code true} if warming up succeeded for all the pairs; {@code false} otherwise
+         */
+        public boolean isSuccessful() {
+            return results.stream().allMatch(WarmUpResult::isSuccessful);
+        }
+
+        /**
+         * Returns results of pairs failed to warm up
+         * @return failed results
+         */
+        public List<WarmUpResult> failures() {
+            return results.stream().filter(result -> ! result.isSuccessful()).toList();
+        }
+    }
+
     /**
      * An interface for objects holding an identity
      */
@@ -0,0 +1,124 @@
+/*
+Copyright 2024 Gregory Ledenev (gregory.ledenev37@gmail.com)
+
+MIT License
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the “Software”), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+package com.gl.classext;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A cache of values computed for combinations of classes, which does not prevent classes and their class loaders from
+ * being unloaded. Values are kept in a {@code ClassValue} of an owner class: a class of a combination loaded by the
+ * most specific class loader, so a value may only refer to classes of the same or ancestor class loaders and never
+ * pins a class loader that would be unloaded otherwise.
+ *
+ * @param <K> the type of keys, identifying combinations of classes for an owner class
+ * @param <V> the type of values
+ */
+final class ClassKeyedCache<K, V> {
+    private final ClassValue<Map<K, V>> values = new ClassValue<>() {
+        @Override
+        protected Map<K, V> computeValue(Class<?> aType) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Returns a value for a key
+     *
+     * @param anOwnerClass owner class
+     * @param aKey         key
+     * @return a value or {@code null} if there is no value for a key
+     */
+    V get(Class<?> anOwnerClass, K aKey) {
+        return values.get(anOwnerClass).get(aKey);
+    }
+
+    /**
+     * Associates a value with a key, replacing a previous value if any
+     *
+     * @param anOwnerClass owner class
+     * @param aKey         key
+     * @param aValue       value
+     */
+    void put(Class<?> anOwnerClass, K aKey, V aValue) {
+        values.get(anOwnerClass).put(aKey, aValue);
+    }
+
+    /**
+     * Associates a value with a key if there is no value yet
+     *
+     * @param anOwnerClass owner class
+     * @param aKey         key
+     * @param aValue       value
+     * @return a value associated with a key
+     */
+    V putIfAbsent(Class<?> anOwnerClass, K aKey, V aValue) {
+        V result = values.get(anOwnerClass).putIfAbsent(aKey, aValue);
+        return result != null ? result : aValue;
+    }
+
+    /**
+     * Returns a value for a key, computing it if needed
+     *
+     * @param anOwnerClass     owner class
+     * @param aKey             key
+     * @param aMappingFunction function to compute a value
+     * @return a value
+     */
+    V computeIfAbsent(Class<?> anOwnerClass, K aKey, Function<? super K, ? extends V> aMappingFunction) {
+        Map<K, V> ownerValues = values.get(anOwnerClass);
+        V result = ownerValues.get(aKey);
+        return result != null ? result : ownerValues.computeIfAbsent(aKey, aMappingFunction);
+    }
+
+    /**
+     * Returns a class of two loaded by the most specific class loader, i.e. one whose class loader delegates to a class
+     * loader of another one. For classes of unrelated class loaders the first class is returned
+     */
+    static Class<?> ownerClass(Class<?> aClass, Class<?> anOtherClass) {
+        ClassLoader classLoader = aClass.getClassLoader();
+        ClassLoader otherClassLoader = anOtherClass.getClassLoader();
+        if (classLoader == otherClassLoader || isAncestor(otherClassLoader, classLoader))
+            return aClass;
+        return isAncestor(classLoader, otherClassLoader) ? anOtherClass : aClass;
+    }
+
+    /**
+     * Returns a class of three loaded by the most specific class loader
+     */
+    static Class<?> ownerClass(Class<?> aClass, Class<?> anOtherClass, Class<?> aThirdClass) {
+        return ownerClass(ownerClass(aClass, anOtherClass), aThirdClass);
+    }
+
+    private static boolean isAncestor(ClassLoader anAncestor, ClassLoader aClassLoader) {
+        if (anAncestor == null) // the bootstrap class loader
+            return true;
+        for (ClassLoader current = aClassLoader; current != null; current = current.getParent())
+            if (current == anAncestor)
+                return true;
+        return false;
+    }
+}
@@ -25,13 +25,14 @@ SOFTWARE.
 package com.gl.classext;
 
 import java.lang.invoke.MethodHandle;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -39,7 +40,6 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.gl.classext.Aspects.*;
-import static com.gl.classext.ThreadSafeWeakCache.ClassExtensionKey;
 import static java.text.MessageFormat.format;
 
 /**
@@ -110,7 +110,9 @@ import static java.text.MessageFormat.format;
  * @author Gregory Ledenev
  */
 public class DynamicClassExtension extends AbstractClassExtension {
-    protected final ConcurrentHashMap<OperationKey, PerformerHolder<?>> operationsMap = new ConcurrentHashMap<>();
+    final OperationRegistry<PerformerHolder<?>> operations = new OperationRegistry<>();
+    private final AtomicLong operationsVersion = new AtomicLong();
+    private final ClassKeyedCache<DispatchKey, ResolvedOperation> resolvedOperations = new ClassKeyedCache<>();
     private static final DynamicClassExtension dynamicClassExtension = new DynamicClassExtension();
 
     public static DynamicClassExtension sharedInstance() {
@@ -169,6 +171,13 @@ public class DynamicClassExtension extends AbstractClassExtension {
                 whenComplete = null;
         }
 
+        /**
+         * Checks if an operation is performed synchronously and has no advices, so it can be called directly
+         */
+        boolean isPlain() {
+            return ! async && before == null && after == null && around == null;
+        }
+
         public BiConsumer<?, ? super Throwable> getWhenComplete() {
             return whenComplete;
         }
@@ -337,7 +346,409 @@ public class DynamicClassExtension extends AbstractClassExtension {
         }
     }
 
-    static final String SUFFIX_BI = "Bi";
+    /**
+     * Represents a function that accepts three arguments and produces a result. This is the three-arity
+     * specialization of {@link FunctionPerformer} that lets operations having two parameters take their arguments
+     * separately rather than as an array.
+     *
+     * @param <T> the type of the first argument to the function
+     * @param <U> the type of the second argument to the function
+     * @param <V> the type of the third argument to the function
+     * @param <R> the type of the result of the function
+     */
+    @FunctionalInterface
+    @SuppressWarnings({"unchecked"})
+    public interface TriFunctionPerformer<T, U, V, R> extends Performer<R> {
+        /**
+         * Applies this function to the given arguments.
+         *
+         * @param anObject the first function argument
+         * @param anArg1   the second function argument
+         * @param anArg2   the third function argument
+         * @return the function result
+         */
+        R apply(T anObject, U anArg1, V anArg2);
+
+        /**
+         * Performs an operation explicitly defined by its arguments that returns some result.
+         *
+         * @param operation operation name
+         * @param anObject  an object to perform the operation for
+         * @param anArgs    arguments
+         * @return operation result
+         */
+        @Override
+        default R perform(String operation, Object anObject, Object[] anArgs) {
+            return apply((T) anObject, (U) anArgs[0], (V) anArgs[1]);
+        }
+    }
+
+    /**
+     * Represents a function that accepts four arguments and produces a result. This is the four-arity
+     * specialization of {@link FunctionPerformer} that lets operations having three parameters take their arguments
+     * separately rather than as an array.
+     *
+     * @param <T> the type of the first argument to the function
+     * @param <U> the type of the second argument to the function
+     * @param <V> the type of the third argument to the function
+     * @param <W> the type of the fourth argument to the function
+     * @param <R> the type of the result of the function
+     */
+    @FunctionalInterface
+    @SuppressWarnings({"unchecked"})
+    public interface QuadFunctionPerformer<T, U, V, W, R> extends Performer<R> {
+        /**
+         * Applies this function to the given arguments.
+         *
+         * @param anObject the first function argument
+         * @param anArg1   the second function argument
+         * @param anArg2   the third function argument
+         * @param anArg3   the fourth function argument
+         * @return the function result
+         */
+        R apply(T anObject, U anArg1, V anArg2, W anArg3);
+
+        /**
+         * Performs an operation explicitly defined by its arguments that returns some result.
+         *
+         * @param operation operation name
+         * @param anObject  an object to perform the operation for
+         * @param anArgs    arguments
+         * @return operation result
+         */
+        @Override
+        default R perform(String operation, Object anObject, Object[] anArgs) {
+            return apply((T) anObject, (U) anArgs[0], (V) anArgs[1], (W) anArgs[2]);
+        }
+    }
+
+    /**
+     * Represents an operation that accepts three input arguments and returns no result. This is the three-arity
+     * specialization of {@link ConsumerPerformer}.
+     *
+     * @param <T> the type of the first argument to the operation
+     * @param <U> the type of the second argument to the operation
+     * @param <V> the type of the third argument to the operation
+     */
+    @FunctionalInterface
+    @SuppressWarnings({"unchecked"})
+    public interface TriConsumerPerformer<T, U, V> extends Performer<Void> {
+        /**
+         * Performs this operation on the given arguments.
+         *
+         * @param anObject the first input argument
+         * @param anArg1   the second input argument
+         * @param anArg2   the third input argument
+         */
+        void accept(T anObject, U anArg1, V anArg2);
+
+        /**
+         * Performs an operation explicitly defined by its arguments that returns some result.
+         *
+         * @param operation operation name
+         * @param anObject  an object to perform the operation for
+         * @param anArgs    arguments
+         * @return operation result
+         */
+        @Override
+        default Void perform(String operation, Object anObject, Object[] anArgs) {
+            accept((T) anObject, (U) anArgs[0], (V) anArgs[1]);
+            return null;
+        }
+    }
+
+    /**
+     * Represents an operation that accepts four input arguments and returns no result. This is the four-arity
+     * specialization of {@link ConsumerPerformer}.
+     *
+     * @param <T> the type of the first argument to the operation
+     * @param <U> the type of the second argument to the operation
+     * @param <V> the type of the third argument to the operation
+     * @param <W> the type of the fourth argument to the operation
+     */
+    @FunctionalInterface
+    @SuppressWarnings({"unchecked"})
+    public interface QuadConsumerPerformer<T, U, V, W> extends Performer<Void> {
+        /**
+         * Performs this operation on the given arguments.
+         *
+         * @param anObject the first input argument
+         * @param anArg1   the second input argument
+         * @param anArg2   the third input argument
+         * @param anArg3   the fourth input argument
+         */
+        void accept(T anObject, U anArg1, V anArg2, W anArg3);
+
+        /**
+         * Performs an operation explicitly defined by its arguments that returns some result.
+         *
+         * @param operation operation name
+         * @param anObject  an object to perform the operation for
+         * @param anArgs    arguments
+         * @return operation result
+         */
+        @Override
+        default Void perform(String operation, Object anObject, Object[] anArgs) {
+            accept((T) anObject, (U) anArgs[0], (V) anArgs[1], (W) anArgs[2]);
+            return null;
+        }
+    }
+
+    /**
+     * Represents a function that accepts one argument and produces an int-valued result. This is the
+     * int-producing specialization of {@link FunctionPerformer} that avoids boxing of results.
+     *
+     * @param <T> the type of the input to the function
+     */
+    @FunctionalInterface
+    @SuppressWarnings({"unchecked"})
+    public interface IntPerformer<T> extends Performer<Integer> {
+        /**
+         * Applies this function to the given argument.
+         *
+         * @param anObject the function argument
+         * @return the function result
+         */
+        int applyAsInt(T anObject);
+
+        /**
+         * Performs an operation explicitly defined by its arguments that returns some result.
+         *
+         * @param operation operation name
+         * @param anObject  an object to perform the operation for
+         * @param anArgs    arguments
+         * @return operation result
+         */
+        @Override
+        default Integer perform(String operation, Object anObject, Object[] anArgs) {
+            return applyAsInt((T) anObject);
+        }
+    }
+
+    /**
+     * Represents a function that accepts an object and an int-valued argument and produces an int-valued
+     * result. This is the int specialization of {@link BiFunctionPerformer} that avoids boxing of arguments and
+     * results.
+     *
+     * @param <T> the type of the first argument to the function
+     */
+    @FunctionalInterface
+    @SuppressWarnings({"unchecked"})
+    public interface IntBiPerformer<T> extends Performer<Integer> {
+        /**
+         * Applies this function to the given arguments.
+         *
+         * @param anObject the first function argument
+         * @param anArg    the second function argument
+         * @return the function result
+         */
+        int applyAsInt(T anObject, int anArg);
+
+        /**
+         * Performs an operation explicitly defined by its arguments that returns some result.
+         *
+         * @param operation operation name
+         * @param anObject  an object to perform the operation for
+         * @param anArgs    arguments
+         * @return operation result
+         */
+        @Override
+        default Integer perform(String operation, Object anObject, Object[] anArgs) {
+            return applyAsInt((T) anObject, (Integer) anArgs[0]);
+        }
+    }
+
+    /**
+     * Represents a function that accepts one argument and produces a long-valued result. This is the
+     * long-producing specialization of {@link FunctionPerformer} that avoids boxing of results.
+     *
+     * @param <T> the type of the input to the function
+     */
+    @FunctionalInterface
+    @SuppressWarnings({"unchecked"})
+    public interface LongPerformer<T> extends Performer<Long> {
+        /**
+         * Applies this function to the given argument.
+         *
+         * @param anObject the function argument
+         * @return the function result
+         */
+        long applyAsLong(T anObject);
+
+        /**
+         * Performs an operation explicitly defined by its arguments that returns some result.
+         *
+         * @param operation operation name
+         * @param anObject  an object to perform the operation for
+         * @param anArgs    arguments
+         * @return operation result
+         */
+        @Override
+        default Long perform(String operation, Object anObject, Object[] anArgs) {
+            return applyAsLong((T) anObject);
+        }
+    }
+
+    /**
+     * Represents a function that accepts an object and a long-valued argument and produces a long-valued
+     * result. This is the long specialization of {@link BiFunctionPerformer} that avoids boxing of arguments and
+     * results.
+     *
+     * @param <T> the type of the first argument to the function
+     */
+    @FunctionalInterface
+    @SuppressWarnings({"unchecked"})
+    public interface LongBiPerformer<T> extends Performer<Long> {
+        /**
+         * Applies this function to the given arguments.
+         *
+         * @param anObject the first function argument
+         * @param anArg    the second function argument
+         * @return the function result
+         */
+        long applyAsLong(T anObject, long anArg);
+
+        /**
+         * Performs an operation explicitly defined by its arguments that returns some result.
+         *
+         * @param operation operation name
+         * @param anObject  an object to perform the operation for
+         * @param anArgs    arguments
+         * @return operation result
+         */
+        @Override
+        default Long perform(String operation, Object anObject, Object[] anArgs) {
+            return applyAsLong((T) anObject, (Long) anArgs[0]);
+        }
+    }
+
+    /**
+     * Represents a function that accepts one argument and produces a double-valued result. This is the
+     * double-producing specialization of {@link FunctionPerformer} that avoids boxing of results.
+     *
+     * @param <T> the type of the input to the function
+     */
+    @FunctionalInterface
+    @SuppressWarnings({"unchecked"})
+    public interface DoublePerformer<T> extends Performer<Double> {
+        /**
+         * Applies this function to the given argument.
+         *
+         * @param anObject the function argument
+         * @return the function result
+         */
+        double applyAsDouble(T anObject);
+
+        /**
+         * Performs an operation explicitly defined by its arguments that returns some result.
+         *
+         * @param operation operation name
+         * @param anObject  an object to perform the operation for
+         * @param anArgs    arguments
+         * @return operation result
+         */
+        @Override
+        default Double perform(String operation, Object anObject, Object[] anArgs) {
+            return applyAsDouble((T) anObject);
+        }
+    }
+
+    /**
+     * Represents a function that accepts an object and a double-valued argument and produces a double-valued
+     * result. This is the double specialization of {@link BiFunctionPerformer} that avoids boxing of arguments and
+     * results.
+     *
+     * @param <T> the type of the first argument to the function
+     */
+    @FunctionalInterface
+    @SuppressWarnings({"unchecked"})
+    public interface DoubleBiPerformer<T> extends Performer<Double> {
+        /**
+         * Applies this function to the given arguments.
+         *
+         * @param anObject the first function argument
+         * @param anArg    the second function argument
+         * @return the function result
+         */
+        double applyAsDouble(T anObject, double anArg);
+
+        /**
+         * Performs an operation explicitly defined by its arguments that returns some result.
+         *
+         * @param operation operation name
+         * @param anObject  an object to perform the operation for
+         * @param anArgs    arguments
+         * @return operation result
+         */
+        @Override
+        default Double perform(String operation, Object anObject, Object[] anArgs) {
+            return applyAsDouble((T) anObject, (Double) anArgs[0]);
+        }
+    }
+
+    /**
+     * Represents a function that accepts one argument and produces a boolean-valued result. This is the
+     * boolean-producing specialization of {@link FunctionPerformer} that avoids boxing of results.
+     *
+     * @param <T> the type of the input to the function
+     */
+    @FunctionalInterface
+    @SuppressWarnings({"unchecked"})
+    public interface BooleanPerformer<T> extends Performer<Boolean> {
+        /**
+         * Applies this function to the given argument.
+         *
+         * @param anObject the function argument
+         * @return the function result
+         */
+        boolean applyAsBoolean(T anObject);
+
+        /**
+         * Performs an operation explicitly defined by its arguments that returns some result.
+         *
+         * @param operation operation name
+         * @param anObject  an object to perform the operation for
+         * @param anArgs    arguments
+         * @return operation result
+         */
+        @Override
+        default Boolean perform(String operation, Object anObject, Object[] anArgs) {
+            return applyAsBoolean((T) anObject);
+        }
+    }
+
+    /**
+     * Represents a function that accepts an object and a boolean-valued argument and produces a boolean-valued
+     * result. This is the boolean specialization of {@link BiFunctionPerformer} that avoids boxing of arguments and
+     * results.
+     *
+     * @param <T> the type of the first argument to the function
+     */
+    @FunctionalInterface
+    @SuppressWarnings({"unchecked"})
+    public interface BooleanBiPerformer<T> extends Performer<Boolean> {
+        /**
+         * Applies this function to the given arguments.
+         *
+         * @param anObject the first function argument
+         * @param anArg    the second function argument
+         * @return the function result
+         */
+        boolean applyAsBoolean(T anObject, boolean anArg);
+
+        /**
+         * Performs an operation explicitly defined by its arguments that returns some result.
+         *
+         * @param operation operation name
+         * @param anObject  an object to perform the operation for
+         * @param anArgs    arguments
+         * @return operation result
+         */
+        @Override
+        default Boolean perform(String operation, Object anObject, Object[] anArgs) {
+            return applyAsBoolean((T) anObject, (Boolean) anArgs[0]);
+        }
+    }
 
     private interface Null {}
     <R, T, E> PerformerHolder<R> addExtensionOperation(Class<T> anObjectClass,
@@ -348,13 +759,45 @@ public class DynamicClassExtension extends AbstractClassExtension {
         Class<?> objectClass = anObjectClass != null ? anObjectClass : Null.class;
         checkAddOperationArguments(objectClass, anExtensionInterface, anOperationName, anOperation);
 
-        OperationKey key = new OperationKey(objectClass, anExtensionInterface, operationName(anOperationName, null));
-        if (operationsMap.containsKey(key))
-            duplicateOperationError(displayOperationName(anOperationName, false, null));
-        PerformerHolder<R> result = new PerformerHolder<>(anOperation);
-        result.setOperationKey(key.toString());
-        operationsMap.put(key, result);
-        return result;
+        return addExtensionOperation(objectClass, anExtensionInterface, anOperationName, null, false,
+                new PerformerHolder<>(anOperation));
+    }
+
+    /**
+     * Adds an operation that takes its arguments separately
+     *
+     * @param aParameterCount number of operation parameters, from {@code 2} to {@code OperationRegistry.MAX_ARITY}
+     */
+    <R, T, E> PerformerHolder<R> addMultiParameterExtensionOperation(Class<T> anObjectClass,
+                                                                     Class<E> anExtensionInterface,
+                                                                     String anOperationName,
+                                                                     Performer<R> anOperation,
+                                                                     int aParameterCount,
+                                                                     boolean isVoid) {
+        Class<?> objectClass = anObjectClass != null ? anObjectClass : Null.class;
+        checkAddOperationArguments(objectClass, anExtensionInterface, anOperationName, anOperation);
+
+        Class<?>[] parameterTypes = new Class<?>[aParameterCount];
+        Arrays.fill(parameterTypes, Object.class);
+        return addExtensionOperation(objectClass, anExtensionInterface, anOperationName, parameterTypes, isVoid,
+                new PerformerHolder<>(anOperation));
+    }
+
+    /**
+     * Adds an operation that uses a primitive-specialized performer
+     *
+     * @param hasParameter {@code true} if an operation has a parameter
+     */
+    <T, E> PerformerHolder<?> addPrimitiveExtensionOperation(Class<T> anObjectClass,
+                                                             Class<E> anExtensionInterface,
+                                                             String anOperationName,
+                                                             Performer<?> anOperation,
+                                                             boolean hasParameter) {
+        Class<?> objectClass = anObjectClass != null ? anObjectClass : Null.class;
+        checkAddOperationArguments(objectClass, anExtensionInterface, anOperationName, anOperation);
+
+        return addExtensionOperation(objectClass, anExtensionInterface, anOperationName,
+                hasParameter ? SINGLE_PARAMETERS : null, false, new PerformerHolder<>(anOperation));
     }
 
     private static <T, E> void checkAddOperationArguments(Class<T> aClass, Class<E> anExtensionInterface, String anOperationName, Object anOperation) {
@@ -364,6 +807,20 @@ public class DynamicClassExtension extends AbstractClassExtension {
         Objects.requireNonNull(anOperation, "Operation is not specified");
     }
 
+    private <R> PerformerHolder<R> addExtensionOperation(Class<?> anObjectClass,
+                                                         Class<?> anExtensionInterface,
+                                                         String anOperationName,
+                                                         Class<?>[] aParameterTypes,
+                                                         boolean isVoid,
+                                                         PerformerHolder<R> aPerformerHolder) {
+        int operationId = operationId(anOperationName, aParameterTypes);
+        if (operations.putIfAbsent(anObjectClass, anExtensionInterface, operationId, aPerformerHolder) != null)
+            duplicateOperationError(displayOperationName(anOperationName, isVoid, aParameterTypes));
+        aPerformerHolder.setOperationKey(operationKey(anObjectClass, anExtensionInterface, operationId).toString());
+        operationsChanged();
+        return aPerformerHolder;
+    }
+
     void duplicateOperationError(String anOperationName) {
         throw new IllegalArgumentException("Duplicate operation: " + anOperationName);
     }
@@ -377,13 +834,8 @@ public class DynamicClassExtension extends AbstractClassExtension {
         Class<?> objectClass = anObjectClass != null ? anObjectClass : Null.class;
         checkAddOperationArguments(objectClass, anExtensionInterface, anOperationName, anOperation);
 
-        OperationKey key = new OperationKey(objectClass, anExtensionInterface, operationName(anOperationName, SINGLE_PARAMETERS));
-        if (operationsMap.containsKey(key))
-            duplicateOperationError(displayOperationName(anOperationName, false, SINGLE_PARAMETERS));
-        PerformerHolder<R> result = new PerformerHolder<>(anOperation);
-        result.setOperationKey(key.toString());
-        operationsMap.put(key, result);
-        return result;
+        return addExtensionOperation(objectClass, anExtensionInterface, anOperationName, SINGLE_PARAMETERS, false,
+                new PerformerHolder<>(anOperation));
     }
 
     <T, E> PerformerHolder<Void> addVoidExtensionOperation(Class<T> anObjectClass,
@@ -393,13 +845,8 @@ public class DynamicClassExtension extends AbstractClassExtension {
         Class<?> objectClass = anObjectClass != null ? anObjectClass : Null.class;
         checkAddOperationArguments(objectClass, anExtensionInterface, anOperationName, anOperation);
 
-        OperationKey key = new OperationKey(objectClass, anExtensionInterface, operationName(anOperationName, null));
-        if (operationsMap.containsKey(key))
-            duplicateOperationError(displayOperationName(anOperationName, true, null));
-        PerformerHolder<Void> result = new PerformerHolder<>(anOperation);
-        result.setOperationKey(key.toString());
-        operationsMap.put(key, result);
-        return result;
+        return addExtensionOperation(objectClass, anExtensionInterface, anOperationName, null, true,
+                new PerformerHolder<>(anOperation));
     }
 
     <T, U, E> PerformerHolder<Void> addVoidExtensionOperation(Class<T> anObjectClass,
@@ -409,23 +856,48 @@ public class DynamicClassExtension extends AbstractClassExtension {
         Class<?> objectClass = anObjectClass != null ? anObjectClass : Null.class;
         checkAddOperationArguments(objectClass, anExtensionInterface, anOperationName, anOperation);
 
-        OperationKey key = new OperationKey(objectClass, anExtensionInterface, operationName(anOperationName, SINGLE_PARAMETERS));
-        if (operationsMap.containsKey(key))
-            duplicateOperationError(displayOperationName(anOperationName, true, SINGLE_PARAMETERS));
-        PerformerHolder<Void> result = new PerformerHolder<>(anOperation);
-        result.setOperationKey(key.toString());
-        operationsMap.put(key, result);
-        return result;
+        return addExtensionOperation(objectClass, anExtensionInterface, anOperationName, SINGLE_PARAMETERS, true,
+                new PerformerHolder<>(anOperation));
     }
 
     <T, E> PerformerHolder<?> getExtensionOperation(Class<T> aClass,
                                         Class<E> anExtensionInterface,
-                                        String anOperationName) {
+                                        int anOperationId) {
         Objects.requireNonNull(aClass);
         Objects.requireNonNull(anExtensionInterface);
-        Objects.requireNonNull(anOperationName);
 
-        return operationsMap.get(new OperationKey(aClass, anExtensionInterface, anOperationName));
+        return operations.get(aClass, anExtensionInterface, anOperationId);
+    }
+
+    /**
+     * Returns an operation taking its arguments separately if there is one, or an operation taking its arguments as an
+     * array otherwise
+     *
+     * @param aTypedOperationId id of an operation taking its arguments separately or {@code -1}
+     * @param anOperationId     id of an operation having no or one parameter, or taking its arguments as an array
+     */
+    private PerformerHolder<?> getExtensionOperation(Class<?> aClass, Class<?> anExtensionInterface,
+                                                     int aTypedOperationId, int anOperationId) {
+        PerformerHolder<?> result = aTypedOperationId >= 0 ?
+                getExtensionOperation(aClass, anExtensionInterface, aTypedOperationId) :
+                null;
+        return result != null ? result : getExtensionOperation(aClass, anExtensionInterface, anOperationId);
+    }
+
+    /**
+     * Returns an id of a registered operation having given parameter types, preferring an operation taking its
+     * arguments separately to an operation taking them as an array
+     *
+     * @return operation id or {@code -1} if no operation with such name has ever been registered
+     */
+    int registeredOperationId(Class<?> aClass, Class<?> anExtensionInterface, String anOperationName,
+                              Class<?>[] aParameterTypes) {
+        int parameterCount = aParameterTypes != null ? aParameterTypes.length : 0;
+        int result = operations.findOperationId(anOperationName, arity(parameterCount));
+        int typedOperationId = result >= 0 ? typedOperationId(result, parameterCount) : -1;
+        return typedOperationId >= 0 && operations.get(aClass, anExtensionInterface, typedOperationId) != null ?
+                typedOperationId :
+                result;
     }
 
     <T, E> void removeExtensionOperation(Class<T> aClass,
@@ -436,14 +908,64 @@ public class DynamicClassExtension extends AbstractClassExtension {
         Objects.requireNonNull(anExtensionClass);
         Objects.requireNonNull(anOperationName);
 
-        operationsMap.remove(new OperationKey(aClass, anExtensionClass, operationName(anOperationName, aParameterTypes)));
+        int operationId = registeredOperationId(aClass, anExtensionClass, anOperationName, aParameterTypes);
+        if (operationId >= 0 && operations.remove(aClass, anExtensionClass, operationId) != null)
+            operationsChanged();
+    }
+
+    /**
+     * Invalidates resolved operations remembered for dispatching. Should be called after any change of registered
+     * operations
+     */
+    private void operationsChanged() {
+        operationsVersion.incrementAndGet();
+    }
+
+    /**
+     * Returns a version of registered operations, which changes on any change of registered operations
+     */
+    long operationsVersion() {
+        return operationsVersion.get();
+    }
+
+    /**
+     * Operations resolved for methods of a generated extension class
+     *
+     * @param operationsVersion a version of registered operations the binding is resolved for
+     * @param operations        operations by method indexes; {@code null} for methods without operations
+     */
+    record ForwarderBinding(long operationsVersion, PerformerHolder<?>[] operations) {}
+
+    private record ForwarderBindingKey(Class<?> extensionInterface, Class<?> objectClass) {}
+
+    private final ClassKeyedCache<ForwarderBindingKey, ForwarderBinding> forwarderBindings = new ClassKeyedCache<>();
+
+    /**
+     * Returns operations resolved for methods of a generated extension class, resolving them again if registered
+     * operations have changed
+     */
+    ForwarderBinding forwarderBinding(Class<?> anExtensionInterface, Class<?> anObjectClass, Method[] aMethods) {
+        long version = operationsVersion.get();
+        ForwarderBindingKey key = new ForwarderBindingKey(anExtensionInterface, anObjectClass);
+        Class<?> ownerClass = ClassKeyedCache.ownerClass(anExtensionInterface, anObjectClass);
+
+        ForwarderBinding result = forwarderBindings.get(ownerClass, key);
+        if (result == null || result.operationsVersion() != version) {
+            PerformerHolder<?>[] operations = new PerformerHolder<?>[aMethods.length];
+            for (int i = 0; i < aMethods.length; i++)
+                operations[i] = findExtensionOperation(anObjectClass, anExtensionInterface, aMethods[i], aMethods[i].getParameterTypes()).operation();
+            result = new ForwarderBinding(version, operations);
+            forwarderBindings.put(ownerClass, key, result);
+        }
+        return result;
     }
 
     /**
      * Removes all registered operations
      */
     public void clear() {
-        operationsMap.clear();
+        operations.clear();
+        operationsChanged();
     }
 
     /**
@@ -456,10 +978,23 @@ public class DynamicClassExtension extends AbstractClassExtension {
      * @param anExtensionInterface   class of extension object to be returned
      * @return an extension object
      */
-    @SuppressWarnings({"unchecked"})
     public <T> T extensionNoCache(Object anObject, BiFunction<Method, Object, Object> aMissingMethodsHandler, Class<T> anExtensionInterface, Class<?>... aSupplementaryInterfaces) {
+        return extensionNoCache(anObject, aMissingMethodsHandler, anExtensionInterface, aSupplementaryInterfaces, false);
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private <T> T extensionNoCache(Object anObject, BiFunction<Method, Object, Object> aMissingMethodsHandler,
+                                   Class<T> anExtensionInterface, Class<?>[] aSupplementaryInterfaces,
+                                   boolean isWeakDelegate) {
         Objects.requireNonNull(anExtensionInterface);
 
+        if (isGenerated(anExtensionInterface, anObject, aSupplementaryInterfaces, isWeakDelegate)) {
+            // falls back to a proxy if a class can't be generated, e.g. for an inaccessible interface
+            Object forwarder = ExtensionForwarders.newDynamicForwarder(this, anExtensionInterface, anObject, aMissingMethodsHandler);
+            if (forwarder != null)
+                return (T) forwarder;
+        }
+
         try {
             List<Class<?>> extensionInterfaces = new ArrayList<>();
             extensionInterfaces.add(anExtensionInterface);
@@ -467,12 +1002,64 @@ public class DynamicClassExtension extends AbstractClassExtension {
                 extensionInterfaces.addAll(Arrays.asList(aSupplementaryInterfaces));
             extensionInterfaces.add(PrivateDelegateHolder.class);
 
-            return (T) Proxy.newProxyInstance(getClass().getClassLoader(),
-                    extensionInterfaces.toArray(new Class[0]),
-                    new ExtensionInvocationHandler(anObject, aMissingMethodsHandler, anExtensionInterface, aSupplementaryInterfaces));
-        } catch (Exception ex) {
-            throw new RuntimeException(ex);
-        }
+            return (T) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    extensionInterfaces.toArray(new Class[0]),
+                    new ExtensionInvocationHandler<>(anObject, isWeakDelegate, aMissingMethodsHandler, anExtensionInterface, aSupplementaryInterfaces));
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Extension types of extension interfaces, memoized to avoid reading annotations on every extension creation
+     */
+    private static final ClassValue<Type> EXTENSION_TYPES = new ClassValue<>() {
+        @Override
+        protected Type computeValue(Class<?> aType) {
+            ExtensionInterface extensionInterface = aType.getAnnotation(ExtensionInterface.class);
+            return extensionInterface != null ? extensionInterface.type() : Type.DYNAMIC;
+        }
+    };
+
+    /**
+     * Checks if an extension should be an instance of a generated class rather than a proxy. Generated classes are
+     * used for interfaces of the {@code DYNAMIC_GENERATED} type, unless an extension has supplementary interfaces, is
+     * made for a composition or {@code null}, or must not keep its object reachable
+     */
+    private static boolean isGenerated(Class<?> anExtensionInterface, Object anObject, Class<?>[] aSupplementaryInterfaces,
+                                       boolean isWeakDelegate) {
+        return EXTENSION_TYPES.get(anExtensionInterface) == Type.DYNAMIC_GENERATED &&
+                anObject != null && ! (anObject instanceof Composition) && ! isWeakDelegate &&
+                (aSupplementaryInterfaces == null || aSupplementaryInterfaces.length == 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void warmUp(Class<?> anExtensionInterface, Class<?> anObjectClass) {
+        // looks up operations for all the methods, failing if any of them can't be performed
+        checkValid(anObjectClass, anExtensionInterface);
+        // generates an extension class now rather than on the first extension creation
+        if (EXTENSION_TYPES.get(anExtensionInterface) == Type.DYNAMIC_GENERATED &&
+                ExtensionForwarders.prepareDynamic(anExtensionInterface, anObjectClass))
+            return;
+        // makes the proxy class be defined now rather than on the first extension creation
+        Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{anExtensionInterface, PrivateDelegateHolder.class},
+                (proxy, method, args) -> null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void warmUpWithSample(Class<?> anExtensionInterface, Object aSampleObject) {
+        warmUp(anExtensionInterface, aSampleObject.getClass());
+
+        Object extension = extensionNoCache(aSampleObject, null, anExtensionInterface);
+        extension.hashCode();
+        extension.toString();
     }
 
     /**
@@ -545,19 +1132,35 @@ public class DynamicClassExtension extends AbstractClassExtension {
      * @param aSupplementaryInterfaces supplementary interfaces of an extension object to be returned
      * @return an extension object
      */
-    @SuppressWarnings("unchecked")
     public <T> T extension(Object anObject, BiFunction<Method, Object, Object> aMissingMethodsHandler, Class<T> anExtensionInterface, Class<?>... aSupplementaryInterfaces) {
         Objects.requireNonNull(anExtensionInterface);
 
-        return isCacheEnabled(anExtensionInterface) ?
-                (T) getExtensionCache().getOrCreate(new ClassExtensionKey(anObject, anExtensionInterface), () ->
-                        extensionNoCache(anObject, aMissingMethodsHandler, anExtensionInterface, aSupplementaryInterfaces)) :
-                extensionNoCache(anObject, aMissingMethodsHandler, anExtensionInterface, aSupplementaryInterfaces);
+        if (isCacheEnabled(anExtensionInterface)) {
+            // look up first, so a cache hit does not allocate a supplier
+            T result = getCachedExtension(anObject, anExtensionInterface);
+            if (result != null)
+                return result;
+
+            // extensions cached for the lifetime of their objects must not keep those objects reachable
+            boolean weakDelegate = anObject != null && isCacheForDelegateLifetime(anExtensionInterface);
+            return createCachedExtension(anObject, anExtensionInterface, () ->
+                    extensionNoCache(anObject, aMissingMethodsHandler, anExtensionInterface, aSupplementaryInterfaces, weakDelegate));
+        } else {
+            return extensionNoCache(anObject, aMissingMethodsHandler, anExtensionInterface, aSupplementaryInterfaces);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isDelegateLifetimeCacheSupported() {
+        return true;
     }
 
     @Override
     public boolean compatible(Type aType) {
-        return aType == Type.DYNAMIC;
+        return aType == Type.DYNAMIC || aType == Type.DYNAMIC_GENERATED;
     }
 
     /**
@@ -605,10 +1208,11 @@ public class DynamicClassExtension extends AbstractClassExtension {
                                 Class<?>[] aSupplementaryInterfaces, Method method, Object[] args) throws InvocationTargetException, IllegalAccessException {
         Object result;
 
-        ExtensionOperationResult extensionOperation = findExtensionOperation(anObject, anExtensionInterface, method, args);
+        Class<?> objectClass = anObject != null ? anObject.getClass() : Null.class;
+        ExtensionOperationResult extensionOperation = resolveExtensionOperation(objectClass, anExtensionInterface, method, args);
         if (extensionOperation.operation() == null && aSupplementaryInterfaces != null) {
             for (Class<?> supplementaryInterface : aSupplementaryInterfaces) {
-                extensionOperation = findExtensionOperation(anObject, supplementaryInterface, method, args);
+                extensionOperation = resolveExtensionOperation(objectClass, supplementaryInterface, method, args);
                 if (extensionOperation.operation != null)
                     break;
             }
@@ -832,13 +1436,24 @@ public class DynamicClassExtension extends AbstractClassExtension {
     }
 
     private Object dummyReturnValue(Method aMethod) {
-        Class<?> returnType = aMethod.getReturnType();
-        if (returnType.isPrimitive() || Number.class.isAssignableFrom(returnType) || Boolean.class.isAssignableFrom(returnType))
-            return 0;
-        else
-            return null;
+        return DUMMY_RETURN_VALUES.get(aMethod.getReturnType());
     }
 
+    /**
+     * Zero values of primitive types and their wrappers, returned by asynchronous operations; values of other types are
+     * {@code null}
+     */
+    private static final Map<Class<?>, Object> DUMMY_RETURN_VALUES = Map.ofEntries(
+            Map.entry(int.class, 0), Map.entry(Integer.class, 0),
+            Map.entry(long.class, 0L), Map.entry(Long.class, 0L),
+            Map.entry(double.class, 0.0), Map.entry(Double.class, 0.0),
+            Map.entry(float.class, 0.0f), Map.entry(Float.class, 0.0f),
+            Map.entry(short.class, (short) 0), Map.entry(Short.class, (short) 0),
+            Map.entry(byte.class, (byte) 0), Map.entry(Byte.class, (byte) 0),
+            Map.entry(char.class, (char) 0), Map.entry(Character.class, (char) 0),
+            Map.entry(boolean.class, false), Map.entry(Boolean.class, false),
+            Map.entry(Number.class, 0));
+
     /**
      * Checks if there is a valid extension defined for a passed object. An extension is considered valid if all its
      * methods meet one of the following criteria:
@@ -959,6 +1574,29 @@ public class DynamicClassExtension extends AbstractClassExtension {
 
     record ExtensionOperationResult(PerformerHolder<?> operation, Class<?> inClass) {}
 
+    private record DispatchKey(Class<?> objectClass, Class<?> extensionInterface, Method method) {}
+
+    private record ResolvedOperation(ExtensionOperationResult result, long operationsVersion) {}
+
+    /**
+     * Finds an extension operation for a method invoked via an extension, remembering the result (including a missing
+     * operation, which means falling back to a delegate method) per object class, extension interface and method.
+     * Remembered results are discarded once registered operations change. Resolution depends on arguments only via
+     * their count, which is fixed for a method, so arguments are not a part of a key
+     */
+    <T> ExtensionOperationResult resolveExtensionOperation(Class<?> anObjectClass, Class<T> anExtensionInterface, Method method, Object[] anArgs) {
+        long version = operationsVersion.get();
+        DispatchKey key = new DispatchKey(anObjectClass, anExtensionInterface, method);
+        Class<?> ownerClass = ClassKeyedCache.ownerClass(anObjectClass, anExtensionInterface, method.getDeclaringClass());
+
+        ResolvedOperation result = resolvedOperations.get(ownerClass, key);
+        if (result == null || result.operationsVersion() != version) {
+            result = new ResolvedOperation(findExtensionOperation(anObjectClass, anExtensionInterface, method, anArgs), version);
+            resolvedOperations.put(ownerClass, key, result);
+        }
+        return result.result();
+    }
+
     <T> ExtensionOperationResult findExtensionOperation(Object anObject, Class<T> anExtensionInterface, Method method, Object[] anArgs) {
         return findExtensionOperation(anObject != null ? anObject.getClass() : Null.class, anExtensionInterface, method, anArgs);
     }
@@ -984,11 +1622,15 @@ public class DynamicClassExtension extends AbstractClassExtension {
         List<Class<?>> extensionInterfaces = new ArrayList<>(Arrays.asList(anExtensionInterface.getInterfaces()));
         extensionInterfaces.addFirst(anExtensionInterface);
 
-        String operationName = operationName(method.getName(), parameterTypes(anArgs));
+        int parameterCount = anArgs != null ? anArgs.length : 0;
+        int operationId = operations.findOperationId(method.getName(), arity(parameterCount));
+        if (operationId < 0)
+            return new ExtensionOperationResult(null, anObjectClass);
+        int typedOperationId = typedOperationId(operationId, parameterCount);
 
         all: for (Class<?> objectClass : objectClasses) {
             for (Class<?> extensionInterface : extensionInterfaces) {
-                PerformerHolder<?> operation = getExtensionOperation(objectClass, extensionInterface, operationName);
+                PerformerHolder<?> operation = getExtensionOperation(objectClass, extensionInterface, typedOperationId, operationId);
                 if (operation != null) {
                     result = new ExtensionOperationResult(operation, objectClass);
                     break all;
@@ -1001,10 +1643,16 @@ public class DynamicClassExtension extends AbstractClassExtension {
 
     @SuppressWarnings({"rawtypes", "unchecked"})
     <T> ExtensionOperationResult findExtensionOperationByClass(Class<?> anObjectClass, Class<T> anExtensionInterface, Method method, Object[] anArgs) {
+        int parameterCount = anArgs != null ? anArgs.length : 0;
+        int operationId = operations.findOperationId(method.getName(), arity(parameterCount));
+        if (operationId < 0)
+            return new ExtensionOperationResult(null, null);
+        int typedOperationId = typedOperationId(operationId, parameterCount);
+
         PerformerHolder<?> result;
         Class current = anObjectClass;
         do {
-            result = getExtensionOperation(current, anExtensionInterface, operationName(method.getName(), parameterTypes(anArgs)));
+            result = getExtensionOperation(current, anExtensionInterface, typedOperationId, operationId);
             if (result != null)
                 break;
             current = current.getSuperclass();
@@ -1028,29 +1676,68 @@ public class DynamicClassExtension extends AbstractClassExtension {
     }
 
     static String operationName(String anOperationName, Class<?>[] aParameterTypes) {
-        return aParameterTypes == null || aParameterTypes.length == 0 ? anOperationName : anOperationName + SUFFIX_BI;
+        return OperationRegistry.operationName(anOperationName, aParameterTypes != null ? aParameterTypes.length : 0);
+    }
+
+    /**
+     * Returns an id of an operation being registered. Operations taking their arguments as an array are registered
+     * with a single parameter
+     */
+    int operationId(String anOperationName, Class<?>[] aParameterTypes) {
+        return operations.operationId(anOperationName, aParameterTypes != null ? aParameterTypes.length : 0);
+    }
+
+    /**
+     * Returns an arity of an operation having no or one parameter, or taking its arguments as an array
+     */
+    private static int arity(int aParameterCount) {
+        return Math.min(aParameterCount, 1);
+    }
+
+    /**
+     * Returns an id of an operation taking its arguments separately
+     *
+     * @param anOperationId id of an operation with the same name
+     * @return operation id or {@code -1} if operations with such number of parameters take their arguments as an
+     * array only
+     */
+    private static int typedOperationId(int anOperationId, int aParameterCount) {
+        return aParameterCount > 1 && aParameterCount <= OperationRegistry.MAX_ARITY ?
+                OperationRegistry.withArity(anOperationId, aParameterCount) :
+                -1;
     }
 
     static String displayOperationName(String anOperationName, boolean isVoid, Object[] anArgs) {
+        int parameterCount = anArgs == null ? 0 : anArgs.length <= OperationRegistry.MAX_ARITY ? anArgs.length : 1;
         return format("{0} {1}({2})",
                 isVoid ? "void" : "T",
                 anOperationName,
-                anArgs != null && anArgs.length > 0 ? "T" : "");
+                String.join(", ", Collections.nCopies(parameterCount, "T")));
     }
 
+    /**
+     * A key of a registered operation. A simple operation name is the name an operation is registered with, while an
+     * operation name has an arity suffix for operations having parameters. The simple name is carried along rather
+     * than parsed from the operation name, as operation names may end with arity suffixes themselves, e.g. a
+     * parameterless {@code getQuad} operation and a {@code get} operation having three parameters
+     */
     @SuppressWarnings({"rawtypes"})
-    protected record OperationKey(Class objectClass, Class extensionClass, String operationName) implements Comparable<OperationKey> {
+    protected record OperationKey(Class objectClass, Class extensionClass, String operationName, String simpleOperationName)
+            implements Comparable<OperationKey> {
+        /**
+         * Creates a key to look an operation up by its name having an arity suffix. A name ending with a suffix is
+         * taken for a name of an operation having parameters, so use the canonical constructor to look up operations
+         * whose names end with suffixes themselves
+         */
+        public OperationKey(Class objectClass, Class extensionClass, String operationName) {
+            this(objectClass, extensionClass, operationName, OperationRegistry.simpleOperationName(operationName));
+        }
+
         @Override
         public int compareTo(OperationKey o) {
             return objectClass.getName().compareTo(o.objectClass.getName());
         }
 
-        public String simpleOperationName() {
-            return operationName.endsWith(SUFFIX_BI) ?
-                    operationName.substring(0, operationName.length() - SUFFIX_BI.length()) :
-                    operationName;
-        }
-
         public String objectClassName() {
             return objectClass.getName();
         }
@@ -1074,7 +1761,8 @@ public class DynamicClassExtension extends AbstractClassExtension {
         StringBuilder result = new StringBuilder();
 
         // circle through extension classes
-        new HashMap<>(operationsMap).keySet().stream().
+        Map<OperationKey, PerformerHolder<?>> snapshot = operationsSnapshot();
+        snapshot.keySet().stream().
                 collect(Collectors.groupingBy(OperationKey::extensionClass,
                         Collectors.groupingBy(groupByOperation ? OperationKey::simpleOperationName : OperationKey::objectClassName))).
                 entrySet().stream().sorted(Map.Entry.comparingByKey(Comparator.comparing(Class::getName))).
@@ -1095,7 +1783,7 @@ public class DynamicClassExtension extends AbstractClassExtension {
                                             result.append("        ");
                                             if (groupByOperation)
                                                 result.append(anOperationKey.objectClass.getName()).append(" -> ");
-                                            result.append(operationKeyToString(anOperationKey));
+                                            result.append(operationKeyToString(anOperationKey, snapshot.get(anOperationKey)));
                                         });
                                 result.append("    }\n");
                             });
@@ -1106,8 +1794,22 @@ public class DynamicClassExtension extends AbstractClassExtension {
         return resultStr.endsWith("\n") ? resultStr.substring(0, result.toString().length() - 1) : resultStr;
     }
 
-    String operationKeyToString(OperationKey anOperationKey) {
-        return operationKeyToString(anOperationKey, operationsMap.get(anOperationKey));
+    /**
+     * Returns a read-only snapshot of registered operations. Subclasses should use it instead of the removed
+     * {@code operationsMap} field, as operations are kept in a registry keyed by interned operation ids now
+     *
+     * @return registered operations by their keys
+     */
+    protected Map<OperationKey, PerformerHolder<?>> operationsSnapshot() {
+        Map<OperationKey, PerformerHolder<?>> result = new HashMap<>();
+        operations.forEach((anObjectClass, anExtensionInterface, anOperationId, anOperation) ->
+                result.put(operationKey(anObjectClass, anExtensionInterface, anOperationId), anOperation));
+        return Collections.unmodifiableMap(result);
+    }
+
+    private OperationKey operationKey(Class<?> anObjectClass, Class<?> anExtensionInterface, int anOperationId) {
+        return new OperationKey(anObjectClass, anExtensionInterface,
+                operations.operationName(anOperationId), operations.simpleOperationName(anOperationId));
     }
 
     String operationKeyToString(OperationKey anOperationKey, PerformerHolder<?> aPerformerHolder) {
@@ -1122,6 +1824,30 @@ public class DynamicClassExtension extends AbstractClassExtension {
             result = format("void {0}()\n", operationName);
         else if (performer instanceof BiConsumer)
             result = format("void {0}(T)\n", operationName);
+        else if (performer instanceof TriFunctionPerformer)
+            result = format("T {0}(T, T)\n", operationName);
+        else if (performer instanceof QuadFunctionPerformer)
+            result = format("T {0}(T, T, T)\n", operationName);
+        else if (performer instanceof TriConsumerPerformer)
+            result = format("void {0}(T, T)\n", operationName);
+        else if (performer instanceof QuadConsumerPerformer)
+            result = format("void {0}(T, T, T)\n", operationName);
+        else if (performer instanceof IntPerformer)
+            result = format("int {0}()\n", operationName);
+        else if (performer instanceof IntBiPerformer)
+            result = format("int {0}(int)\n", operationName);
+        else if (performer instanceof LongPerformer)
+            result = format("long {0}()\n", operationName);
+        else if (performer instanceof LongBiPerformer)
+            result = format("long {0}(long)\n", operationName);
+        else if (performer instanceof DoublePerformer)
+            result = format("double {0}()\n", operationName);
+        else if (performer instanceof DoubleBiPerformer)
+            result = format("double {0}(double)\n", operationName);
+        else if (performer instanceof BooleanPerformer)
+            result = format("boolean {0}()\n", operationName);
+        else if (performer instanceof BooleanBiPerformer)
+            result = format("boolean {0}(boolean)\n", operationName);
         return result;
     }
 
@@ -1244,8 +1970,9 @@ public class DynamicClassExtension extends AbstractClassExtension {
          */
         @SuppressWarnings("unused")
         public <T1> Builder<E> alterOperation(Class<T1> anObjectClass, Class<?>[] aParameterTypes) {
-            PerformerHolder<?> performerHolder = dynamicClassExtension.operationsMap.get(new OperationKey(anObjectClass, extensionInterface,
-                    DynamicClassExtension.operationName(operationName, aParameterTypes)));
+            int operationId = dynamicClassExtension.registeredOperationId(anObjectClass, extensionInterface, operationName, aParameterTypes);
+            PerformerHolder<?> performerHolder = operationId >= 0 ?
+                    dynamicClassExtension.operations.get(anObjectClass, extensionInterface, operationId) : null;
             return new Builder<>(extensionInterface, anObjectClass, operationName, dynamicClassExtension, performerHolder);
         }
 
@@ -1310,6 +2037,226 @@ public class DynamicClassExtension extends AbstractClassExtension {
             return new Builder<>(extensionInterface, objectClass, anOperationName, dynamicClassExtension, performerHolder);
         }
 
+        /**
+         * Adds a non-void operation having two parameters. Arguments are passed to an operation separately
+         * @param anObjectClass object class
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public <R, T1, U, V> Builder<E> operation(Class<T1> anObjectClass, TriFunctionPerformer<T1, U, V, R> anOperation) {
+            PerformerHolder<R> performerHolder = dynamicClassExtension.addMultiParameterExtensionOperation(anObjectClass, extensionInterface, operationName, anOperation, 2, false);
+            return new Builder<>(extensionInterface, anObjectClass, operationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds a non-void operation having two parameters. Arguments are passed to an operation separately
+         * @param anOperationName operation name
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public <R, T1, U, V> Builder<E> operation(String anOperationName, TriFunctionPerformer<T1, U, V, R> anOperation) {
+            PerformerHolder<R> performerHolder = dynamicClassExtension.addMultiParameterExtensionOperation(objectClass, extensionInterface, anOperationName, anOperation, 2, false);
+            return new Builder<>(extensionInterface, objectClass, anOperationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds a non-void operation having three parameters. Arguments are passed to an operation separately
+         * @param anObjectClass object class
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public <R, T1, U, V, W> Builder<E> operation(Class<T1> anObjectClass, QuadFunctionPerformer<T1, U, V, W, R> anOperation) {
+            PerformerHolder<R> performerHolder = dynamicClassExtension.addMultiParameterExtensionOperation(anObjectClass, extensionInterface, operationName, anOperation, 3, false);
+            return new Builder<>(extensionInterface, anObjectClass, operationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds a non-void operation having three parameters. Arguments are passed to an operation separately
+         * @param anOperationName operation name
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public <R, T1, U, V, W> Builder<E> operation(String anOperationName, QuadFunctionPerformer<T1, U, V, W, R> anOperation) {
+            PerformerHolder<R> performerHolder = dynamicClassExtension.addMultiParameterExtensionOperation(objectClass, extensionInterface, anOperationName, anOperation, 3, false);
+            return new Builder<>(extensionInterface, objectClass, anOperationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds an int-valued parameterless operation. It does not box results
+         * @param anObjectClass object class
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public <T1> Builder<E> intOperation(Class<T1> anObjectClass, IntPerformer<T1> anOperation) {
+            PerformerHolder<?> performerHolder = dynamicClassExtension.addPrimitiveExtensionOperation(anObjectClass, extensionInterface, operationName, anOperation, false);
+            return new Builder<>(extensionInterface, anObjectClass, operationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds an int-valued parameterless operation. It does not box results
+         * @param anOperationName operation name
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public Builder<E> intOperation(String anOperationName, IntPerformer<?> anOperation) {
+            PerformerHolder<?> performerHolder = dynamicClassExtension.addPrimitiveExtensionOperation(objectClass, extensionInterface, anOperationName, anOperation, false);
+            return new Builder<>(extensionInterface, objectClass, anOperationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds an int-valued operation having one int parameter. It does not box arguments and results
+         * @param anObjectClass object class
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public <T1> Builder<E> intOperation(Class<T1> anObjectClass, IntBiPerformer<T1> anOperation) {
+            PerformerHolder<?> performerHolder = dynamicClassExtension.addPrimitiveExtensionOperation(anObjectClass, extensionInterface, operationName, anOperation, true);
+            return new Builder<>(extensionInterface, anObjectClass, operationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds an int-valued operation having one int parameter. It does not box arguments and results
+         * @param anOperationName operation name
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public Builder<E> intOperation(String anOperationName, IntBiPerformer<?> anOperation) {
+            PerformerHolder<?> performerHolder = dynamicClassExtension.addPrimitiveExtensionOperation(objectClass, extensionInterface, anOperationName, anOperation, true);
+            return new Builder<>(extensionInterface, objectClass, anOperationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds a long-valued parameterless operation. It does not box results
+         * @param anObjectClass object class
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public <T1> Builder<E> longOperation(Class<T1> anObjectClass, LongPerformer<T1> anOperation) {
+            PerformerHolder<?> performerHolder = dynamicClassExtension.addPrimitiveExtensionOperation(anObjectClass, extensionInterface, operationName, anOperation, false);
+            return new Builder<>(extensionInterface, anObjectClass, operationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds a long-valued parameterless operation. It does not box results
+         * @param anOperationName operation name
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public Builder<E> longOperation(String anOperationName, LongPerformer<?> anOperation) {
+            PerformerHolder<?> performerHolder = dynamicClassExtension.addPrimitiveExtensionOperation(objectClass, extensionInterface, anOperationName, anOperation, false);
+            return new Builder<>(extensionInterface, objectClass, anOperationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds a long-valued operation having one long parameter. It does not box arguments and results
+         * @param anObjectClass object class
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public <T1> Builder<E> longOperation(Class<T1> anObjectClass, LongBiPerformer<T1> anOperation) {
+            PerformerHolder<?> performerHolder = dynamicClassExtension.addPrimitiveExtensionOperation(anObjectClass, extensionInterface, operationName, anOperation, true);
+            return new Builder<>(extensionInterface, anObjectClass, operationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds a long-valued operation having one long parameter. It does not box arguments and results
+         * @param anOperationName operation name
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public Builder<E> longOperation(String anOperationName, LongBiPerformer<?> anOperation) {
+            PerformerHolder<?> performerHolder = dynamicClassExtension.addPrimitiveExtensionOperation(objectClass, extensionInterface, anOperationName, anOperation, true);
+            return new Builder<>(extensionInterface, objectClass, anOperationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds a double-valued parameterless operation. It does not box results
+         * @param anObjectClass object class
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public <T1> Builder<E> doubleOperation(Class<T1> anObjectClass, DoublePerformer<T1> anOperation) {
+            PerformerHolder<?> performerHolder = dynamicClassExtension.addPrimitiveExtensionOperation(anObjectClass, extensionInterface, operationName, anOperation, false);
+            return new Builder<>(extensionInterface, anObjectClass, operationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds a double-valued parameterless operation. It does not box results
+         * @param anOperationName operation name
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public Builder<E> doubleOperation(String anOperationName, DoublePerformer<?> anOperation) {
+            PerformerHolder<?> performerHolder = dynamicClassExtension.addPrimitiveExtensionOperation(objectClass, extensionInterface, anOperationName, anOperation, false);
+            return new Builder<>(extensionInterface, objectClass, anOperationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds a double-valued operation having one double parameter. It does not box arguments and results
+         * @param anObjectClass object class
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public <T1> Builder<E> doubleOperation(Class<T1> anObjectClass, DoubleBiPerformer<T1> anOperation) {
+            PerformerHolder<?> performerHolder = dynamicClassExtension.addPrimitiveExtensionOperation(anObjectClass, extensionInterface, operationName, anOperation, true);
+            return new Builder<>(extensionInterface, anObjectClass, operationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds a double-valued operation having one double parameter. It does not box arguments and results
+         * @param anOperationName operation name
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public Builder<E> doubleOperation(String anOperationName, DoubleBiPerformer<?> anOperation) {
+            PerformerHolder<?> performerHolder = dynamicClassExtension.addPrimitiveExtensionOperation(objectClass, extensionInterface, anOperationName, anOperation, true);
+            return new Builder<>(extensionInterface, objectClass, anOperationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds a boolean-valued parameterless operation. It does not box results
+         * @param anObjectClass object class
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public <T1> Builder<E> booleanOperation(Class<T1> anObjectClass, BooleanPerformer<T1> anOperation) {
+            PerformerHolder<?> performerHolder = dynamicClassExtension.addPrimitiveExtensionOperation(anObjectClass, extensionInterface, operationName, anOperation, false);
+            return new Builder<>(extensionInterface, anObjectClass, operationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds a boolean-valued parameterless operation. It does not box results
+         * @param anOperationName operation name
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public Builder<E> booleanOperation(String anOperationName, BooleanPerformer<?> anOperation) {
+            PerformerHolder<?> performerHolder = dynamicClassExtension.addPrimitiveExtensionOperation(objectClass, extensionInterface, anOperationName, anOperation, false);
+            return new Builder<>(extensionInterface, objectClass, anOperationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds a boolean-valued operation having one boolean parameter. It does not box arguments and results
+         * @param anObjectClass object class
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public <T1> Builder<E> booleanOperation(Class<T1> anObjectClass, BooleanBiPerformer<T1> anOperation) {
+            PerformerHolder<?> performerHolder = dynamicClassExtension.addPrimitiveExtensionOperation(anObjectClass, extensionInterface, operationName, anOperation, true);
+            return new Builder<>(extensionInterface, anObjectClass, operationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds a boolean-valued operation having one boolean parameter. It does not box arguments and results
+         * @param anOperationName operation name
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public Builder<E> booleanOperation(String anOperationName, BooleanBiPerformer<?> anOperation) {
+            PerformerHolder<?> performerHolder = dynamicClassExtension.addPrimitiveExtensionOperation(objectClass, extensionInterface, anOperationName, anOperation, true);
+            return new Builder<>(extensionInterface, objectClass, anOperationName, dynamicClassExtension, performerHolder);
+        }
+
         /**
          * Adds a void parameterless operation
          * @param anObjectClass object class
@@ -1356,6 +2303,50 @@ public class DynamicClassExtension extends AbstractClassExtension {
             return new Builder<>(extensionInterface, objectClass, anOperationName, dynamicClassExtension, performerHolder);
         }
 
+        /**
+         * Adds a void operation having two parameters. Arguments are passed to an operation separately
+         * @param anObjectClass object class
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public <T1, U, V> Builder<E> voidOperation(Class<T1> anObjectClass, TriConsumerPerformer<T1, U, V> anOperation) {
+            PerformerHolder<Void> performerHolder = dynamicClassExtension.addMultiParameterExtensionOperation(anObjectClass, extensionInterface, operationName, anOperation, 2, true);
+            return new Builder<>(extensionInterface, anObjectClass, operationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds a void operation having two parameters. Arguments are passed to an operation separately
+         * @param anOperationName operation name
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public <T1, U, V> Builder<E> voidOperation(String anOperationName, TriConsumerPerformer<T1, U, V> anOperation) {
+            PerformerHolder<Void> performerHolder = dynamicClassExtension.addMultiParameterExtensionOperation(objectClass, extensionInterface, anOperationName, anOperation, 2, true);
+            return new Builder<>(extensionInterface, objectClass, anOperationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds a void operation having three parameters. Arguments are passed to an operation separately
+         * @param anObjectClass object class
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public <T1, U, V, W> Builder<E> voidOperation(Class<T1> anObjectClass, QuadConsumerPerformer<T1, U, V, W> anOperation) {
+            PerformerHolder<Void> performerHolder = dynamicClassExtension.addMultiParameterExtensionOperation(anObjectClass, extensionInterface, operationName, anOperation, 3, true);
+            return new Builder<>(extensionInterface, anObjectClass, operationName, dynamicClassExtension, performerHolder);
+        }
+
+        /**
+         * Adds a void operation having three parameters. Arguments are passed to an operation separately
+         * @param anOperationName operation name
+         * @param anOperation lambda that defines an operation
+         * @return a copy of this {@code Builder}
+         */
+        public <T1, U, V, W> Builder<E> voidOperation(String anOperationName, QuadConsumerPerformer<T1, U, V, W> anOperation) {
+            PerformerHolder<Void> performerHolder = dynamicClassExtension.addMultiParameterExtensionOperation(objectClass, extensionInterface, anOperationName, anOperation, 3, true);
+            return new Builder<>(extensionInterface, objectClass, anOperationName, dynamicClassExtension, performerHolder);
+        }
+
         /**
          * Specifies that current operation (previously defined by calling {@code op()} or {@code voidOp()}) must be run
          * asynchronously.<br/><br/>
@@ -1540,20 +2531,32 @@ public class DynamicClassExtension extends AbstractClassExtension {
 
     private class ExtensionInvocationHandler<T> implements InvocationHandler {
         private final Object object;
+        private final WeakReference<Object> weakObject;
         private final BiFunction<Method, Object, Object> missingMethodsHandler;
         private final Class<T> extensionInterface;
         private final Class<?>[] supplementaryInterfaces;
 
-        public ExtensionInvocationHandler(Object anObject, BiFunction<Method, Object, Object> aMissingMethodsHandler, Class<T> anExtensionInterface, Class<?>... aSupplementaryInterfaces) {
-            object = anObject;
+        public ExtensionInvocationHandler(Object anObject, boolean isWeakObject, BiFunction<Method, Object, Object> aMissingMethodsHandler, Class<T> anExtensionInterface, Class<?>... aSupplementaryInterfaces) {
+            object = isWeakObject ? null : anObject;
+            weakObject = isWeakObject ? new WeakReference<>(anObject) : null;
             missingMethodsHandler = aMissingMethodsHandler;
             extensionInterface = anExtensionInterface;
             supplementaryInterfaces = aSupplementaryInterfaces;
         }
 
+        private Object object() {
+            if (weakObject == null)
+                return object;
+
+            Object result = weakObject.get();
+            if (result == null)
+                throw new IllegalStateException(format("Object of the \"{0}\" extension has been garbage collected", extensionInterface.getName()));
+            return result;
+        }
+
         @Override
         public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-            return DynamicClassExtension.this.performOperation(DynamicClassExtension.this, object,
+            return DynamicClassExtension.this.performOperation(DynamicClassExtension.this, object(),
                     missingMethodsHandler, extensionInterface, supplementaryInterfaces,
                     method, args);
         }
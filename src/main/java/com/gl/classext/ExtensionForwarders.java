@@ -0,0 +1,1113 @@
+/*
+Copyright 2024 Gregory Ledenev (gregory.ledenev37@gmail.com)
+
+MIT License
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the “Software”), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+package com.gl.classext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * Generates hidden classes that forward extension interface methods directly to static extensions or their delegates.
+ * {@code StaticClassExtension} uses them for the {@code STATIC_GENERATED} extension type instead of dynamic proxies.
+ * <p>
+ * A forwarder class is generated per extension interface, extension class and delegate class. Every forwarding method
+ * checks if operations are intercepted by aspects or verbose logging and, if they are, it performs an operation the
+ * same way as proxies do. Otherwise, it calls an extension or a delegate method directly. Methods that can't be
+ * called directly, like ones with {@code @ObtainExtension} annotation or returning {@code Optional}, are always
+ * performed the proxy way.
+ * </p>
+ * <p>
+ * {@code DynamicClassExtension} uses similar generated classes for the {@code DYNAMIC_GENERATED} extension type. Such a
+ * class is generated per extension interface and object class, and its methods call registered operations or object
+ * methods directly, with operations resolved once per registry version rather than per call.
+ * </p>
+ *
+ * @author Gregory Ledenev
+ */
+final class ExtensionForwarders {
+
+    private ExtensionForwarders() {
+    }
+
+    /**
+     * Creates a forwarder for an extension and a delegate
+     *
+     * @param aClassExtension      class extension
+     * @param anInterface          interface a forwarder should implement
+     * @param anExtensionInterface extension interface used to perform intercepted operations
+     * @param anExtension          extension object
+     * @param aDelegate            delegate object
+     * @return a forwarder or {@code null} if a forwarder class can't be generated, e.g. for interfaces not accessible
+     * from this package
+     */
+    static Object newForwarder(StaticClassExtension aClassExtension, Class<?> anInterface, Class<?> anExtensionInterface,
+                               Object anExtension, Object aDelegate) {
+        return forwarderClass(anInterface, anExtension.getClass(), aDelegate.getClass()).
+                map(value -> value.newInstance(aClassExtension, anExtensionInterface, anExtension, aDelegate)).
+                orElse(null);
+    }
+
+    /**
+     * Generates a forwarder class for an extension class and a delegate class in advance
+     *
+     * @param anInterface      interface a forwarder should implement
+     * @param anExtensionClass extension class
+     * @param aDelegateClass   delegate class
+     * @return {@code true} if a forwarder class is generated; {@code false} if it can't be generated and proxies will be
+     * used instead
+     */
+    static boolean prepare(Class<?> anInterface, Class<?> anExtensionClass, Class<?> aDelegateClass) {
+        return forwarderClass(anInterface, anExtensionClass, aDelegateClass).isPresent();
+    }
+
+    /**
+     * Creates a forwarder for a dynamic extension of an object
+     *
+     * @param aClassExtension        class extension
+     * @param anExtensionInterface   extension interface
+     * @param anObject               object
+     * @param aMissingMethodsHandler missing methods handler
+     * @return a forwarder or {@code null} if a forwarder class can't be generated, e.g. for interfaces not accessible
+     * from this package
+     */
+    static Object newDynamicForwarder(DynamicClassExtension aClassExtension, Class<?> anExtensionInterface, Object anObject,
+                                      BiFunction<Method, Object, Object> aMissingMethodsHandler) {
+        return dynamicForwarderClass(anExtensionInterface, anObject.getClass()).
+                map(value -> value.newInstance(aClassExtension, anExtensionInterface, anObject, aMissingMethodsHandler)).
+                orElse(null);
+    }
+
+    /**
+     * Generates a forwarder class for dynamic extensions of objects of some class in advance
+     *
+     * @param anExtensionInterface extension interface
+     * @param anObjectClass        object class
+     * @return {@code true} if a forwarder class is generated; {@code false} if it can't be generated and proxies will be
+     * used instead
+     */
+    static boolean prepareDynamic(Class<?> anExtensionInterface, Class<?> anObjectClass) {
+        return dynamicForwarderClass(anExtensionInterface, anObjectClass).isPresent();
+    }
+
+    private static Optional<ForwarderClass> forwarderClass(Class<?> anInterface, Class<?> anExtensionClass, Class<?> aDelegateClass) {
+        return FORWARDER_CLASSES.computeIfAbsent(ClassKeyedCache.ownerClass(anInterface, anExtensionClass, aDelegateClass),
+                new ForwarderKey(anInterface, anExtensionClass, aDelegateClass),
+                key -> generateForwarderClass(key.interfaceClass(), key.extensionClass(), key.delegateClass()));
+    }
+
+    private static Optional<DynamicForwarderClass> dynamicForwarderClass(Class<?> anExtensionInterface, Class<?> anObjectClass) {
+        return DYNAMIC_FORWARDER_CLASSES.computeIfAbsent(ClassKeyedCache.ownerClass(anExtensionInterface, anObjectClass),
+                new DynamicForwarderKey(anExtensionInterface, anObjectClass),
+                key -> generateDynamicForwarderClass(key.interfaceClass(), key.objectClass()));
+    }
+
+    /**
+     * Base class of generated forwarders. It implements {@code PrivateDelegateHolder} and {@code Object} methods that
+     * are forwarded to a delegate, as proxies do.
+     */
+    abstract static class Forwarder implements ClassExtension.PrivateDelegateHolder {
+        private static final Method TO_STRING = method(Object.class, "toString");
+        private static final Method HASH_CODE = method(Object.class, "hashCode");
+        private static final Method EQUALS = method(Object.class, "equals", Object.class);
+        private static final Method GET_DELEGATE = method(ClassExtension.PrivateDelegateHolder.class, "__getDelegate");
+
+        final StaticClassExtension classExtension;
+        final Class<?> extensionInterface;
+        final Method[] methods;
+        final Object extension;
+        Object delegate;
+
+        Forwarder(StaticClassExtension aClassExtension, Class<?> anExtensionInterface, Method[] aMethods,
+                  Object anExtension, Object aDelegate) {
+            classExtension = aClassExtension;
+            extensionInterface = anExtensionInterface;
+            methods = aMethods;
+            extension = anExtension;
+            delegate = aDelegate;
+        }
+
+        /**
+         * Re-binds a forwarder to another delegate; used for pooled scoped extensions only
+         */
+        final void rebind(Object aDelegate) {
+            delegate = aDelegate;
+        }
+
+        /**
+         * Checks if operations should be performed the proxy way, so aspects and verbose logging get applied
+         */
+        final boolean isIntercepted() {
+            return classExtension.isOperationIntercepted(extensionInterface);
+        }
+
+        /**
+         * Performs an operation the proxy way; called by generated code for intercepted operations
+         */
+        final Object perform(int anIndex, Object[] anArgs) {
+            return perform(methods[anIndex], anArgs);
+        }
+
+        private Object perform(Method aMethod, Object[] anArgs) {
+            return StaticClassExtension.performOperation(classExtension, extensionInterface, extension, delegate, aMethod, anArgs);
+        }
+
+        @Override
+        public Object __getDelegate() {
+            return isIntercepted() ? perform(GET_DELEGATE, null) : delegate;
+        }
+
+        @Override
+        public String toString() {
+            return isIntercepted() ? (String) perform(TO_STRING, null) : delegate.toString();
+        }
+
+        @Override
+        public int hashCode() {
+            return isIntercepted() ? (Integer) perform(HASH_CODE, null) : delegate.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object anObject) {
+            return isIntercepted() ? (Boolean) perform(EQUALS, new Object[]{anObject}) : delegate.equals(anObject);
+        }
+
+        private static Method method(Class<?> aClass, String aName, Class<?>... aParameterTypes) {
+            try {
+                return aClass.getMethod(aName, aParameterTypes);
+            } catch (NoSuchMethodException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+    /**
+     * Base class of generated dynamic forwarders. Generated methods call its {@code apply()} and {@code accept()}
+     * methods to perform registered operations, or call object methods directly if {@code isDelegated()} allows it.
+     * Operations are resolved per extension interface and object class and get resolved again once registered
+     * operations change. Operations that are intercepted, asynchronous or have advices, as well as {@code Object}
+     * methods, are performed the proxy way.
+     */
+    abstract static class DynamicForwarder implements ClassExtension.PrivateDelegateHolder {
+        private static final Method TO_STRING = Forwarder.TO_STRING;
+        private static final Method HASH_CODE = Forwarder.HASH_CODE;
+        private static final Method EQUALS = Forwarder.EQUALS;
+        private static final Method GET_DELEGATE = Forwarder.GET_DELEGATE;
+
+        final DynamicClassExtension classExtension;
+        final Class<?> extensionInterface;
+        final Method[] methods;
+        final Object delegate;
+        final BiFunction<Method, Object, Object> missingMethodsHandler;
+        private DynamicClassExtension.ForwarderBinding binding;
+
+        DynamicForwarder(DynamicClassExtension aClassExtension, Class<?> anExtensionInterface, Method[] aMethods,
+                         Object aDelegate, BiFunction<Method, Object, Object> aMissingMethodsHandler) {
+            classExtension = aClassExtension;
+            extensionInterface = anExtensionInterface;
+            methods = aMethods;
+            delegate = aDelegate;
+            missingMethodsHandler = aMissingMethodsHandler;
+            binding = aClassExtension.forwarderBinding(anExtensionInterface, aDelegate.getClass(), aMethods);
+        }
+
+        /**
+         * Checks if a method can be performed by calling an object method directly
+         */
+        final boolean isDelegated(int anIndex) {
+            DynamicClassExtension.PerformerHolder<?>[] operations = operations();
+            return operations != null && operations[anIndex] == null;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final Object apply(int anIndex) {
+            DynamicClassExtension.PerformerHolder<?> operation = directOperation(anIndex);
+            return operation != null && operation.getPerformer() instanceof DynamicClassExtension.FunctionPerformer performer ?
+                    performer.apply(delegate) :
+                    perform(anIndex, null);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final Object apply(int anIndex, Object anArg) {
+            DynamicClassExtension.PerformerHolder<?> operation = directOperation(anIndex);
+            return operation != null && operation.getPerformer() instanceof DynamicClassExtension.BiFunctionPerformer performer ?
+                    performer.apply(delegate, anArg) :
+                    perform(anIndex, new Object[]{anArg});
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final void accept(int anIndex) {
+            DynamicClassExtension.PerformerHolder<?> operation = directOperation(anIndex);
+            if (operation != null && operation.getPerformer() instanceof DynamicClassExtension.ConsumerPerformer performer)
+                performer.accept(delegate);
+            else
+                perform(anIndex, null);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final void accept(int anIndex, Object anArg) {
+            DynamicClassExtension.PerformerHolder<?> operation = directOperation(anIndex);
+            if (operation != null && operation.getPerformer() instanceof DynamicClassExtension.BiConsumerPerformer performer)
+                performer.accept(delegate, anArg);
+            else
+                perform(anIndex, new Object[]{anArg});
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final Object apply(int anIndex, Object anArg1, Object anArg2) {
+            DynamicClassExtension.PerformerHolder<?> operation = directOperation(anIndex);
+            return operation != null && operation.getPerformer() instanceof DynamicClassExtension.TriFunctionPerformer performer ?
+                    performer.apply(delegate, anArg1, anArg2) :
+                    perform(anIndex, new Object[]{anArg1, anArg2});
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final Object apply(int anIndex, Object anArg1, Object anArg2, Object anArg3) {
+            DynamicClassExtension.PerformerHolder<?> operation = directOperation(anIndex);
+            return operation != null && operation.getPerformer() instanceof DynamicClassExtension.QuadFunctionPerformer performer ?
+                    performer.apply(delegate, anArg1, anArg2, anArg3) :
+                    perform(anIndex, new Object[]{anArg1, anArg2, anArg3});
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final void accept(int anIndex, Object anArg1, Object anArg2) {
+            DynamicClassExtension.PerformerHolder<?> operation = directOperation(anIndex);
+            if (operation != null && operation.getPerformer() instanceof DynamicClassExtension.TriConsumerPerformer performer)
+                performer.accept(delegate, anArg1, anArg2);
+            else
+                perform(anIndex, new Object[]{anArg1, anArg2});
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final void accept(int anIndex, Object anArg1, Object anArg2, Object anArg3) {
+            DynamicClassExtension.PerformerHolder<?> operation = directOperation(anIndex);
+            if (operation != null && operation.getPerformer() instanceof DynamicClassExtension.QuadConsumerPerformer performer)
+                performer.accept(delegate, anArg1, anArg2, anArg3);
+            else
+                perform(anIndex, new Object[]{anArg1, anArg2, anArg3});
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final int applyAsInt(int anIndex) {
+            DynamicClassExtension.PerformerHolder<?> operation = directOperation(anIndex);
+            return operation != null && operation.getPerformer() instanceof DynamicClassExtension.IntPerformer performer ?
+                    performer.applyAsInt(delegate) :
+                    (Integer) apply(anIndex);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final int applyAsInt(int anIndex, int anArg) {
+            DynamicClassExtension.PerformerHolder<?> operation = directOperation(anIndex);
+            return operation != null && operation.getPerformer() instanceof DynamicClassExtension.IntBiPerformer performer ?
+                    performer.applyAsInt(delegate, anArg) :
+                    (Integer) apply(anIndex, anArg);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final long applyAsLong(int anIndex) {
+            DynamicClassExtension.PerformerHolder<?> operation = directOperation(anIndex);
+            return operation != null && operation.getPerformer() instanceof DynamicClassExtension.LongPerformer performer ?
+                    performer.applyAsLong(delegate) :
+                    (Long) apply(anIndex);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final long applyAsLong(int anIndex, long anArg) {
+            DynamicClassExtension.PerformerHolder<?> operation = directOperation(anIndex);
+            return operation != null && operation.getPerformer() instanceof DynamicClassExtension.LongBiPerformer performer ?
+                    performer.applyAsLong(delegate, anArg) :
+                    (Long) apply(anIndex, anArg);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final double applyAsDouble(int anIndex) {
+            DynamicClassExtension.PerformerHolder<?> operation = directOperation(anIndex);
+            return operation != null && operation.getPerformer() instanceof DynamicClassExtension.DoublePerformer performer ?
+                    performer.applyAsDouble(delegate) :
+                    (Double) apply(anIndex);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final double applyAsDouble(int anIndex, double anArg) {
+            DynamicClassExtension.PerformerHolder<?> operation = directOperation(anIndex);
+            return operation != null && operation.getPerformer() instanceof DynamicClassExtension.DoubleBiPerformer performer ?
+                    performer.applyAsDouble(delegate, anArg) :
+                    (Double) apply(anIndex, anArg);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final boolean applyAsBoolean(int anIndex) {
+            DynamicClassExtension.PerformerHolder<?> operation = directOperation(anIndex);
+            return operation != null && operation.getPerformer() instanceof DynamicClassExtension.BooleanPerformer performer ?
+                    performer.applyAsBoolean(delegate) :
+                    (Boolean) apply(anIndex);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final boolean applyAsBoolean(int anIndex, boolean anArg) {
+            DynamicClassExtension.PerformerHolder<?> operation = directOperation(anIndex);
+            return operation != null && operation.getPerformer() instanceof DynamicClassExtension.BooleanBiPerformer performer ?
+                    performer.applyAsBoolean(delegate, anArg) :
+                    (Boolean) apply(anIndex, anArg);
+        }
+
+        /**
+         * Performs an operation the proxy way; called by generated code for operations that can't be called directly
+         */
+        final Object perform(int anIndex, Object[] anArgs) {
+            // proxies get null rather than empty arguments for parameterless methods
+            return perform(methods[anIndex], anArgs != null && anArgs.length == 0 ? null : anArgs);
+        }
+
+        private Object perform(Method aMethod, Object[] anArgs) {
+            try {
+                return classExtension.performOperation(classExtension, delegate, missingMethodsHandler, extensionInterface,
+                        null, aMethod, anArgs);
+            } catch (InvocationTargetException | IllegalAccessException ex) {
+                throw new UndeclaredThrowableException(ex);
+            }
+        }
+
+        private DynamicClassExtension.PerformerHolder<?> directOperation(int anIndex) {
+            DynamicClassExtension.PerformerHolder<?>[] operations = operations();
+            DynamicClassExtension.PerformerHolder<?> result = operations != null ? operations[anIndex] : null;
+            return result != null && result.isPlain() ? result : null;
+        }
+
+        /**
+         * Returns operations for methods or {@code null} if operations are intercepted and must be performed the
+         * proxy way
+         */
+        private DynamicClassExtension.PerformerHolder<?>[] operations() {
+            if (classExtension.isOperationIntercepted(extensionInterface))
+                return null;
+
+            DynamicClassExtension.ForwarderBinding result = binding;
+            if (result.operationsVersion() != classExtension.operationsVersion()) {
+                result = classExtension.forwarderBinding(extensionInterface, delegate.getClass(), methods);
+                binding = result;
+            }
+            return result.operations();
+        }
+
+        @Override
+        public Object __getDelegate() {
+            return perform(GET_DELEGATE, null);
+        }
+
+        @Override
+        public String toString() {
+            return (String) perform(TO_STRING, null);
+        }
+
+        @Override
+        public int hashCode() {
+            return (Integer) perform(HASH_CODE, null);
+        }
+
+        @Override
+        public boolean equals(Object anObject) {
+            return (Boolean) perform(EQUALS, new Object[]{anObject});
+        }
+    }
+
+    /**
+     * A generated forwarder class
+     *
+     * @param constructor forwarder constructor
+     * @param methods     forwarded methods by indexes used by generated code
+     */
+    private record ForwarderClass(MethodHandle constructor, Method[] methods) {
+        Object newInstance(StaticClassExtension aClassExtension, Class<?> anExtensionInterface, Object anExtension, Object aDelegate) {
+            try {
+                return (Forwarder) constructor.invokeExact(aClassExtension, anExtensionInterface, methods, anExtension, aDelegate);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+    }
+
+    private record ForwarderKey(Class<?> interfaceClass, Class<?> extensionClass, Class<?> delegateClass) {
+    }
+
+    /**
+     * A generated dynamic forwarder class
+     *
+     * @param constructor forwarder constructor
+     * @param methods     forwarded methods by indexes used by generated code
+     */
+    private record DynamicForwarderClass(MethodHandle constructor, Method[] methods) {
+        Object newInstance(DynamicClassExtension aClassExtension, Class<?> anExtensionInterface, Object anObject,
+                           BiFunction<Method, Object, Object> aMissingMethodsHandler) {
+            try {
+                return (DynamicForwarder) constructor.invokeExact(aClassExtension, anExtensionInterface, methods, anObject, aMissingMethodsHandler);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+    }
+
+    private record DynamicForwarderKey(Class<?> interfaceClass, Class<?> objectClass) {
+    }
+
+    /**
+     * Forwarder classes by interfaces, extension classes and delegate classes; an empty value marks combinations a
+     * forwarder can't be generated for
+     */
+    private static final ClassKeyedCache<ForwarderKey, Optional<ForwarderClass>> FORWARDER_CLASSES = new ClassKeyedCache<>();
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class,
+            StaticClassExtension.class, Class.class, Method[].class, Object.class, Object.class);
+
+    /**
+     * Dynamic forwarder classes by extension interfaces and object classes; an empty value marks combinations a
+     * forwarder can't be generated for
+     */
+    private static final ClassKeyedCache<DynamicForwarderKey, Optional<DynamicForwarderClass>> DYNAMIC_FORWARDER_CLASSES = new ClassKeyedCache<>();
+
+    private static final MethodType DYNAMIC_CONSTRUCTOR_TYPE = MethodType.methodType(void.class,
+            DynamicClassExtension.class, Class.class, Method[].class, Object.class, BiFunction.class);
+
+    /**
+     * How a generated method performs an operation when it is not intercepted
+     */
+    private enum Target {
+        EXTENSION,
+        DELEGATE,
+        NONE
+    }
+
+    private static Optional<ForwarderClass> generateForwarderClass(Class<?> anInterface, Class<?> anExtensionClass, Class<?> aDelegateClass) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        if (! anInterface.isInterface() || ! isLinkable(anInterface) || ! isAccessible(lookup, anInterface))
+            return Optional.empty();
+
+        List<Method> methods = forwardedMethods(lookup, anInterface);
+        if (methods == null)
+            return Optional.empty();
+        List<Target> targets = new ArrayList<>();
+        for (Method method : methods)
+            targets.add(target(lookup, method, anExtensionClass, aDelegateClass));
+
+        try {
+            byte[] classFile = generateClassFile(FORWARDER_CLASS, FORWARDER, CONSTRUCTOR_TYPE, anInterface, methods.size(),
+                    (aPool, anOut) -> {
+                        for (int i = 0; i < methods.size(); i++)
+                            writeMethod(aPool, anOut, i, methods.get(i), targets.get(i));
+                    });
+            MethodHandles.Lookup forwarderLookup = lookup.defineHiddenClass(classFile, true);
+            MethodHandle constructor = forwarderLookup.findConstructor(forwarderLookup.lookupClass(), CONSTRUCTOR_TYPE).
+                    asType(CONSTRUCTOR_TYPE.changeReturnType(Forwarder.class));
+            return Optional.of(new ForwarderClass(constructor, methods.toArray(new Method[0])));
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<DynamicForwarderClass> generateDynamicForwarderClass(Class<?> anExtensionInterface, Class<?> anObjectClass) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        if (! anExtensionInterface.isInterface() || ! isLinkable(anExtensionInterface) || ! isAccessible(lookup, anExtensionInterface))
+            return Optional.empty();
+
+        List<Method> methods = forwardedMethods(lookup, anExtensionInterface);
+        if (methods == null)
+            return Optional.empty();
+
+        try {
+            byte[] classFile = generateClassFile(DYNAMIC_FORWARDER_CLASS, DYNAMIC_FORWARDER, DYNAMIC_CONSTRUCTOR_TYPE,
+                    anExtensionInterface, methods.size(),
+                    (aPool, anOut) -> {
+                        for (int i = 0; i < methods.size(); i++)
+                            writeDynamicMethod(aPool, anOut, i, methods.get(i), isDelegated(lookup, methods.get(i), anObjectClass));
+                    });
+            MethodHandles.Lookup forwarderLookup = lookup.defineHiddenClass(classFile, true);
+            MethodHandle constructor = forwarderLookup.findConstructor(forwarderLookup.lookupClass(), DYNAMIC_CONSTRUCTOR_TYPE).
+                    asType(DYNAMIC_CONSTRUCTOR_TYPE.changeReturnType(DynamicForwarder.class));
+            return Optional.of(new DynamicForwarderClass(constructor, methods.toArray(new Method[0])));
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Lists interface methods a forwarder should implement
+     *
+     * @return a list of methods or {@code null} if a forwarder can't implement some of them
+     */
+    private static List<Method> forwardedMethods(MethodHandles.Lookup aLookup, Class<?> anInterface) {
+        List<Method> result = new ArrayList<>();
+        Set<String> signatures = new HashSet<>();
+        for (Method method : anInterface.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || isObjectMethod(method) ||
+                    method.getDeclaringClass() == ClassExtension.PrivateDelegateHolder.class)
+                continue;
+            if (! signatures.add(method.getName() + methodDescriptor(method)))
+                continue;
+
+            Class<?> returnType = method.getReturnType();
+            if (! isLinkable(returnType) || ! isAccessible(aLookup, returnType))
+                return null;
+            for (Class<?> parameterType : method.getParameterTypes())
+                if (! isLinkable(parameterType))
+                    return null;
+
+            result.add(method);
+        }
+        return result;
+    }
+
+    /**
+     * Checks if a method of a dynamic extension can call an object method directly, when there is no operation
+     * registered for it
+     */
+    private static boolean isDelegated(MethodHandles.Lookup aLookup, Method aMethod, Class<?> anObjectClass) {
+        Class<?> declaringClass = aMethod.getDeclaringClass();
+        return ! isTransformed(aMethod) && isAccessible(aLookup, declaringClass) && isLinkable(declaringClass) &&
+                declaringClass.isAssignableFrom(anObjectClass);
+    }
+
+    /**
+     * Checks if results of a method get transformed, so it must always be performed the proxy way
+     */
+    private static boolean isTransformed(Method aMethod) {
+        return aMethod.isAnnotationPresent(ObtainExtension.class) || aMethod.getReturnType().isAssignableFrom(Optional.class);
+    }
+
+    private static Target target(MethodHandles.Lookup aLookup, Method aMethod, Class<?> anExtensionClass, Class<?> aDelegateClass) {
+        Class<?> declaringClass = aMethod.getDeclaringClass();
+        // results of such methods get transformed
+        if (isTransformed(aMethod))
+            return Target.NONE;
+        if (! isAccessible(aLookup, declaringClass) || ! isLinkable(declaringClass))
+            return Target.NONE;
+
+        if (declaringClass.isAssignableFrom(anExtensionClass))
+            return Target.EXTENSION;
+        else if (declaringClass.isAssignableFrom(aDelegateClass))
+            return Target.DELEGATE;
+        else
+            return Target.NONE;
+    }
+
+    private static boolean isObjectMethod(Method aMethod) {
+        String name = aMethod.getName();
+        return switch (aMethod.getParameterCount()) {
+            case 0 -> name.equals("toString") || name.equals("hashCode");
+            case 1 -> name.equals("equals") && aMethod.getParameterTypes()[0] == Object.class;
+            default -> false;
+        };
+    }
+
+    /**
+     * Checks if generated code resolves a class by its name to the same class
+     */
+    private static boolean isLinkable(Class<?> aClass) {
+        Class<?> type = aClass;
+        while (type.isArray())
+            type = type.getComponentType();
+        if (type.isPrimitive())
+            return true;
+        try {
+            return Class.forName(type.getName(), false, ExtensionForwarders.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+
+    private static boolean isAccessible(MethodHandles.Lookup aLookup, Class<?> aClass) {
+        try {
+            aLookup.accessClass(aClass);
+            return true;
+        } catch (IllegalAccessException ex) {
+            return false;
+        }
+    }
+
+    //region Class file generation
+
+    private static final String FORWARDER = internalName(Forwarder.class);
+    private static final String FORWARDER_CLASS = FORWARDER + "$Generated";
+    private static final String DYNAMIC_FORWARDER = internalName(DynamicForwarder.class);
+    private static final String DYNAMIC_FORWARDER_CLASS = DYNAMIC_FORWARDER + "$Generated";
+    private static final String OBJECT = "java/lang/Object";
+
+    private static final int CLASS_FILE_VERSION = 65; // Java 21
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int ACC_SYNTHETIC = 0x1000;
+
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ILOAD = 0x15;
+    private static final int LLOAD = 0x16;
+    private static final int FLOAD = 0x17;
+    private static final int DLOAD = 0x18;
+    private static final int ALOAD = 0x19;
+    private static final int SIPUSH = 0x11;
+    private static final int AASTORE = 0x53;
+    private static final int POP = 0x57;
+    private static final int DUP = 0x59;
+    private static final int IFEQ = 0x99;
+    private static final int IFNE = 0x9a;
+    private static final int IRETURN = 0xac;
+    private static final int LRETURN = 0xad;
+    private static final int FRETURN = 0xae;
+    private static final int DRETURN = 0xaf;
+    private static final int ARETURN = 0xb0;
+    private static final int RETURN = 0xb1;
+    private static final int GETFIELD = 0xb4;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int INVOKEINTERFACE = 0xb9;
+    private static final int ANEWARRAY = 0xbd;
+    private static final int CHECKCAST = 0xc0;
+
+    /**
+     * Writes methods of a class being generated
+     */
+    @FunctionalInterface
+    private interface MethodsWriter {
+        void write(ConstantPool aPool, DataOutputStream anOut) throws IOException;
+    }
+
+    private static byte[] generateClassFile(String aClassName, String aSuperClassName, MethodType aConstructorType,
+                                            Class<?> anInterface, int aMethodCount, MethodsWriter aMethodsWriter) {
+        try {
+            ConstantPool pool = new ConstantPool();
+            ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+            DataOutputStream methods = new DataOutputStream(methodBytes);
+
+            writeConstructor(pool, methods, aSuperClassName, aConstructorType);
+            aMethodsWriter.write(pool, methods);
+
+            int thisClass = pool.classRef(aClassName);
+            int superClass = pool.classRef(aSuperClassName);
+            int interfaceClass = pool.classRef(internalName(anInterface));
+
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(result);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(CLASS_FILE_VERSION);
+            pool.write(out);
+            out.writeShort(ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(interfaceClass);
+            out.writeShort(0); // fields
+            out.writeShort(aMethodCount + 1);
+            methodBytes.writeTo(out);
+            out.writeShort(0); // attributes
+            return result.toByteArray();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void writeConstructor(ConstantPool aPool, DataOutputStream anOut, String aSuperClassName,
+                                         MethodType aConstructorType) throws IOException {
+        String descriptor = aConstructorType.toMethodDescriptorString();
+        Code code = new Code();
+        code.op(ALOAD_0);
+        for (int i = 1; i <= aConstructorType.parameterCount(); i++)
+            code.op(ALOAD).u1(i);
+        code.op(INVOKESPECIAL).u2(aPool.methodRef(aSuperClassName, "<init>", descriptor));
+        code.op(RETURN);
+
+        writeMethod(aPool, anOut, ACC_PUBLIC, "<init>", descriptor,
+                code, aConstructorType.parameterCount() + 1, aConstructorType.parameterCount() + 1, -1);
+    }
+
+    /**
+     * Writes a method that calls a target method directly unless operations are intercepted. Intercepted operations
+     * are performed by {@code Forwarder.perform()} with boxed arguments.
+     */
+    private static void writeMethod(ConstantPool aPool, DataOutputStream anOut, int anIndex, Method aMethod, Target aTarget) throws IOException {
+        Class<?>[] parameterTypes = aMethod.getParameterTypes();
+        Class<?> returnType = aMethod.getReturnType();
+        String descriptor = methodDescriptor(aMethod);
+        int parameterSlots = 0;
+        for (Class<?> parameterType : parameterTypes)
+            parameterSlots += slots(parameterType);
+
+        Code code = new Code();
+        int branch = -1;
+        if (aTarget != Target.NONE) {
+            code.op(ALOAD_0);
+            code.op(INVOKEVIRTUAL).u2(aPool.methodRef(FORWARDER, "isIntercepted", "()Z"));
+            branch = code.position();
+            code.op(IFNE).u2(0);
+
+            String owner = internalName(aMethod.getDeclaringClass());
+            code.op(ALOAD_0);
+            code.op(GETFIELD).u2(aPool.fieldRef(FORWARDER, aTarget == Target.EXTENSION ? "extension" : "delegate", "L" + OBJECT + ";"));
+            code.op(CHECKCAST).u2(aPool.classRef(owner));
+            for (int i = 0, slot = 1; i < parameterTypes.length; slot += slots(parameterTypes[i]), i++)
+                code.load(parameterTypes[i], slot);
+            code.op(INVOKEINTERFACE).u2(aPool.interfaceMethodRef(owner, aMethod.getName(), descriptor)).
+                    u1(parameterSlots + 1).u1(0);
+            code.op(returnOpcode(returnType));
+        }
+
+        int intercepted = code.position();
+        if (branch != -1)
+            code.patch(branch + 1, intercepted - branch);
+        writePerform(aPool, code, FORWARDER, anIndex, parameterTypes, returnType);
+
+        // this, an index, an array twice, an element index and up to a two slot element
+        int maxStack = Math.max(7, parameterSlots + 1);
+        writeMethod(aPool, anOut, ACC_PUBLIC | ACC_FINAL, aMethod.getName(), descriptor,
+                code, maxStack, parameterSlots + 1, branch != -1 ? intercepted : -1);
+    }
+
+    /**
+     * Writes a method of a dynamic forwarder. If a method can call an object method directly, it does it unless
+     * {@code DynamicForwarder.isDelegated()} reports there is an operation for a method or operations are intercepted.
+     * Otherwise, methods with up to three parameters call {@code DynamicForwarder.apply()} or {@code accept()}, which
+     * call registered operations directly, and other methods are performed by {@code DynamicForwarder.perform()}.
+     * Methods returning {@code int}, {@code long}, {@code double} or {@code boolean} and having no parameters or one
+     * parameter of the same type call {@code applyAsInt()} etc. instead, so they don't box arguments and results.
+     */
+    private static void writeDynamicMethod(ConstantPool aPool, DataOutputStream anOut, int anIndex, Method aMethod,
+                                           boolean isDelegated) throws IOException {
+        Class<?>[] parameterTypes = aMethod.getParameterTypes();
+        Class<?> returnType = aMethod.getReturnType();
+        String descriptor = methodDescriptor(aMethod);
+        int parameterSlots = 0;
+        for (Class<?> parameterType : parameterTypes)
+            parameterSlots += slots(parameterType);
+
+        Code code = new Code();
+        int branch = -1;
+        if (isDelegated) {
+            code.op(ALOAD_0);
+            code.op(SIPUSH).u2(anIndex);
+            code.op(INVOKEVIRTUAL).u2(aPool.methodRef(DYNAMIC_FORWARDER, "isDelegated", "(I)Z"));
+            branch = code.position();
+            code.op(IFEQ).u2(0);
+
+            String owner = internalName(aMethod.getDeclaringClass());
+            code.op(ALOAD_0);
+            code.op(GETFIELD).u2(aPool.fieldRef(DYNAMIC_FORWARDER, "delegate", "L" + OBJECT + ";"));
+            code.op(CHECKCAST).u2(aPool.classRef(owner));
+            for (int i = 0, slot = 1; i < parameterTypes.length; slot += slots(parameterTypes[i]), i++)
+                code.load(parameterTypes[i], slot);
+            code.op(INVOKEINTERFACE).u2(aPool.interfaceMethodRef(owner, aMethod.getName(), descriptor)).
+                    u1(parameterSlots + 1).u1(0);
+            code.op(returnOpcode(returnType));
+        }
+
+        int notDelegated = code.position();
+        if (branch != -1)
+            code.patch(branch + 1, notDelegated - branch);
+        String primitiveName = primitiveOperationName(parameterTypes, returnType);
+        if (primitiveName != null && ! isTransformed(aMethod)) {
+            String typeDescriptor = MethodType.methodType(returnType).toMethodDescriptorString().substring(2);
+            code.op(ALOAD_0);
+            code.op(SIPUSH).u2(anIndex);
+            if (parameterTypes.length == 1)
+                code.load(parameterTypes[0], 1);
+            code.op(INVOKEVIRTUAL).u2(aPool.methodRef(DYNAMIC_FORWARDER, primitiveName,
+                    "(I" + (parameterTypes.length == 1 ? typeDescriptor : "") + ")" + typeDescriptor));
+            code.op(returnOpcode(returnType));
+        } else if (parameterTypes.length <= OperationRegistry.MAX_ARITY && ! isTransformed(aMethod)) {
+            code.op(ALOAD_0);
+            code.op(SIPUSH).u2(anIndex);
+            String arguments = ("L" + OBJECT + ";").repeat(parameterTypes.length);
+            for (int i = 0, slot = 1; i < parameterTypes.length; slot += slots(parameterTypes[i]), i++) {
+                code.load(parameterTypes[i], slot);
+                box(aPool, code, parameterTypes[i]);
+            }
+            if (returnType == void.class) {
+                code.op(INVOKEVIRTUAL).u2(aPool.methodRef(DYNAMIC_FORWARDER, "accept", "(I" + arguments + ")V"));
+            } else {
+                code.op(INVOKEVIRTUAL).u2(aPool.methodRef(DYNAMIC_FORWARDER, "apply", "(I" + arguments + ")L" + OBJECT + ";"));
+                unbox(aPool, code, returnType);
+            }
+            code.op(returnOpcode(returnType));
+        } else {
+            writePerform(aPool, code, DYNAMIC_FORWARDER, anIndex, parameterTypes, returnType);
+        }
+
+        // this, an index, an array twice, an element index and up to a two slot element
+        int maxStack = Math.max(7, parameterSlots + 1);
+        writeMethod(aPool, anOut, ACC_PUBLIC | ACC_FINAL, aMethod.getName(), descriptor,
+                code, maxStack, parameterSlots + 1, branch != -1 ? notDelegated : -1);
+    }
+
+    /**
+     * Returns a name of a {@code DynamicForwarder} method that performs an operation without boxing, or {@code null}
+     * if there is no such method for given parameter and return types
+     */
+    private static String primitiveOperationName(Class<?>[] aParameterTypes, Class<?> aReturnType) {
+        if (aParameterTypes.length > 1 || (aParameterTypes.length == 1 && aParameterTypes[0] != aReturnType))
+            return null;
+        if (aReturnType == int.class)
+            return "applyAsInt";
+        else if (aReturnType == long.class)
+            return "applyAsLong";
+        else if (aReturnType == double.class)
+            return "applyAsDouble";
+        else if (aReturnType == boolean.class)
+            return "applyAsBoolean";
+        else
+            return null;
+    }
+
+    /**
+     * Writes code that performs an operation by calling a {@code perform(int, Object[])} method of a forwarder with
+     * boxed arguments, and returns its result
+     */
+    private static void writePerform(ConstantPool aPool, Code aCode, String aForwarderClassName, int anIndex,
+                                     Class<?>[] aParameterTypes, Class<?> aReturnType) throws IOException {
+        aCode.op(ALOAD_0);
+        aCode.op(SIPUSH).u2(anIndex);
+        aCode.op(SIPUSH).u2(aParameterTypes.length);
+        aCode.op(ANEWARRAY).u2(aPool.classRef(OBJECT));
+        for (int i = 0, slot = 1; i < aParameterTypes.length; slot += slots(aParameterTypes[i]), i++) {
+            aCode.op(DUP);
+            aCode.op(SIPUSH).u2(i);
+            aCode.load(aParameterTypes[i], slot);
+            box(aPool, aCode, aParameterTypes[i]);
+            aCode.op(AASTORE);
+        }
+        aCode.op(INVOKEVIRTUAL).u2(aPool.methodRef(aForwarderClassName, "perform", "(I[L" + OBJECT + ";)L" + OBJECT + ";"));
+        if (aReturnType == void.class)
+            aCode.op(POP);
+        else
+            unbox(aPool, aCode, aReturnType);
+        aCode.op(returnOpcode(aReturnType));
+    }
+
+    private static void box(ConstantPool aPool, Code aCode, Class<?> aType) throws IOException {
+        if (aType.isPrimitive()) {
+            Class<?> wrapperType = MethodType.methodType(aType).wrap().returnType();
+            aCode.op(INVOKESTATIC).u2(aPool.methodRef(internalName(wrapperType), "valueOf",
+                    MethodType.methodType(wrapperType, aType).toMethodDescriptorString()));
+        }
+    }
+
+    /**
+     * Writes code that converts an object on the stack to a type, unboxing it if needed
+     */
+    private static void unbox(ConstantPool aPool, Code aCode, Class<?> aType) throws IOException {
+        if (aType.isPrimitive()) {
+            Class<?> wrapperType = MethodType.methodType(aType).wrap().returnType();
+            aCode.op(CHECKCAST).u2(aPool.classRef(internalName(wrapperType)));
+            aCode.op(INVOKEVIRTUAL).u2(aPool.methodRef(internalName(wrapperType), aType.getName() + "Value",
+                    MethodType.methodType(aType).toMethodDescriptorString()));
+        } else if (aType != Object.class) {
+            aCode.op(CHECKCAST).u2(aPool.classRef(internalName(aType)));
+        }
+    }
+
+    /**
+     * Writes a method with code; a branch target, if any, gets a stack map frame that is the same as the initial one
+     */
+    private static void writeMethod(ConstantPool aPool, DataOutputStream anOut, int anAccess, String aName, String aDescriptor,
+                                    Code aCode, int aMaxStack, int aMaxLocals, int aBranchTarget) throws IOException {
+        byte[] code = aCode.toByteArray();
+
+        anOut.writeShort(anAccess);
+        anOut.writeShort(aPool.utf8(aName));
+        anOut.writeShort(aPool.utf8(aDescriptor));
+        anOut.writeShort(1);
+
+        anOut.writeShort(aPool.utf8("Code"));
+        int stackMapLength = aBranchTarget == -1 ? 0 : aBranchTarget < 64 ? 9 : 11;
+        anOut.writeInt(12 + code.length + stackMapLength);
+        anOut.writeShort(aMaxStack);
+        anOut.writeShort(aMaxLocals);
+        anOut.writeInt(code.length);
+        anOut.write(code);
+        anOut.writeShort(0); // exception table
+        if (aBranchTarget == -1) {
+            anOut.writeShort(0);
+        } else {
+            anOut.writeShort(1);
+            anOut.writeShort(aPool.utf8("StackMapTable"));
+            anOut.writeInt(stackMapLength - 6);
+            anOut.writeShort(1);
+            if (aBranchTarget < 64) {
+                anOut.writeByte(aBranchTarget); // same_frame
+            } else {
+                anOut.writeByte(251); // same_frame_extended
+                anOut.writeShort(aBranchTarget);
+            }
+        }
+    }
+
+    private static int returnOpcode(Class<?> aType) {
+        if (aType == void.class)
+            return RETURN;
+        else if (aType == long.class)
+            return LRETURN;
+        else if (aType == float.class)
+            return FRETURN;
+        else if (aType == double.class)
+            return DRETURN;
+        else if (aType.isPrimitive())
+            return IRETURN;
+        else
+            return ARETURN;
+    }
+
+    private static int slots(Class<?> aType) {
+        return aType == long.class || aType == double.class ? 2 : 1;
+    }
+
+    private static String methodDescriptor(Method aMethod) {
+        return MethodType.methodType(aMethod.getReturnType(), aMethod.getParameterTypes()).toMethodDescriptorString();
+    }
+
+    private static String internalName(Class<?> aClass) {
+        return aClass.getName().replace('.', '/');
+    }
+
+    /**
+     * Method code being written
+     */
+    private static class Code extends ByteArrayOutputStream {
+        Code op(int anOpcode) {
+            write(anOpcode);
+            return this;
+        }
+
+        Code u1(int aValue) {
+            write(aValue);
+            return this;
+        }
+
+        Code u2(int aValue) {
+            write(aValue >>> 8);
+            write(aValue);
+            return this;
+        }
+
+        int position() {
+            return count;
+        }
+
+        void patch(int aPosition, int aValue) {
+            buf[aPosition] = (byte) (aValue >>> 8);
+            buf[aPosition + 1] = (byte) aValue;
+        }
+
+        void load(Class<?> aType, int aSlot) {
+            int opcode;
+            if (aType == long.class)
+                opcode = LLOAD;
+            else if (aType == float.class)
+                opcode = FLOAD;
+            else if (aType == double.class)
+                opcode = DLOAD;
+            else if (aType.isPrimitive())
+                opcode = ILOAD;
+            else
+                opcode = ALOAD;
+            op(opcode).u1(aSlot);
+        }
+    }
+
+    /**
+     * Class file constant pool; equal constants are written once
+     */
+    private static class ConstantPool {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private int count = 1;
+
+        int utf8(String aValue) throws IOException {
+            Integer result = indexes.get("U" + aValue);
+            if (result == null) {
+                out.writeByte(1);
+                out.writeUTF(aValue);
+                result = add("U" + aValue);
+            }
+            return result;
+        }
+
+        int classRef(String anInternalName) throws IOException {
+            return constant(7, "C" + anInternalName, utf8(anInternalName), -1);
+        }
+
+        int fieldRef(String anOwner, String aName, String aDescriptor) throws IOException {
+            return memberRef(9, anOwner, aName, aDescriptor);
+        }
+
+        int methodRef(String anOwner, String aName, String aDescriptor) throws IOException {
+            return memberRef(10, anOwner, aName, aDescriptor);
+        }
+
+        int interfaceMethodRef(String anOwner, String aName, String aDescriptor) throws IOException {
+            return memberRef(11, anOwner, aName, aDescriptor);
+        }
+
+        private int memberRef(int aTag, String anOwner, String aName, String aDescriptor) throws IOException {
+            int owner = classRef(anOwner);
+            int nameAndType = constant(12, "N" + aName + ":" + aDescriptor, utf8(aName), utf8(aDescriptor));
+            return constant(aTag, aTag + anOwner + "." + aName + ":" + aDescriptor, owner, nameAndType);
+        }
+
+        private int constant(int aTag, String aKey, int aFirstIndex, int aSecondIndex) throws IOException {
+            Integer result = indexes.get(aKey);
+            if (result == null) {
+                out.writeByte(aTag);
+                out.writeShort(aFirstIndex);
+                if (aSecondIndex != -1)
+                    out.writeShort(aSecondIndex);
+                result = add(aKey);
+            }
+            return result;
+        }
+
+        private int add(String aKey) {
+            indexes.put(aKey, count);
+            return count++;
+        }
+
+        void write(DataOutputStream anOut) throws IOException {
+            anOut.writeShort(count);
+            bytes.writeTo(anOut);
+        }
+    }
+    //endregion
+}
@@ -40,6 +40,8 @@ import java.lang.annotation.Target;
  * <ol>
  * <li>An extension type via the {@code type} parameter</li>
  * <li>An extension caching policy via the {@code cachePolicy} parameter</li>
+ * <li>A maximum number of cached extensions via the {@code cacheSize} parameter; if not specified, the
+ * {@code ClassExtension.cacheMaxSize} property applies</li>
  * <li>An aspect handling policy via the {@code aspectsPolicy} parameter</li>
  * </ol>
  * <p>
@@ -59,6 +61,7 @@ import java.lang.annotation.Target;
 public @interface ExtensionInterface {
     ClassExtension.Type type() default ClassExtension.Type.STATIC_PROXY;
     ClassExtension.CachePolicy cachePolicy() default ClassExtension.CachePolicy.DEFAULT;
+    int cacheSize() default 0;
     ClassExtension.AspectsPolicy aspectsPolicy() default ClassExtension.AspectsPolicy.DEFAULT;
     String[] packages() default {};
     boolean adoptRecord() default false;
@@ -0,0 +1,307 @@
+/*
+Copyright 2024 Gregory Ledenev (gregory.ledenev37@gmail.com)
+
+MIT License
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the “Software”), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+package com.gl.classext;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A registry of operations keyed by an object class, an extension interface and an operation id. Operation ids are
+ * small integers interned from operation names and their arity when operations are registered, so lookups do no string
+ * work. Entries are kept in an open-addressing table with linear probing and precomputed hashes.
+ * <p>
+ * Names are interned per registry, so ids are meaningful for the registry that issued them only. Interned names are
+ * kept for the lifetime of a registry, even after their operations are removed, and get released along with it.
+ * <p>
+ * Lookups are lock-free and may run concurrently with modifications, which are synchronized. Entries are immutable,
+ * removed entries are replaced with a tombstone and the table is rebuilt when it gets too crowded.
+ *
+ * @param <V> the type of operations
+ */
+final class OperationRegistry<V> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final String[] ARITY_SUFFIXES = {"", "Bi", "Tri", "Quad"};
+    private static final int ARITY_BITS = 2;
+    private static final int ARITY_MASK = (1 << ARITY_BITS) - 1;
+
+    /**
+     * Maximum arity of operations taking their arguments separately
+     */
+    static final int MAX_ARITY = ARITY_SUFFIXES.length - 1;
+
+    private record Entry<V>(Class<?> objectClass, Class<?> extensionInterface, int operationId, int hash, V value) {}
+
+    @SuppressWarnings("rawtypes")
+    private static final Entry TOMBSTONE = new Entry<>(null, null, -1, 0, null);
+
+    private volatile AtomicReferenceArray<Entry<V>> table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+    private final Map<String, Integer> nameIds = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[INITIAL_CAPACITY];
+    private int size;
+    private int used; // live entries and tombstones
+
+    /**
+     * Represents an operation that accepts registry entries
+     *
+     * @param <V> the type of operations
+     */
+    @FunctionalInterface
+    interface EntryConsumer<V> {
+        void accept(Class<?> anObjectClass, Class<?> anExtensionInterface, int anOperationId, V anOperation);
+    }
+
+    /**
+     * Returns an id of an operation, interning its name if needed. An arity is a number of operation parameters:
+     * {@code 0} for parameterless operations, {@code 1} for operations having one parameter or taking all their
+     * arguments as an array, and up to {@link #MAX_ARITY} for operations taking their arguments separately
+     *
+     * @param anOperationName operation name
+     * @param anArity         operation arity
+     * @return operation id
+     */
+    int operationId(String anOperationName, int anArity) {
+        Integer nameId = nameIds.get(anOperationName);
+        if (nameId == null)
+            nameId = internName(anOperationName);
+        return operationId(nameId, anArity);
+    }
+
+    /**
+     * Returns an id of an operation without interning its name
+     *
+     * @param anOperationName operation name
+     * @param anArity         operation arity
+     * @return operation id or {@code -1} if no operation with such name has ever been registered in this registry
+     */
+    int findOperationId(String anOperationName, int anArity) {
+        Integer nameId = nameIds.get(anOperationName);
+        return nameId != null ? operationId(nameId, anArity) : -1;
+    }
+
+    /**
+     * Returns an id of an operation with the same name as a given one and a given arity
+     *
+     * @param anOperationId operation id
+     * @param anArity       operation arity
+     * @return operation id
+     */
+    static int withArity(int anOperationId, int anArity) {
+        return operationId(anOperationId >>> ARITY_BITS, anArity);
+    }
+
+    private static int operationId(int aNameId, int anArity) {
+        if (anArity < 0 || anArity > MAX_ARITY)
+            throw new IllegalArgumentException("Unsupported operation arity: " + anArity);
+        return aNameId << ARITY_BITS | anArity;
+    }
+
+    /**
+     * Returns a name of an operation by its id, with the {@code "Bi"}, {@code "Tri"} or {@code "Quad"} suffix for
+     * operations having parameters
+     *
+     * @param anOperationId operation id
+     * @return operation name
+     */
+    String operationName(int anOperationId) {
+        return operationName(names[anOperationId >>> ARITY_BITS], anOperationId & ARITY_MASK);
+    }
+
+    /**
+     * Returns a name of an operation with the {@code "Bi"}, {@code "Tri"} or {@code "Quad"} suffix for operations
+     * having parameters
+     *
+     * @param anOperationName operation name
+     * @param anArity         operation arity
+     * @return operation name
+     */
+    static String operationName(String anOperationName, int anArity) {
+        return anOperationName + ARITY_SUFFIXES[anArity];
+    }
+
+    /**
+     * Returns a name of an operation by its id, without an arity suffix
+     *
+     * @param anOperationId operation id
+     * @return operation name
+     */
+    String simpleOperationName(int anOperationId) {
+        return names[anOperationId >>> ARITY_BITS];
+    }
+
+    /**
+     * Returns a name of an operation without its arity suffix. Names ending with suffixes themselves are ambiguous,
+     * so prefer {@link #simpleOperationName(int)} if an operation id is known
+     *
+     * @param anOperationName operation name returned by {@link #operationName(String, int)}
+     * @return operation name
+     */
+    static String simpleOperationName(String anOperationName) {
+        for (int i = ARITY_SUFFIXES.length - 1; i > 0; i--) {
+            if (anOperationName.endsWith(ARITY_SUFFIXES[i]))
+                return anOperationName.substring(0, anOperationName.length() - ARITY_SUFFIXES[i].length());
+        }
+        return anOperationName;
+    }
+
+    private synchronized int internName(String anOperationName) {
+        Integer result = nameIds.get(anOperationName);
+        if (result == null) {
+            result = nameIds.size();
+            String[] newNames = result == names.length ? Arrays.copyOf(names, result * 2) : names;
+            newNames[result] = anOperationName;
+            names = newNames;
+            nameIds.put(anOperationName, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns an operation
+     *
+     * @param anObjectClass        object class
+     * @param anExtensionInterface extension interface
+     * @param anOperationId        operation id
+     * @return an operation or {@code null} if there is no such operation
+     */
+    V get(Class<?> anObjectClass, Class<?> anExtensionInterface, int anOperationId) {
+        int hash = hash(anObjectClass, anExtensionInterface, anOperationId);
+        AtomicReferenceArray<Entry<V>> entries = table;
+        int mask = entries.length() - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            Entry<V> entry = entries.get(i);
+            if (entry == null)
+                return null;
+            if (entry.hash == hash && entry.operationId == anOperationId &&
+                    entry.objectClass == anObjectClass && entry.extensionInterface == anExtensionInterface)
+                return entry.value;
+        }
+    }
+
+    /**
+     * Registers an operation if there is no operation for the same key yet
+     *
+     * @param anObjectClass        object class
+     * @param anExtensionInterface extension interface
+     * @param anOperationId        operation id
+     * @param anOperation          operation
+     * @return an already registered operation or {@code null} if the operation has been registered
+     */
+    synchronized V putIfAbsent(Class<?> anObjectClass, Class<?> anExtensionInterface, int anOperationId, V anOperation) {
+        V result = get(anObjectClass, anExtensionInterface, anOperationId);
+        if (result == null) {
+            if ((used + 1) * 3 > table.length() * 2)
+                rebuild(Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(size, 1) * 4)));
+            int hash = hash(anObjectClass, anExtensionInterface, anOperationId);
+            insert(table, new Entry<>(anObjectClass, anExtensionInterface, anOperationId, hash, anOperation));
+            size++;
+            used++;
+        }
+        return result;
+    }
+
+    /**
+     * Removes an operation
+     *
+     * @param anObjectClass        object class
+     * @param anExtensionInterface extension interface
+     * @param anOperationId        operation id
+     * @return a removed operation or {@code null} if there was no such operation
+     */
+    @SuppressWarnings("unchecked")
+    synchronized V remove(Class<?> anObjectClass, Class<?> anExtensionInterface, int anOperationId) {
+        int hash = hash(anObjectClass, anExtensionInterface, anOperationId);
+        AtomicReferenceArray<Entry<V>> entries = table;
+        int mask = entries.length() - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            Entry<V> entry = entries.get(i);
+            if (entry == null)
+                return null;
+            if (entry.hash == hash && entry.operationId == anOperationId &&
+                    entry.objectClass == anObjectClass && entry.extensionInterface == anExtensionInterface) {
+                entries.set(i, TOMBSTONE);
+                size--;
+                return entry.value;
+            }
+        }
+    }
+
+    /**
+     * Removes all operations
+     */
+    synchronized void clear() {
+        table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+        size = 0;
+        used = 0;
+    }
+
+    /**
+     * Returns the number of registered operations
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Performs an action for each registered operation
+     *
+     * @param anAction action
+     */
+    void forEach(EntryConsumer<? super V> anAction) {
+        AtomicReferenceArray<Entry<V>> entries = table;
+        for (int i = 0; i < entries.length(); i++) {
+            Entry<V> entry = entries.get(i);
+            if (entry != null && entry != TOMBSTONE)
+                anAction.accept(entry.objectClass, entry.extensionInterface, entry.operationId, entry.value);
+        }
+    }
+
+    private void rebuild(int aCapacity) {
+        AtomicReferenceArray<Entry<V>> entries = table;
+        AtomicReferenceArray<Entry<V>> newEntries = new AtomicReferenceArray<>(aCapacity);
+        for (int i = 0; i < entries.length(); i++) {
+            Entry<V> entry = entries.get(i);
+            if (entry != null && entry != TOMBSTONE)
+                insert(newEntries, entry);
+        }
+        table = newEntries;
+        used = size;
+    }
+
+    private static <V> void insert(AtomicReferenceArray<Entry<V>> anEntries, Entry<V> anEntry) {
+        int mask = anEntries.length() - 1;
+        int i = anEntry.hash & mask;
+        while (anEntries.get(i) != null)
+            i = (i + 1) & mask;
+        anEntries.set(i, anEntry);
+    }
+
+    private static int hash(Class<?> anObjectClass, Class<?> anExtensionInterface, int anOperationId) {
+        int result = (anObjectClass.hashCode() * 31 + anExtensionInterface.hashCode()) * 31 + anOperationId;
+        result *= 0x9E3779B9;
+        return result ^ (result >>> 16);
+    }
+}
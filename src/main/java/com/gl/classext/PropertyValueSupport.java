@@ -18,7 +18,16 @@ import java.util.concurrent.atomic.AtomicReference;
  */
 public class PropertyValueSupport {
     private final boolean useCache;
-    private final ConcurrentHashMap<String, Method> gettersMethodCache = new ConcurrentHashMap<>();
+    /**
+     * Getter methods by target classes and property names. Methods are kept along with their classes, so classes with
+     * the same names from different class loaders do not collide, and caching does not prevent classes from unloading
+     */
+    private final ClassValue<Map<String, Method>> gettersMethodCache = new ClassValue<>() {
+        @Override
+        protected Map<String, Method> computeValue(Class<?> aType) {
+            return new ConcurrentHashMap<>();
+        }
+    };
     private static final LazyValue<PropertyValueSupport> sharedInstance =
             new LazyValue<>(PropertyValueSupport::new);
 
@@ -84,8 +93,7 @@ public class PropertyValueSupport {
 
     private Method getterMethod(Class<?> targetClass, String propertyName) {
         if (useCache) {
-            String key = targetClass.getName() + "#" + propertyName;
-            return gettersMethodCache.computeIfAbsent(key, k -> findGetterMethod(targetClass, propertyName));
+            return gettersMethodCache.get(targetClass).computeIfAbsent(propertyName, k -> findGetterMethod(targetClass, propertyName));
         } else {
             return findGetterMethod(targetClass, propertyName);
         }
@@ -195,11 +203,24 @@ public class PropertyValueSupport {
         }
     }
 
-    private final Map<String, Method> settersMethodCache = new ConcurrentHashMap<>();
+    /**
+     * A key of a setter method; a {@code null} parameter type stands for any non-primitive one
+     */
+    private record SetterKey(String name, Class<?> parameterType) {
+    }
+
+    /**
+     * Setter methods by target classes, names and parameter types
+     */
+    private final ClassValue<Map<SetterKey, Method>> settersMethodCache = new ClassValue<>() {
+        @Override
+        protected Map<SetterKey, Method> computeValue(Class<?> aType) {
+            return new ConcurrentHashMap<>();
+        }
+    };
 
     private Method setterMethod(Object object, String setter, Class<?> parameterType) {
-        String key = object.getClass().getName() + "#" + setter + "#" + parameterType.getName();
-        return settersMethodCache.computeIfAbsent(key,
+        return settersMethodCache.get(object.getClass()).computeIfAbsent(new SetterKey(setter, parameterType),
                 k -> {
                     try {
                         return object.getClass().getMethod(setter, parameterType);
@@ -210,8 +231,7 @@ public class PropertyValueSupport {
     }
 
     private Method anySetterMethod(Class<?> clazz, String methodName) {
-        String key = clazz.getName() + "#" + methodName;
-        return settersMethodCache.computeIfAbsent(key, k -> {
+        return settersMethodCache.get(clazz).computeIfAbsent(new SetterKey(methodName, null), k -> {
             List<Method> methods = Arrays.stream(clazz.getMethods())
                     .filter(method -> method.getName().equals(methodName) &&
                             method.getParameterCount() == 1 &&
@@ -24,15 +24,32 @@ SOFTWARE.
 
 package com.gl.classext;
 
-import com.gl.classext.ThreadSafeWeakCache.ClassExtensionKey;
-
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * <p>The {@code StaticClassExtension} class offers methods for dynamically finding and creating extension objects as needed. With
@@ -105,6 +122,9 @@ import java.util.*;
  * <p>Note: Extensions returned by {@code StaticClassExtension} do not directly correspond to the extension classes
  * themselves. Therefore, it is crucial not to cast these extensions. Instead, always utilize only the methods provided
  * by the extension interface.</p>
+ * <p>Note: Exceptions thrown by extension methods reach callers unchanged, whatever the instantiation strategy. Unlike
+ * in earlier versions, proxies do not wrap them in a {@code RuntimeException} caused by an
+ * {@code InvocationTargetException}.</p>
  *
  * @see <a href="https://github.com/gregory-ledenev/java-class-extension/blob/main/doc/static-class-extensions.md">More details</a>
  * @author Gregory Ledenev
@@ -131,9 +151,39 @@ public class StaticClassExtension extends AbstractClassExtension {
         return extension(anObject, anExtensionInterface, (List<String>) null);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>All the interfaces are implemented by a single proxy: extension classes are resolved for every interface,
+     * except supplementary interfaces implemented by an object itself, and each call is dispatched to an extension of
+     * an interface declaring a called method. Such extensions are cached apart from ones implementing a single
+     * interface, according to the cache policy of an extension interface, except that
+     * {@code CachePolicy.DELEGATE_LIFETIME} falls back to {@code CachePolicy.IDENTITY}.</p>
+     */
+    @Override
+    public <T> T extension(Object anObject, Class<T> anExtensionInterface, Class<?>... aSupplementaryInterfaces) {
+        Objects.requireNonNull(anObject);
+        Objects.requireNonNull(anExtensionInterface);
+
+        if (aSupplementaryInterfaces == null || aSupplementaryInterfaces.length == 0)
+            return extension(anObject, anExtensionInterface);
+
+        if (isCacheEnabled(anExtensionInterface)) {
+            // look up first, so a cache hit allocates neither a key nor a supplier
+            T result = getCachedExtension(anObject, anExtensionInterface, aSupplementaryInterfaces);
+            if (result != null)
+                return result;
+
+            List<Class<?>> supplementaryInterfaces = List.of(aSupplementaryInterfaces);
+            return createCachedExtension(anObject, anExtensionInterface, aSupplementaryInterfaces,
+                    () -> extensionNoCache(anObject, anExtensionInterface, supplementaryInterfaces, null));
+        } else {
+            return extensionNoCache(anObject, anExtensionInterface, List.of(aSupplementaryInterfaces), null);
+        }
+    }
+
     @Override
     public boolean compatible(Type aType) {
-        return aType == Type.STATIC_PROXY || aType == Type.STATIC_DIRECT;
+        return aType == Type.STATIC_PROXY || aType == Type.STATIC_DIRECT || aType == Type.STATIC_GENERATED;
     }
 
     /**
@@ -158,14 +208,18 @@ public class StaticClassExtension extends AbstractClassExtension {
      * @param aPackageNames        additional packages to lookup for extensions
      * @return an extension object
      */
-    @SuppressWarnings("unchecked")
     protected <T> T extension(Object anObject, Class<T> anExtensionInterface, List<String> aPackageNames) {
         Objects.requireNonNull(anObject);
         Objects.requireNonNull(anExtensionInterface);
 
-        return isCacheEnabled(anExtensionInterface) ?
-                (T) getExtensionCache().getOrCreate(new ClassExtensionKey(anObject, anExtensionInterface), () -> extensionNoCache(anObject, anExtensionInterface, aPackageNames)) :
-                extensionNoCache(anObject, anExtensionInterface, aPackageNames);
+        if (isCacheEnabled(anExtensionInterface)) {
+            // look up first, so a cache hit does not allocate a supplier
+            T result = getCachedExtension(anObject, anExtensionInterface);
+            return result != null ? result :
+                    createCachedExtension(anObject, anExtensionInterface, () -> extensionNoCache(anObject, anExtensionInterface, aPackageNames));
+        } else {
+            return extensionNoCache(anObject, anExtensionInterface, aPackageNames);
+        }
     }
 
     private <T> List<String> getPackageNames(Class<T> anExtensionClass, List<String> aPackageNames) {
@@ -189,35 +243,33 @@ public class StaticClassExtension extends AbstractClassExtension {
         Objects.requireNonNull(anObject);
         Objects.requireNonNull(anExtensionInterface);
 
-        List<String> packageNames = getPackageNames(anExtensionInterface, aPackageNames);
-
-        Type instantiationStrategy = Type.STATIC_PROXY;
-
-        Class<?> extensionInterface = findAnnotatedInterface(anExtensionInterface, ExtensionInterface.class);
-        if (extensionInterface == null) {
-            extensionInterface = anExtensionInterface;
-        } else {
-            packageNames = getAnnotatedPackageNames(extensionInterface, packageNames);
-            instantiationStrategy = classExtensionType(extensionInterface);
-        }
-        packageNames.addAll(extensionPackages(extensionInterface));
+        ExtensionResolution resolution = resolveExtension(anObject.getClass(), anExtensionInterface, aPackageNames);
+        Class<?> extensionInterface = resolution.extensionInterface();
+        Type instantiationStrategy = resolution.instantiationStrategy();
+        Class<?> extensionClass = resolution.extensionClass();
 
-        Class<?> extensionClass = extensionClassForObject(anObject, extensionInterface, packageNames);
         if (extensionClass == null && extensionFactory == null)
-            throw new IllegalArgumentException(MessageFormat.format("No extension {0} for a {1} class",
-                    extensionNames(packageNames, anObject.getClass().getSimpleName(), extensionInterface.getSimpleName()),
-                    anObject.getClass().getName()));
+            throw noExtensionException(anObject.getClass(), resolution);
         try {
             if (extensionClass != null)
                 checkExtensionClass(extensionClass, extensionInterface);
 
             Object extension = createExtension(anObject, anExtensionInterface, extensionClass);
 
+            if (instantiationStrategy == Type.STATIC_GENERATED) {
+                // falls back to a proxy if a forwarder can't be generated, e.g. for an inaccessible interface
+                Object forwarder = ExtensionForwarders.newForwarder(this, anExtensionInterface, extensionInterface, extension, anObject);
+                if (forwarder != null)
+                    return (T) forwarder;
+            }
+
             if (instantiationStrategy != Type.STATIC_DIRECT) {
                 Class<?> finalExtensionInterface = extensionInterface;
+                Map<Method, DispatchPlan> dispatchPlans = dispatchPlans(anExtensionInterface, extension.getClass(), anObject.getClass());
                 return (T) Proxy.newProxyInstance(extensionInterface.getClassLoader(),
                         new Class<?>[]{anExtensionInterface, PrivateDelegateHolder.class},
-                        (proxy, method, args) -> performOperation(this, finalExtensionInterface, extension, anObject, method, args));
+                        (proxy, method, args) -> performOperation(this, finalExtensionInterface, extension, anObject,
+                                dispatchPlan(dispatchPlans, method, extension.getClass(), anObject.getClass()), args));
             } else {
                 if (isVerbose() && ! anExtensionInterface.isAssignableFrom(extensionClass))
                     logger.severe(MessageFormat.format("""
@@ -232,6 +284,412 @@ public class StaticClassExtension extends AbstractClassExtension {
         }
     }
 
+    /**
+     * Finds and returns an extension object implementing an extension interface and supplementary interfaces by a
+     * single proxy
+     *
+     * @param anObject                 object to return an extension object for
+     * @param anExtensionInterface     extension interface
+     * @param aSupplementaryInterfaces supplementary interfaces
+     * @param aPackageNames            packages to lookup extensions in
+     * @return an extension object
+     */
+    @SuppressWarnings({"unchecked"})
+    protected <T> T extensionNoCache(Object anObject, Class<T> anExtensionInterface, List<Class<?>> aSupplementaryInterfaces,
+                                     List<String> aPackageNames) {
+        Objects.requireNonNull(anObject);
+        Objects.requireNonNull(anExtensionInterface);
+
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        interfaces.add(anExtensionInterface);
+        interfaces.addAll(aSupplementaryInterfaces);
+
+        List<ExtensionPart> parts = new ArrayList<>(interfaces.size());
+        try {
+            for (Class<?> extensionInterface : interfaces)
+                parts.add(extensionPart(anObject, extensionInterface, aPackageNames, parts.isEmpty()));
+        } catch (ReflectiveOperationException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        interfaces.add(PrivateDelegateHolder.class);
+        return (T) Proxy.newProxyInstance(parts.getFirst().extensionInterface().getClassLoader(),
+                interfaces.toArray(new Class<?>[0]),
+                (proxy, method, args) -> performOperation(this, anObject, parts, method, args));
+    }
+
+    /**
+     * An extension for one of interfaces implemented by a proxy
+     *
+     * @param extensionInterface an extension interface annotated with {@code ExtensionInterface}, if any, or an
+     *                           implemented interface
+     * @param extension          extension object
+     * @param dispatchPlans      dispatch plans for methods of an implemented interface
+     */
+    private record ExtensionPart(Class<?> extensionInterface, Object extension, Map<Method, DispatchPlan> dispatchPlans) {
+    }
+
+    private ExtensionPart extensionPart(Object anObject, Class<?> anInterface, List<String> aPackageNames, boolean isPrimary)
+            throws ReflectiveOperationException {
+        Class<?> objectClass = anObject.getClass();
+        if (! isPrimary && anInterface.isInstance(anObject))
+            // no extension is needed as methods can be performed by an object itself
+            return new ExtensionPart(anInterface, anObject, dispatchPlans(anInterface, objectClass, objectClass));
+
+        ExtensionResolution resolution = resolveExtension(objectClass, anInterface, aPackageNames);
+        Class<?> extensionClass = resolution.extensionClass();
+        if (extensionClass == null && extensionFactory == null)
+            throw noExtensionException(objectClass, resolution);
+        if (extensionClass != null)
+            checkExtensionClass(extensionClass, resolution.extensionInterface());
+
+        Object extension = createExtension(anObject, anInterface, extensionClass);
+        return new ExtensionPart(resolution.extensionInterface(), extension,
+                dispatchPlans(anInterface, extension.getClass(), objectClass));
+    }
+
+    private static Object performOperation(StaticClassExtension aClassExtension, Object anObject, List<ExtensionPart> aParts,
+                                           Method aMethod, Object[] anArgs) {
+        for (ExtensionPart part : aParts) {
+            DispatchPlan dispatchPlan = part.dispatchPlans().get(aMethod);
+            if (dispatchPlan != null)
+                return performOperation(aClassExtension, part.extensionInterface(), part.extension(), anObject, dispatchPlan, anArgs);
+        }
+
+        ExtensionPart part = aParts.getFirst();
+        return performOperation(aClassExtension, part.extensionInterface(), part.extension(), anObject,
+                dispatchPlan(part.dispatchPlans(), aMethod, part.extension().getClass(), anObject.getClass()), anArgs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void warmUp(Class<?> anExtensionInterface, Class<?> anObjectClass) {
+        ExtensionResolution resolution = resolveExtension(anObjectClass, anExtensionInterface, null);
+        Class<?> extensionInterface = resolution.extensionInterface();
+        Class<?> extensionClass = resolution.extensionClass();
+
+        if (extensionClass == null) {
+            if (extensionFactory == null)
+                throw noExtensionException(anObjectClass, resolution);
+            // extensions are made by a custom factory, so there is nothing to prepare in advance
+            return;
+        }
+
+        try {
+            checkExtensionClass(extensionClass, extensionInterface);
+            extensionFactory(extensionClass, anObjectClass);
+        } catch (ReflectiveOperationException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        Type instantiationStrategy = resolution.instantiationStrategy();
+        if (instantiationStrategy != Type.STATIC_DIRECT) {
+            dispatchPlans(anExtensionInterface, extensionClass, anObjectClass);
+            if (instantiationStrategy != Type.STATIC_GENERATED ||
+                    ! ExtensionForwarders.prepare(anExtensionInterface, extensionClass, anObjectClass))
+                // makes the proxy class be defined now rather than on the first extension creation
+                Proxy.newProxyInstance(extensionInterface.getClassLoader(),
+                        new Class<?>[]{anExtensionInterface, PrivateDelegateHolder.class},
+                        (proxy, method, args) -> null);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void warmUpWithSample(Class<?> anExtensionInterface, Object aSampleObject) {
+        warmUp(anExtensionInterface, aSampleObject.getClass());
+
+        Object extension = extensionNoCache(aSampleObject, anExtensionInterface, null);
+        extension.hashCode();
+        extension.toString();
+    }
+
+    //region Scoped extensions
+    /**
+     * Performs an action with an extension for an object, which is valid only within the action. If an extension
+     * class implements {@code DelegateHolder} and has a no-arguments constructor, extension instances are borrowed from
+     * a pool and re-bound to objects, so nothing is created per call. Otherwise, an extension is created
+     * bypassing cache. Extensions must not be used after an action completes.
+     *
+     * @param anObject             object to perform an action with an extension for
+     * @param anExtensionInterface extension interface
+     * @param anAction             action to perform
+     * @return a result of an action
+     */
+    @SuppressWarnings({"unchecked"})
+    public <T, R> R withExtension(Object anObject, Class<T> anExtensionInterface, Function<? super T, ? extends R> anAction) {
+        Objects.requireNonNull(anObject);
+        Objects.requireNonNull(anExtensionInterface);
+        Objects.requireNonNull(anAction);
+
+        ScopedExtension extension = scopedExtensionPools.borrow(this, anObject, anExtensionInterface);
+        if (extension == null)
+            return anAction.apply(extensionNoCache(anObject, anExtensionInterface, null));
+
+        try {
+            return anAction.apply((T) extension.view);
+        } finally {
+            extension.release();
+        }
+    }
+
+    private volatile ScopedExtensionPools scopedExtensionPools = new ScopedExtensionPools();
+
+    /**
+     * Pools of scoped extensions by extension interfaces and object classes. A pool is kept along with an object class
+     * or an extension interface, whichever is loaded by the most specific class loader, and it is shared by threads,
+     * so neither pools nor threads prevent unloading of class loaders of plugins.
+     */
+    private static class ScopedExtensionPools {
+        // pools kept along with object classes by extension interfaces
+        private final ClassKeyedCache<Class<?>, ScopedExtensionPool> objectClassPools = new ClassKeyedCache<>();
+        // pools kept along with extension interfaces by object classes
+        private final ClassKeyedCache<Class<?>, ScopedExtensionPool> interfacePools = new ClassKeyedCache<>();
+
+        ScopedExtension borrow(StaticClassExtension aClassExtension, Object anObject, Class<?> anExtensionInterface) {
+            if (aClassExtension.extensionFactory != null)
+                return null;
+
+            Class<?> objectClass = anObject.getClass();
+            boolean isObjectClassOwner = ClassKeyedCache.ownerClass(objectClass, anExtensionInterface) == objectClass;
+            ClassKeyedCache<Class<?>, ScopedExtensionPool> pools = isObjectClassOwner ? objectClassPools : interfacePools;
+            Class<?> ownerClass = isObjectClassOwner ? objectClass : anExtensionInterface;
+            Class<?> key = isObjectClassOwner ? anExtensionInterface : objectClass;
+
+            ScopedExtensionPool pool = pools.get(ownerClass, key);
+            if (pool == null)
+                pool = pools.putIfAbsent(ownerClass, key, aClassExtension.scopedExtensionPool(anExtensionInterface, objectClass));
+            if (pool.extensionClass() == null)
+                return null;
+
+            ScopedExtension result = pool.poll();
+            if (result == null)
+                result = aClassExtension.newScopedExtension(pool, anObject);
+            result.bind(anObject);
+            return result;
+        }
+    }
+
+    /**
+     * A pool of scoped extensions for an extension interface and an object class
+     *
+     * @param extensionInterface   an extension interface annotated with {@code ExtensionInterface}, if any, or the
+     *                             requested extension interface
+     * @param requestedInterface   requested extension interface
+     * @param objectClass          object class
+     * @param extensionClass       extension class or {@code null} if extensions can't be pooled
+     * @param instantiationStrategy extension instantiation strategy
+     * @param extensions           slots of idle extensions, taken and returned without locks and allocations
+     */
+    private record ScopedExtensionPool(Class<?> extensionInterface, Class<?> requestedInterface, Class<?> objectClass,
+                                       Class<?> extensionClass, Type instantiationStrategy,
+                                       AtomicReferenceArray<ScopedExtension> extensions) {
+        /**
+         * Maximum number of idle extensions; extensions released to a full pool are dropped
+         */
+        static final int MAX_IDLE_COUNT = 16;
+
+        ScopedExtension poll() {
+            for (int i = 0; i < extensions.length(); i++) {
+                ScopedExtension result = extensions.get(i);
+                if (result != null && extensions.compareAndSet(i, result, null))
+                    return result;
+            }
+            return null;
+        }
+
+        void push(ScopedExtension anExtension) {
+            for (int i = 0; i < extensions.length(); i++) {
+                if (extensions.get(i) == null && extensions.compareAndSet(i, null, anExtension))
+                    return;
+            }
+        }
+    }
+
+    private ScopedExtensionPool scopedExtensionPool(Class<?> anExtensionInterface, Class<?> anObjectClass) {
+        ExtensionResolution resolution = resolveExtension(anObjectClass, anExtensionInterface, null);
+        Class<?> extensionClass = resolution.extensionClass();
+        if (extensionClass != null && ! isPoolable(extensionClass, anObjectClass))
+            extensionClass = null;
+        if (extensionClass != null)
+            checkExtensionClass(extensionClass, resolution.extensionInterface());
+        return new ScopedExtensionPool(resolution.extensionInterface(), anExtensionInterface, anObjectClass, extensionClass,
+                resolution.instantiationStrategy(), new AtomicReferenceArray<>(ScopedExtensionPool.MAX_IDLE_COUNT));
+    }
+
+    private static boolean isPoolable(Class<?> anExtensionClass, Class<?> anObjectClass) {
+        try {
+            return DelegateHolder.class.isAssignableFrom(anExtensionClass) &&
+                    getDeclaredConstructor(anExtensionClass, anObjectClass).getParameterCount() == 0;
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+
+    private ScopedExtension newScopedExtension(ScopedExtensionPool aPool, Object anObject) {
+        Object extension;
+        try {
+            extension = extensionFactory(aPool.extensionClass(), aPool.objectClass()).apply(anObject);
+        } catch (ReflectiveOperationException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        if (aPool.instantiationStrategy() == Type.STATIC_DIRECT)
+            return new ScopedExtension(aPool, extension, extension, null);
+
+        if (aPool.instantiationStrategy() == Type.STATIC_GENERATED) {
+            Object forwarder = ExtensionForwarders.newForwarder(this, aPool.requestedInterface(), aPool.extensionInterface(),
+                    extension, anObject);
+            if (forwarder != null)
+                return new ScopedExtension(aPool, extension, forwarder, (ExtensionForwarders.Forwarder) forwarder);
+        }
+
+        ScopedInvocationHandler handler = new ScopedInvocationHandler(this, aPool, extension);
+        Object proxy = Proxy.newProxyInstance(aPool.extensionInterface().getClassLoader(),
+                new Class<?>[]{aPool.requestedInterface(), PrivateDelegateHolder.class}, handler);
+        return new ScopedExtension(aPool, extension, proxy, handler);
+    }
+
+    /**
+     * A pooled extension along with its view returned to callers: either an extension itself, a forwarder or a proxy
+     */
+    private static class ScopedExtension {
+        private final ScopedExtensionPool pool;
+        private final DelegateHolder<Object> extension;
+        private final Object view;
+        private final Object binding;
+
+        @SuppressWarnings({"unchecked"})
+        ScopedExtension(ScopedExtensionPool aPool, Object anExtension, Object aView, Object aBinding) {
+            pool = aPool;
+            extension = (DelegateHolder<Object>) anExtension;
+            view = aView;
+            binding = aBinding;
+        }
+
+        void bind(Object anObject) {
+            extension.setDelegate(anObject);
+            if (binding instanceof ScopedInvocationHandler handler)
+                handler.delegate = anObject;
+            else if (binding instanceof ExtensionForwarders.Forwarder forwarder)
+                forwarder.rebind(anObject);
+        }
+
+        void release() {
+            bind(null);
+            pool.push(this);
+        }
+    }
+
+    /**
+     * A proxy invocation handler that can be re-bound to another delegate
+     */
+    private static class ScopedInvocationHandler implements InvocationHandler {
+        private final StaticClassExtension classExtension;
+        private final Class<?> extensionInterface;
+        private final Object extension;
+        private final Class<?> objectClass;
+        private final Map<Method, DispatchPlan> dispatchPlans;
+        private Object delegate;
+
+        ScopedInvocationHandler(StaticClassExtension aClassExtension, ScopedExtensionPool aPool, Object anExtension) {
+            classExtension = aClassExtension;
+            extensionInterface = aPool.extensionInterface();
+            extension = anExtension;
+            objectClass = aPool.objectClass();
+            dispatchPlans = dispatchPlans(aPool.requestedInterface(), anExtension.getClass(), objectClass);
+        }
+
+        @Override
+        public Object invoke(Object aProxy, Method aMethod, Object[] anArgs) {
+            return performOperation(classExtension, extensionInterface, extension, delegate,
+                    dispatchPlan(dispatchPlans, aMethod, extension.getClass(), objectClass), anArgs);
+        }
+    }
+    //endregion
+
+    /**
+     * Returns a memoized resolution of an extension class for an object class and an extension interface, resolving
+     * it if needed. Resolutions are cached including negative ones, when no extension class is found, and they are
+     * invalidated when extension packages change. Resolutions are kept along with object classes or extension
+     * interfaces, so they do not prevent unloading of their class loaders.
+     */
+    private ExtensionResolution resolveExtension(Class<?> anObjectClass, Class<?> anExtensionInterface, List<String> aPackageNames) {
+        ClassKeyedCache<ResolutionKey, ExtensionResolution> currentResolutions = resolutions;
+        Class<?> ownerClass = ClassKeyedCache.ownerClass(anObjectClass, anExtensionInterface);
+        ResolutionKey key = new ResolutionKey(anObjectClass, anExtensionInterface,
+                aPackageNames != null ? List.copyOf(aPackageNames) : null);
+        ExtensionResolution result = currentResolutions.get(ownerClass, key);
+        if (result == null) {
+            result = resolveExtensionNoCache(anObjectClass, anExtensionInterface, aPackageNames);
+            // a resolution made with packages changed meanwhile goes to already dropped resolutions
+            result = currentResolutions.putIfAbsent(ownerClass, key, result);
+        }
+        return result;
+    }
+
+    private ExtensionResolution resolveExtensionNoCache(Class<?> anObjectClass, Class<?> anExtensionInterface, List<String> aPackageNames) {
+        List<String> packageNames = getPackageNames(anExtensionInterface, aPackageNames);
+
+        Type instantiationStrategy = Type.STATIC_PROXY;
+
+        Class<?> extensionInterface = findAnnotatedInterface(anExtensionInterface, ExtensionInterface.class);
+        if (extensionInterface == null) {
+            extensionInterface = anExtensionInterface;
+        } else {
+            packageNames = getAnnotatedPackageNames(extensionInterface, packageNames);
+            instantiationStrategy = classExtensionType(extensionInterface);
+        }
+        packageNames.addAll(extensionPackages(extensionInterface));
+
+        Class<?> extensionClass = extensionClassRegistry.extensionClass(anObjectClass, anExtensionInterface);
+        if (extensionClass == null && extensionInterface != anExtensionInterface)
+            extensionClass = extensionClassRegistry.extensionClass(anObjectClass, extensionInterface);
+        if (extensionClass == null)
+            extensionClass = extensionClassForObject(anObjectClass, extensionInterface, packageNames);
+        return new ExtensionResolution(extensionInterface, instantiationStrategy, List.copyOf(packageNames), extensionClass);
+    }
+
+    private IllegalArgumentException noExtensionException(Class<?> anObjectClass, ExtensionResolution aResolution) {
+        return new IllegalArgumentException(MessageFormat.format("No extension {0} for a {1} class",
+                extensionNames(aResolution.packageNames(), anObjectClass.getSimpleName(), aResolution.extensionInterface().getSimpleName()),
+                anObjectClass.getName()));
+    }
+
+    /**
+     * A key of a memoized extension class resolution
+     */
+    private record ResolutionKey(Class<?> objectClass, Class<?> extensionInterface, List<String> packageNames) {
+    }
+
+    /**
+     * A memoized extension class resolution
+     *
+     * @param extensionInterface    an extension interface annotated with {@code ExtensionInterface}, if any, or the
+     *                              requested extension interface
+     * @param instantiationStrategy extension instantiation strategy
+     * @param packageNames          packages an extension class was looked up in
+     * @param extensionClass        resolved extension class, or {@code null} if none found
+     */
+    private record ExtensionResolution(Class<?> extensionInterface, Type instantiationStrategy,
+                                       List<String> packageNames, Class<?> extensionClass) {
+    }
+
+    private volatile ClassKeyedCache<ResolutionKey, ExtensionResolution> resolutions = new ClassKeyedCache<>();
+
+    /**
+     * Invalidates memoized resolutions and pools of scoped extensions made for them; must be called under the
+     * {@code extensionPackages} lock
+     */
+    private void clearResolutions() {
+        resolutions = new ClassKeyedCache<>();
+        scopedExtensionPools = new ScopedExtensionPools();
+    }
+
     private static void checkExtensionClass(Class<?> extensionClass, Class<?> extensionInterface) {
         if (! extensionInterface.isAssignableFrom(extensionClass))
             throw new IllegalStateException(MessageFormat.format("Extension \"{0}\"class does not implement the \"{1}\" interface",
@@ -271,7 +729,7 @@ public class StaticClassExtension extends AbstractClassExtension {
 
     @SuppressWarnings({"rawtypes", "unchecked"})
     private Object createExtension(Object anObject, Class<?> anExtensionInterface, Class<?> anExtensionClass)
-            throws NoSuchMethodException, InstantiationException, IllegalAccessException, InvocationTargetException {
+            throws ReflectiveOperationException {
         Object result = null;
 
         if (extensionFactory != null) {
@@ -286,23 +744,109 @@ public class StaticClassExtension extends AbstractClassExtension {
         return result;
     }
 
-    private static Object defaultCreateExtension(Object anObject, Class<?> anExtensionClass) throws NoSuchMethodException, InstantiationException, IllegalAccessException, InvocationTargetException {
-        Object result;
-        Constructor<?> constructor = getDeclaredConstructor(anExtensionClass, anObject.getClass());
-        if (constructor.getParameterCount() == 1) {
-            result = constructor.newInstance(anObject);
-        } else {
-            if (DelegateHolder.class.isAssignableFrom(anExtensionClass)) {
-                result = constructor.newInstance();
-                ((DelegateHolder) result).setDelegate(anObject);
-            } else {
-                throw new IllegalArgumentException(MessageFormat.format("Found extension {0} must provide either a single parameter {1}(Object) constructor or implement {2}",
-                        anExtensionClass, anExtensionClass.getSimpleName(), DelegateHolder.class));
-            }
-        }
+    private record FactoryKey(Class<?> extensionClass, Class<?> objectClass) {
+    }
+
+    /**
+     * Compiled extension factories by extension classes and delegate classes
+     */
+    private static final ClassKeyedCache<FactoryKey, Function<Object, Object>> EXTENSION_FACTORIES = new ClassKeyedCache<>();
+
+    private static Object defaultCreateExtension(Object anObject, Class<?> anExtensionClass) throws ReflectiveOperationException {
+        return extensionFactory(anExtensionClass, anObject.getClass()).apply(anObject);
+    }
+
+    private static Function<Object, Object> extensionFactory(Class<?> anExtensionClass, Class<?> anObjectClass)
+            throws ReflectiveOperationException {
+        Class<?> ownerClass = ClassKeyedCache.ownerClass(anExtensionClass, anObjectClass);
+        FactoryKey key = new FactoryKey(anExtensionClass, anObjectClass);
+        Function<Object, Object> result = EXTENSION_FACTORIES.get(ownerClass, key);
+        if (result == null)
+            result = EXTENSION_FACTORIES.putIfAbsent(ownerClass, key, compileExtensionFactory(anExtensionClass, anObjectClass));
         return result;
     }
 
+    /**
+     * Compiles a factory creating extensions of an extension class for delegates of an object class, so a constructor
+     * is looked up once and extensions are created at the cost of a direct {@code new}. A factory either passes a
+     * delegate to a single parameter constructor or sets it to a {@code DelegateHolder} created by a no-arguments one.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Function<Object, Object> compileExtensionFactory(Class<?> anExtensionClass, Class<?> anObjectClass)
+            throws ReflectiveOperationException {
+        Constructor<?> constructor = getDeclaredConstructor(anExtensionClass, anObjectClass);
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle;
+        try {
+            handle = lookup.unreflectConstructor(constructor);
+        } catch (IllegalAccessException ex) {
+            // e.g. a non-public extension class of the same package loaded by another class loader
+            if (! constructor.trySetAccessible())
+                throw ex;
+            handle = lookup.unreflectConstructor(constructor);
+        }
+
+        if (constructor.getParameterCount() == 1)
+            return compileFunction(lookup, handle);
+
+        if (! DelegateHolder.class.isAssignableFrom(anExtensionClass))
+            throw new IllegalArgumentException(MessageFormat.format("Found extension {0} must provide either a single parameter {1}(Object) constructor or implement {2}",
+                    anExtensionClass, anExtensionClass.getSimpleName(), DelegateHolder.class));
+
+        Supplier<Object> supplier = compileSupplier(lookup, handle);
+        return anObject -> {
+            DelegateHolder result = (DelegateHolder) supplier.get();
+            result.setDelegate(anObject);
+            return result;
+        };
+    }
+
+    /**
+     * Turns a single parameter constructor handle into a function; it falls back to invoking the handle if a lambda
+     * can't be spun for the constructor
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> compileFunction(MethodHandles.Lookup aLookup, MethodHandle aConstructor) {
+        try {
+            CallSite callSite = LambdaMetafactory.metafactory(aLookup, "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    aConstructor, aConstructor.type());
+            return (Function<Object, Object>) callSite.getTarget().invoke();
+        } catch (Throwable ex) {
+            MethodHandle handle = aConstructor.asType(MethodType.methodType(Object.class, Object.class));
+            return anObject -> invokeConstructor(handle, anObject);
+        }
+    }
+
+    /**
+     * Turns a no-arguments constructor handle into a supplier; it falls back to invoking the handle if a lambda can't
+     * be spun for the constructor
+     */
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> compileSupplier(MethodHandles.Lookup aLookup, MethodHandle aConstructor) {
+        try {
+            CallSite callSite = LambdaMetafactory.metafactory(aLookup, "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    aConstructor, aConstructor.type());
+            return (Supplier<Object>) callSite.getTarget().invoke();
+        } catch (Throwable ex) {
+            MethodHandle handle = aConstructor.asType(MethodType.methodType(Object.class));
+            return () -> invokeConstructor(handle, null);
+        }
+    }
+
+    private static Object invokeConstructor(MethodHandle aConstructor, Object anObject) {
+        try {
+            return anObject != null ? aConstructor.invokeExact(anObject) : aConstructor.invokeExact();
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
     private static Type classExtensionType(Class<?> extensionInterface) {
         ExtensionInterface annotation = extensionInterface.getAnnotation(ExtensionInterface.class);
         return annotation != null ? annotation.type() : Type.STATIC_PROXY;
@@ -320,19 +864,27 @@ public class StaticClassExtension extends AbstractClassExtension {
         return packageNames;
     }
 
-    private static <T, I> Object performOperation(StaticClassExtension aClassExtension,
-                                                  Class<I> anExtensionInterface, T anExtension,
-                                                  Object anObject, Method aMethod, Object[] anArgs) {
+    static Object performOperation(StaticClassExtension aClassExtension, Class<?> anExtensionInterface,
+                                   Object anExtension, Object anObject, Method aMethod, Object[] anArgs) {
+        Map<Method, DispatchPlan> dispatchPlans = dispatchPlans(anExtensionInterface, anExtension.getClass(), anObject.getClass());
+        return performOperation(aClassExtension, anExtensionInterface, anExtension, anObject,
+                dispatchPlan(dispatchPlans, aMethod, anExtension.getClass(), anObject.getClass()), anArgs);
+    }
+
+    private static Object performOperation(StaticClassExtension aClassExtension, Class<?> anExtensionInterface,
+                                           Object anExtension, Object anObject, DispatchPlan aDispatchPlan, Object[] anArgs) {
         Object result;
         Aspects.Pointcut aroundPointcut = null;
         Aspects.Pointcut beforePointcut = null;
         Aspects.Pointcut afterPointcut = null;
 
-        String methodName = aMethod.getName();
-        if (aClassExtension.isAspectsEnabled(anExtensionInterface)) {
-            aroundPointcut = aClassExtension.getPointcut(anExtension.getClass(), anObject.getClass(), methodName, aMethod.getParameterTypes(), Aspects.AdviceType.AROUND);
-            beforePointcut = aroundPointcut == null ? aClassExtension.getPointcut(anExtension.getClass(), anObject.getClass(), methodName, aMethod.getParameterTypes(), Aspects.AdviceType.BEFORE) : null;
-            afterPointcut = aroundPointcut == null ? aClassExtension.getPointcut(anExtension.getClass(), anObject.getClass(), methodName, aMethod.getParameterTypes(), Aspects.AdviceType.AFTER) : null;
+        Method method = aDispatchPlan.method();
+        String methodName = method.getName();
+        if (aClassExtension.hasPointcuts() && aClassExtension.isAspectsEnabled(anExtensionInterface)) {
+            Class<?>[] parameterTypes = aDispatchPlan.parameterTypes();
+            aroundPointcut = aClassExtension.getPointcut(anExtension.getClass(), anObject.getClass(), methodName, parameterTypes, Aspects.AdviceType.AROUND);
+            beforePointcut = aroundPointcut == null ? aClassExtension.getPointcut(anExtension.getClass(), anObject.getClass(), methodName, parameterTypes, Aspects.AdviceType.BEFORE) : null;
+            afterPointcut = aroundPointcut == null ? aClassExtension.getPointcut(anExtension.getClass(), anObject.getClass(), methodName, parameterTypes, Aspects.AdviceType.AFTER) : null;
         }
 
         if (beforePointcut != null) {
@@ -341,31 +893,26 @@ public class StaticClassExtension extends AbstractClassExtension {
             beforePointcut.before(methodName, anObject, anArgs);
         }
 
-        if ("toString".equals(methodName) && aMethod.getParameterCount() == 0) {
-            result = performOperation(aClassExtension, anObject, aMethod, anArgs, aroundPointcut, (operation, object, args) -> object.toString());
-        } else if ("hashCode".equals(methodName) && aMethod.getParameterCount() == 0) {
-            result = performOperation(aClassExtension, anObject, aMethod, anArgs, aroundPointcut, (operation, object, args) -> object.hashCode());
-        } else if ("equals".equals(methodName) && aMethod.getParameterCount() == 1 && aMethod.getParameterTypes()[0] == Object.class) {
-            result = performOperation(aClassExtension, anObject, aMethod, anArgs, aroundPointcut, (operation, object, args) -> object.equals(args[0]));
-        } else {
-            if (aMethod.getDeclaringClass().isAssignableFrom(anExtension.getClass())) {
+        switch (aDispatchPlan.target()) {
+            case OBJECT_METHOD ->
+                    result = performOperation(aClassExtension, anObject, method, anArgs, aroundPointcut, aDispatchPlan.performer());
+            case EXTENSION -> {
                 // invoke extension method
                 if (aClassExtension.isVerbose())
-                    aClassExtension.logger.info(MessageFormat.format("Performing operation for extension \"{0}\" -> {1}", anExtension, aMethod));
-                result = performOperation(aClassExtension, anExtension, aMethod, anArgs, aroundPointcut);
-            } else if (aMethod.getDeclaringClass().isAssignableFrom(anObject.getClass())) {
+                    aClassExtension.logger.info(MessageFormat.format("Performing operation for extension \"{0}\" -> {1}", anExtension, method));
+                result = performOperation(aClassExtension, anExtension, method, anArgs, aroundPointcut, aDispatchPlan.performer());
+            }
+            case DELEGATE -> {
                 // invoke object method
                 if (aClassExtension.isVerbose())
-                    aClassExtension.logger.info(MessageFormat.format("Performing operation for delegate \"{0}\" -> {1}", anObject, aMethod));
-                result = performOperation(aClassExtension, anObject, aMethod, anArgs, aroundPointcut);
-            } else if (aMethod.getDeclaringClass().isAssignableFrom(PrivateDelegateHolder.class)) {
-                // invoke object method
-                result = performOperation(aClassExtension, (PrivateDelegateHolder)() -> anObject, aMethod, anArgs, aroundPointcut);
-            } else if (aMethod.getDeclaringClass().isAssignableFrom(ExpressionContext.class)) {
-                result = performExpressionContextOperation(aClassExtension, anObject, aMethod, anArgs);
-            } else {
-                throw new IllegalArgumentException("Unexpected method: " + methodName);
+                    aClassExtension.logger.info(MessageFormat.format("Performing operation for delegate \"{0}\" -> {1}", anObject, method));
+                result = performOperation(aClassExtension, anObject, method, anArgs, aroundPointcut, aDispatchPlan.performer());
             }
+            case DELEGATE_HOLDER ->
+                    result = performOperation(aClassExtension, (PrivateDelegateHolder) () -> anObject, method, anArgs, aroundPointcut, aDispatchPlan.performer());
+            case EXPRESSION_CONTEXT ->
+                    result = performExpressionContextOperation(aClassExtension, anObject, method, anArgs);
+            default -> throw new IllegalArgumentException("Unexpected method: " + methodName);
         }
 
         if (afterPointcut != null) {
@@ -374,17 +921,7 @@ public class StaticClassExtension extends AbstractClassExtension {
             afterPointcut.after(result, methodName, anObject, anArgs);
         }
 
-        return transformOperationResult(aClassExtension, aMethod, result);
-    }
-
-    private static Object performOperation(StaticClassExtension aClassExtension, Object anObject, Method aMethod, Object[] anArgs, Aspects.Pointcut aroundPointcut) {
-        return performOperation(aClassExtension, anObject, aMethod, anArgs, aroundPointcut, (operation, anObject1, anArgs1) -> {
-            try {
-                return aMethod.invoke(anObject1, anArgs1);
-            } catch (Exception ex) {
-                throw new RuntimeException(ex);
-            }
-        });
+        return aDispatchPlan.transformsResult() ? transformOperationResult(aClassExtension, method, result) : result;
     }
 
     private static Object performOperation(StaticClassExtension aClassExtension, Object anObject, Method aMethod, Object[] anArgs, Aspects.Pointcut aroundPointcut, Performer<Object> objectPerformer) {
@@ -399,6 +936,199 @@ public class StaticClassExtension extends AbstractClassExtension {
         return result;
     }
 
+    //region Dispatch plans
+
+    /**
+     * An object an operation is performed for
+     */
+    enum DispatchTarget {
+        /**
+         * A delegate, for {@code toString()}, {@code hashCode()} and {@code equals(Object)}
+         */
+        OBJECT_METHOD,
+        /**
+         * An extension
+         */
+        EXTENSION,
+        /**
+         * A delegate
+         */
+        DELEGATE,
+        /**
+         * A {@code PrivateDelegateHolder} for a delegate
+         */
+        DELEGATE_HOLDER,
+        /**
+         * An {@code ExpressionContext} for a delegate
+         */
+        EXPRESSION_CONTEXT,
+        /**
+         * None; such methods can't be performed
+         */
+        UNEXPECTED
+    }
+
+    /**
+     * A precomputed way to perform a method for an extension class and a delegate class
+     *
+     * @param method           method to perform
+     * @param target           object the method is performed for
+     * @param parameterTypes   method parameter types
+     * @param performer        performer that invokes the method, via a bound method handle if the method is
+     *                         accessible
+     * @param transformsResult {@code true} if results must be transformed, e.g. by {@code @ObtainExtension}
+     *                         annotation or to {@code Optional}
+     */
+    record DispatchPlan(Method method, DispatchTarget target, Class<?>[] parameterTypes, Performer<Object> performer,
+                        boolean transformsResult) {
+        static DispatchPlan of(Method aMethod, Class<?> anExtensionClass, Class<?> anObjectClass) {
+            Class<?>[] parameterTypes = aMethod.getParameterTypes();
+            Class<?> declaringClass = aMethod.getDeclaringClass();
+            String methodName = aMethod.getName();
+            boolean transformsResult = aMethod.isAnnotationPresent(ObtainExtension.class) ||
+                    aMethod.getReturnType().isAssignableFrom(Optional.class);
+
+            DispatchTarget target;
+            Performer<Object> performer = null;
+            if ("toString".equals(methodName) && parameterTypes.length == 0) {
+                target = DispatchTarget.OBJECT_METHOD;
+                performer = (operation, object, args) -> object.toString();
+            } else if ("hashCode".equals(methodName) && parameterTypes.length == 0) {
+                target = DispatchTarget.OBJECT_METHOD;
+                performer = (operation, object, args) -> object.hashCode();
+            } else if ("equals".equals(methodName) && parameterTypes.length == 1 && parameterTypes[0] == Object.class) {
+                target = DispatchTarget.OBJECT_METHOD;
+                performer = (operation, object, args) -> object.equals(args[0]);
+            } else if (declaringClass.isAssignableFrom(anExtensionClass)) {
+                target = DispatchTarget.EXTENSION;
+            } else if (declaringClass.isAssignableFrom(anObjectClass)) {
+                target = DispatchTarget.DELEGATE;
+            } else if (declaringClass.isAssignableFrom(PrivateDelegateHolder.class)) {
+                target = DispatchTarget.DELEGATE_HOLDER;
+            } else if (declaringClass.isAssignableFrom(ExpressionContext.class)) {
+                target = DispatchTarget.EXPRESSION_CONTEXT;
+            } else {
+                target = DispatchTarget.UNEXPECTED;
+            }
+
+            if (performer == null)
+                performer = methodPerformer(aMethod);
+
+            return new DispatchPlan(aMethod, target, parameterTypes, performer, transformsResult);
+        }
+
+        /**
+         * Returns a performer that calls a method. Exceptions thrown by a method reach a caller unchanged, the same way
+         * they do for generated extensions, whether a method is called via a method handle or via reflection
+         */
+        private static Performer<Object> methodPerformer(Method aMethod) {
+            MethodHandle handle;
+            try {
+                handle = unreflect(aMethod).
+                        asSpreader(Object[].class, aMethod.getParameterCount()).
+                        asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+            } catch (IllegalAccessException ex) {
+                return reflectiveMethodPerformer(aMethod);
+            }
+
+            return (operation, object, args) -> {
+                try {
+                    return (Object) handle.invokeExact(object, args);
+                } catch (Throwable ex) {
+                    throw rethrow(ex);
+                }
+            };
+        }
+
+        static Performer<Object> reflectiveMethodPerformer(Method aMethod) {
+            return (operation, object, args) -> {
+                try {
+                    return aMethod.invoke(object, args);
+                } catch (InvocationTargetException ex) {
+                    throw rethrow(ex.getCause());
+                } catch (IllegalAccessException ex) {
+                    throw new RuntimeException(ex);
+                }
+            };
+        }
+
+        /**
+         * Throws an exception as is, even if it is a checked one; dynamic proxies pass checked exceptions declared by
+         * interface methods to callers and wrap other ones in {@code UndeclaredThrowableException}
+         */
+        private static RuntimeException rethrow(Throwable aThrowable) {
+            return DispatchPlan.<RuntimeException>throwUnchecked(aThrowable);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <E extends Throwable> RuntimeException throwUnchecked(Throwable aThrowable) throws E {
+            throw (E) aThrowable;
+        }
+
+        private static MethodHandle unreflect(Method aMethod) throws IllegalAccessException {
+            try {
+                return MethodHandles.lookup().unreflect(aMethod);
+            } catch (IllegalAccessException ex) {
+                // e.g. a non-public interface of the same package loaded by another class loader
+                if (! aMethod.trySetAccessible())
+                    throw ex;
+                return MethodHandles.lookup().unreflect(aMethod);
+            }
+        }
+    }
+
+    private record DispatchKey(Class<?> interfaceClass, Class<?> extensionClass, Class<?> objectClass) {
+    }
+
+    /**
+     * Dispatch plans by interfaces, extension classes and delegate classes
+     */
+    private static final ClassKeyedCache<DispatchKey, Map<Method, DispatchPlan>> DISPATCH_PLANS = new ClassKeyedCache<>();
+
+    private static final List<Method> OBJECT_METHODS = objectMethods();
+
+    private static List<Method> objectMethods() {
+        try {
+            return List.of(Object.class.getMethod("toString"), Object.class.getMethod("hashCode"),
+                    Object.class.getMethod("equals", Object.class));
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Returns dispatch plans for an interface, an extension class and a delegate class. Plans for all the interface
+     * methods, including {@code Object} and {@code PrivateDelegateHolder} ones, are computed at once.
+     */
+    static Map<Method, DispatchPlan> dispatchPlans(Class<?> anInterface, Class<?> anExtensionClass, Class<?> anObjectClass) {
+        return DISPATCH_PLANS.computeIfAbsent(ClassKeyedCache.ownerClass(anInterface, anExtensionClass, anObjectClass),
+                new DispatchKey(anInterface, anExtensionClass, anObjectClass), key -> {
+                    Map<Method, DispatchPlan> result = new ConcurrentHashMap<>();
+                    List<Method> methods = new ArrayList<>(OBJECT_METHODS);
+                    methods.addAll(Arrays.asList(PrivateDelegateHolder.class.getMethods()));
+                    methods.addAll(Arrays.asList(anInterface.getMethods()));
+                    for (Method method : methods)
+                        if (! Modifier.isStatic(method.getModifiers()))
+                            result.putIfAbsent(method, DispatchPlan.of(method, anExtensionClass, anObjectClass));
+                    return result;
+                });
+    }
+
+    /**
+     * Returns a dispatch plan for a method, computing it if a method is not an interface one, e.g. for a
+     * sub-interface method
+     */
+    private static DispatchPlan dispatchPlan(Map<Method, DispatchPlan> aDispatchPlans, Method aMethod,
+                                             Class<?> anExtensionClass, Class<?> anObjectClass) {
+        DispatchPlan result = aDispatchPlans.get(aMethod);
+        if (result == null) {
+            result = DispatchPlan.of(aMethod, anExtensionClass, anObjectClass);
+            aDispatchPlans.putIfAbsent(aMethod, result);
+        }
+        return result;
+    }
+    //endregion
+
     static Class<?> findAnnotatedInterface(Class<?> anInterfaceClass, Class<? extends Annotation> anAnnotationClass) {
         if (anInterfaceClass.isAnnotationPresent(anAnnotationClass))
             return anInterfaceClass;
@@ -431,7 +1161,7 @@ public class StaticClassExtension extends AbstractClassExtension {
                 result;
     }
 
-    <T> Class<T> extensionClassForObject(Object anObject, Class<T> anExtensionInterface, List<String> aPackageNames) {
+    <T> Class<T> extensionClassForObject(Class<?> anObjectClass, Class<T> anExtensionInterface, List<String> aPackageNames) {
         if (aPackageNames == null)
             return null;
 
@@ -440,36 +1170,155 @@ public class StaticClassExtension extends AbstractClassExtension {
         Collections.reverse(packageNames);
 
         String extensionName = anExtensionInterface.getSimpleName();
+        List<ClassLoader> classLoaders = extensionClassLoaders(anObjectClass, anExtensionInterface);
         for (String packageName : packageNames) {
             if (packageName == null)
                 continue;
 
-            result = extensionClassForObject(anObject, extensionName, packageName);
+            result = extensionClassForObject(anObjectClass, extensionName, packageName, classLoaders);
             if (result != null)
                 break;
         }
         return result;
     }
 
+    /**
+     * Returns class loaders to look up extension classes in: ones of an object class, of an extension interface and
+     * of this library, so extensions can be found for classes of plugins and other isolated class loaders
+     */
+    private static List<ClassLoader> extensionClassLoaders(Class<?> anObjectClass, Class<?> anExtensionInterface) {
+        List<ClassLoader> result = new ArrayList<>(3);
+        for (Class<?> aClass : new Class<?>[]{anObjectClass, anExtensionInterface, StaticClassExtension.class}) {
+            ClassLoader classLoader = aClass.getClassLoader();
+            if (classLoader != null && ! result.contains(classLoader))
+                result.add(classLoader);
+        }
+        if (result.isEmpty())
+            result.add(ClassLoader.getSystemClassLoader());
+        return result;
+    }
+
+    private static Class<?> loadExtensionClass(String aClassName, List<ClassLoader> aClassLoaders) throws ClassNotFoundException {
+        ClassNotFoundException exception = null;
+        for (ClassLoader classLoader : aClassLoaders) {
+            try {
+                return Class.forName(aClassName, true, classLoader);
+            } catch (ClassNotFoundException ex) {
+                exception = ex;
+            }
+        }
+        throw exception;
+    }
+
+    /**
+     * Extension classes listed by {@code StaticExtensionIndex} registries
+     *
+     * @param classNames   binary names of indexed extension classes
+     * @param packageNames packages whose extension classes are all indexed
+     */
+    record ExtensionIndex(Set<String> classNames, Set<String> packageNames) {
+        static final ExtensionIndex EMPTY = new ExtensionIndex(Set.of(), Set.of());
+
+        /**
+         * Returns an index listing extension classes and packages of both indexes
+         */
+        ExtensionIndex plus(ExtensionIndex anIndex) {
+            if (anIndex == EMPTY || this == anIndex)
+                return this;
+            if (this == EMPTY)
+                return anIndex;
+
+            Set<String> resultClassNames = new HashSet<>(classNames);
+            resultClassNames.addAll(anIndex.classNames());
+            Set<String> resultPackageNames = new HashSet<>(packageNames);
+            resultPackageNames.addAll(anIndex.packageNames());
+            return new ExtensionIndex(resultClassNames, resultPackageNames);
+        }
+    }
+
+    /**
+     * Extension indexes by class loaders they are visible from; weak keys let class loaders be unloaded
+     */
+    private static final Map<ClassLoader, ExtensionIndex> EXTENSION_INDEXES = new WeakHashMap<>();
+
+    /**
+     * Returns an index of extension classes listed by {@code StaticExtensionIndex} registries visible from class
+     * loaders
+     */
+    ExtensionIndex extensionIndex(List<ClassLoader> aClassLoaders) {
+        ExtensionIndex result = ExtensionIndex.EMPTY;
+        synchronized (EXTENSION_INDEXES) {
+            for (ClassLoader classLoader : aClassLoaders)
+                result = result.plus(EXTENSION_INDEXES.computeIfAbsent(classLoader, StaticClassExtension::loadExtensionIndex));
+        }
+        return result;
+    }
+
+    static ExtensionIndex loadExtensionIndex(ClassLoader aClassLoader) {
+        Set<String> classNames = new HashSet<>();
+        Set<String> packageNames = new HashSet<>();
+        try {
+            for (StaticExtensionIndex index : ServiceLoader.load(StaticExtensionIndex.class, aClassLoader)) {
+                classNames.addAll(index.extensionClassNames());
+                packageNames.addAll(index.packageNames());
+            }
+        } catch (ServiceConfigurationError ex) {
+            Logger.getLogger(StaticClassExtension.class.getName()).log(Level.SEVERE, "Error loading static extension indexes", ex);
+        }
+
+        try {
+            Enumeration<URL> resources = aClassLoader.getResources(StaticExtensionIndexProcessor.INDEX_RESOURCE_NAME);
+            while (resources.hasMoreElements()) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(resources.nextElement().openStream(),
+                        StandardCharsets.UTF_8))) {
+                    reader.lines().map(String::strip).filter(line -> ! line.isEmpty()).forEach(line -> {
+                        if (line.startsWith(StaticExtensionIndexProcessor.PACKAGE_PREFIX))
+                            packageNames.add(line.substring(StaticExtensionIndexProcessor.PACKAGE_PREFIX.length()).strip());
+                        else
+                            classNames.add(line);
+                    });
+                }
+            }
+        } catch (IOException | UncheckedIOException ex) {
+            Logger.getLogger(StaticClassExtension.class.getName()).log(Level.SEVERE, "Error loading static extension indexes", ex);
+        }
+        return classNames.isEmpty() && packageNames.isEmpty() ?
+                ExtensionIndex.EMPTY :
+                new ExtensionIndex(Set.copyOf(classNames), Set.copyOf(packageNames));
+    }
+
+    /**
+     * Finds an extension class in a package for an object class or its superclasses. Names listed by
+     * {@code StaticExtensionIndex} registries are loaded directly, and other names in fully indexed packages are
+     * skipped; names in other packages are probed, so extension classes compiled without the index processor are
+     * found in the same order
+     */
     @SuppressWarnings({"rawtypes", "unchecked"})
-    <T> Class<T> extensionClassForObject(Object anObject, String anExtensionName, String aPackageName) {
+    <T> Class<T> extensionClassForObject(Class<?> anObjectClass, String anExtensionName, String aPackageName,
+                                         List<ClassLoader> aClassLoaders) {
+        ExtensionIndex extensionIndex = extensionIndex(aClassLoaders);
+        boolean isPackageIndexed = extensionIndex.packageNames().contains(aPackageName);
         Class<T> result = null;
-        Class current = anObject.getClass();
+        Class current = anObjectClass;
         do {
-            String extensionClassName = null;
-            try {
-                String fullClassName = current.getName();
-                int index = fullClassName.lastIndexOf(".");
-                String className = index != -1 ? fullClassName.substring(index + 1) : fullClassName;
-                extensionClassName = extensionName(aPackageName, className, anExtensionName);
-                result = (Class<T>) Class.forName(extensionClassName);
-                if (isVerbose())
-                    logger.info(MessageFormat.format("Got extension class \"{0}\" for an object of \"{1}\"",
-                            extensionClassName, anObject.getClass().getName()));
-            } catch (Exception aE) {
-                if (isVerbose())
-                    logger.info(MessageFormat.format("No extension class \"{0}\" for an object of \"{1}\"",
-                            extensionClassName, anObject.getClass().getName()));
+            String fullClassName = current.getName();
+            int index = fullClassName.lastIndexOf(".");
+            String className = index != -1 ? fullClassName.substring(index + 1) : fullClassName;
+            String extensionClassName = extensionName(aPackageName, className, anExtensionName);
+            boolean isIndexed = extensionIndex.classNames().contains(extensionClassName);
+            if (isIndexed || ! isPackageIndexed) {
+                try {
+                    result = (Class<T>) loadExtensionClass(extensionClassName, aClassLoaders);
+                    if (isVerbose())
+                        logger.info(MessageFormat.format(isIndexed ?
+                                        "Got indexed extension class \"{0}\" for an object of \"{1}\"" :
+                                        "Got extension class \"{0}\" for an object of \"{1}\"",
+                                extensionClassName, anObjectClass.getName()));
+                } catch (Exception | LinkageError aE) {
+                    if (isVerbose())
+                        logger.info(MessageFormat.format("No extension class \"{0}\" for an object of \"{1}\"",
+                                extensionClassName, anObjectClass.getName()));
+                }
             }
             current = current.getSuperclass();
         } while (current != null && result == null);
@@ -478,7 +1327,7 @@ public class StaticClassExtension extends AbstractClassExtension {
     }
 
     String extensionName(String aPackageName, String aSimpleClassName, String extensionName) {
-        return MessageFormat.format("{0}.{1}{2}", aPackageName, aSimpleClassName, extensionName);
+        return aPackageName + "." + aSimpleClassName + extensionName;
     }
 
     String extensionNames(List<String> aPackageNames, String aSimpleClassName, String extensionName) {
@@ -496,7 +1345,10 @@ public class StaticClassExtension extends AbstractClassExtension {
 
     //region Extension Packages methods
 
-    private final Map<Class<?>, List<String>> extensionPackages = new HashMap<>();
+    /**
+     * Extension packages by extension interfaces; weak keys let extension interfaces, e.g. of plugins, be unloaded
+     */
+    private final Map<Class<?>, List<String>> extensionPackages = new WeakHashMap<>();
 
     List<String> extensionPackages(Class<?> anExtensionInterface) {
         Objects.requireNonNull(anExtensionInterface);
@@ -520,6 +1372,7 @@ public class StaticClassExtension extends AbstractClassExtension {
         synchronized (extensionPackages) {
             List<String> result = extensionPackages.computeIfAbsent(anExtensionInterface, k -> new ArrayList<>());
             result.add(anExtensionPackage);
+            clearResolutions();
         }
     }
 
@@ -539,11 +1392,129 @@ public class StaticClassExtension extends AbstractClassExtension {
                 result.remove(anExtensionPackage);
                 if (result.isEmpty())
                     extensionPackages.remove(anExtensionInterface);
+                clearResolutions();
             }
         }
     }
     //endregion
 
+    //region Extension Classes Registration methods
+
+    private volatile ExtensionClassRegistry extensionClassRegistry = new ExtensionClassRegistry(Map.of());
+
+    /**
+     * Registers an extension class for objects of a class and its subclasses or, if it is an interface, for objects of
+     * classes implementing it. Registered extension classes take precedence over ones found by names, so they are
+     * resolved without composing names and loading classes by them, and they can be bound to classes from any
+     * packages. Registered classes are referenced strongly, so they should be unregistered to let their class loaders
+     * be unloaded.
+     *
+     * @param anObjectClass        object class
+     * @param anExtensionInterface extension interface
+     * @param anExtensionClass     extension class
+     */
+    public void registerExtensionClass(Class<?> anObjectClass, Class<?> anExtensionInterface, Class<?> anExtensionClass) {
+        Objects.requireNonNull(anObjectClass);
+        Objects.requireNonNull(anExtensionInterface);
+        Objects.requireNonNull(anExtensionClass);
+
+        Class<?> extensionInterface = findAnnotatedInterface(anExtensionInterface, ExtensionInterface.class);
+        checkExtensionClass(anExtensionClass, extensionInterface != null ? extensionInterface : anExtensionInterface);
+
+        synchronized (extensionPackages) {
+            extensionClassRegistry = extensionClassRegistry.with(anObjectClass, anExtensionInterface, anExtensionClass);
+            clearResolutions();
+        }
+    }
+
+    /**
+     * Unregisters an extension class registered for an object class and an extension interface
+     *
+     * @param anObjectClass        object class
+     * @param anExtensionInterface extension interface
+     */
+    public void unregisterExtensionClass(Class<?> anObjectClass, Class<?> anExtensionInterface) {
+        Objects.requireNonNull(anObjectClass);
+        Objects.requireNonNull(anExtensionInterface);
+
+        synchronized (extensionPackages) {
+            extensionClassRegistry = extensionClassRegistry.with(anObjectClass, anExtensionInterface, null);
+            clearResolutions();
+        }
+    }
+
+    /**
+     * An immutable snapshot of registered extension classes. It resolves object class hierarchies once per object
+     * class and extension interface and memoizes results.
+     */
+    private static class ExtensionClassRegistry extends ClassValue<Map<Class<?>, Optional<Class<?>>>> {
+        // extension classes by extension interfaces and then by object classes
+        private final Map<Class<?>, Map<Class<?>, Class<?>>> extensionClasses;
+
+        ExtensionClassRegistry(Map<Class<?>, Map<Class<?>, Class<?>>> anExtensionClasses) {
+            extensionClasses = anExtensionClasses;
+        }
+
+        /**
+         * Returns a copy of this registry with an extension class registered, or unregistered if it is {@code null}
+         */
+        ExtensionClassRegistry with(Class<?> anObjectClass, Class<?> anExtensionInterface, Class<?> anExtensionClass) {
+            Map<Class<?>, Map<Class<?>, Class<?>>> result = new HashMap<>(extensionClasses);
+            Map<Class<?>, Class<?>> interfaceExtensionClasses = new HashMap<>(result.getOrDefault(anExtensionInterface, Map.of()));
+            if (anExtensionClass != null)
+                interfaceExtensionClasses.put(anObjectClass, anExtensionClass);
+            else
+                interfaceExtensionClasses.remove(anObjectClass);
+
+            if (interfaceExtensionClasses.isEmpty())
+                result.remove(anExtensionInterface);
+            else
+                result.put(anExtensionInterface, Map.copyOf(interfaceExtensionClasses));
+            return new ExtensionClassRegistry(Map.copyOf(result));
+        }
+
+        @Override
+        protected Map<Class<?>, Optional<Class<?>>> computeValue(Class<?> aType) {
+            return new ConcurrentHashMap<>();
+        }
+
+        Class<?> extensionClass(Class<?> anObjectClass, Class<?> anExtensionInterface) {
+            Map<Class<?>, Class<?>> interfaceExtensionClasses = extensionClasses.get(anExtensionInterface);
+            if (interfaceExtensionClasses == null)
+                return null;
+
+            return get(anObjectClass).
+                    computeIfAbsent(anExtensionInterface, key -> Optional.ofNullable(findExtensionClass(anObjectClass, interfaceExtensionClasses))).
+                    orElse(null);
+        }
+
+        /**
+         * Finds an extension class registered for an object class, its superclasses and then its interfaces
+         */
+        private static Class<?> findExtensionClass(Class<?> anObjectClass, Map<Class<?>, Class<?>> anExtensionClasses) {
+            Deque<Class<?>> interfaces = new ArrayDeque<>();
+            for (Class<?> current = anObjectClass; current != null; current = current.getSuperclass()) {
+                Class<?> result = anExtensionClasses.get(current);
+                if (result != null)
+                    return result;
+                interfaces.addAll(Arrays.asList(current.getInterfaces()));
+            }
+
+            Set<Class<?>> visited = new HashSet<>();
+            while (! interfaces.isEmpty()) {
+                Class<?> current = interfaces.poll();
+                if (! visited.add(current))
+                    continue;
+                Class<?> result = anExtensionClasses.get(current);
+                if (result != null)
+                    return result;
+                interfaces.addAll(Arrays.asList(current.getInterfaces()));
+            }
+            return null;
+        }
+    }
+    //endregion
+
     /**
      * Returns a new instance of {@code AspectBuilder} used to build aspects for extensions
      * @return a new instance of {@code AspectBuilder}
@@ -0,0 +1,50 @@
+/*
+Copyright 2024 Gregory Ledenev (gregory.ledenev37@gmail.com)
+
+MIT License
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the “Software”), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.gl.classext;
+
+import java.util.Set;
+
+/**
+ * An index of static extension classes registered in {@code META-INF/services}. {@code StaticClassExtension} consults
+ * such indexes along with ones written at compile time by {@code StaticExtensionIndexProcessor}, so indexed extension
+ * classes are found without probing classes by names.
+ *
+ * @author Gregory Ledenev
+ */
+public interface StaticExtensionIndex {
+    /**
+     * Returns binary names of indexed extension classes
+     * @return binary names of indexed extension classes
+     */
+    Set<String> extensionClassNames();
+
+    /**
+     * Returns packages whose extension classes are all listed by this index, so other names in such packages are not
+     * probed
+     * @return names of fully indexed packages
+     */
+    default Set<String> packageNames() {
+        return Set.of();
+    }
+}
@@ -0,0 +1,150 @@
+/*
+Copyright 2024 Gregory Ledenev (gregory.ledenev37@gmail.com)
+
+MIT License
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of
+this software and associated documentation files (the “Software”), to deal in
+the Software without restriction, including without limitation the rights to
+use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+of the Software, and to permit persons to whom the Software is furnished to do
+so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.gl.classext;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * <p>An annotation processor that indexes extension classes being compiled. An extension class is a class that
+ * implements an interface annotated with {@code @ExtensionInterface} and is named as
+ * <i>[ClassName][ExtensionName]</i>. Names of extension classes are written to the
+ * {@code META-INF/com.gl.classext.static-extension-index} resource, so {@code StaticClassExtension} loads indexed
+ * extension classes without probing classes by names. Each jar gets its own copy of the resource and all of them are
+ * read, so indexes of different jars never shadow each other.</p>
+ *
+ * <p>Packages of all the compiled classes are recorded as fully indexed as well, so names of extension classes missing
+ * in such packages are not probed at all. Therefore, an index must be produced by a full compilation of its packages,
+ * and packages split between jars must be indexed in all of them.</p>
+ *
+ * <p>The processor is not registered automatically, so it must be enabled explicitly. For example, for Maven:</p>
+ * <pre><code>
+ * &lt;annotationProcessors&gt;
+ *     &lt;annotationProcessor&gt;com.gl.classext.StaticExtensionIndexProcessor&lt;/annotationProcessor&gt;
+ * &lt;/annotationProcessors&gt;
+ * </code></pre>
+ *
+ * @author Gregory Ledenev
+ */
+@SupportedAnnotationTypes("*")
+public class StaticExtensionIndexProcessor extends AbstractProcessor {
+    static final String INDEX_RESOURCE_NAME = "META-INF/com.gl.classext.static-extension-index";
+    /**
+     * Prefix of index lines listing fully indexed packages; other lines list extension classes
+     */
+    static final String PACKAGE_PREFIX = "package ";
+
+    private final Set<String> extensionClassNames = new TreeSet<>();
+    private final Set<String> packageNames = new TreeSet<>();
+    private final List<Element> originatingElements = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> anAnnotations, RoundEnvironment aRoundEnvironment) {
+        if (aRoundEnvironment.processingOver()) {
+            if (! extensionClassNames.isEmpty() || ! packageNames.isEmpty())
+                writeIndex();
+        } else {
+            for (Element element : aRoundEnvironment.getRootElements()) {
+                PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(element);
+                if (! packageElement.isUnnamed())
+                    packageNames.add(packageElement.getQualifiedName().toString());
+                collectExtensionClasses(element);
+            }
+        }
+        return false;
+    }
+
+    private void collectExtensionClasses(Element anElement) {
+        if (anElement instanceof TypeElement type) {
+            if (type.getKind() == ElementKind.CLASS || type.getKind() == ElementKind.RECORD) {
+                String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+                String className = binaryName.substring(binaryName.lastIndexOf('.') + 1);
+                if (isExtensionClass(type, className)) {
+                    extensionClassNames.add(binaryName);
+                    originatingElements.add(type);
+                }
+            }
+            for (Element element : type.getEnclosedElements())
+                collectExtensionClasses(element);
+        }
+    }
+
+    /**
+     * Checks if a class implements an extension interface and its name follows the extension class naming convention
+     */
+    private boolean isExtensionClass(TypeElement aType, String aClassName) {
+        for (TypeMirror supertype : processingEnv.getTypeUtils().directSupertypes(aType.asType())) {
+            if (processingEnv.getTypeUtils().asElement(supertype) instanceof TypeElement superElement) {
+                if (superElement.getKind() == ElementKind.INTERFACE && isExtensionInterface(superElement)) {
+                    String extensionName = superElement.getSimpleName().toString();
+                    if (aClassName.length() > extensionName.length() && aClassName.endsWith(extensionName))
+                        return true;
+                }
+                if (isExtensionClass(superElement, aClassName))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isExtensionInterface(TypeElement anInterface) {
+        for (AnnotationMirror annotation : anInterface.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().
+                    contentEquals(ExtensionInterface.class.getCanonicalName()))
+                return true;
+        }
+        return false;
+    }
+
+    private void writeIndex() {
+        // a resource rather than a source file, which would not be processed if created in the last round
+        try (Writer writer = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                INDEX_RESOURCE_NAME, originatingElements.toArray(new Element[0])).openWriter()) {
+            for (String extensionClassName : extensionClassNames)
+                writer.write(extensionClassName + "\n");
+            for (String packageName : packageNames)
+                writer.write(PACKAGE_PREFIX + packageName + "\n");
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write static extension index: " + ex.getMessage());
+        }
+    }
+}
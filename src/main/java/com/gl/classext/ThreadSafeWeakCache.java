@@ -26,21 +26,51 @@ package com.gl.classext;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
 import java.text.MessageFormat;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 /**
  * A thread-safe cache implementation that uses weak references to store values,
  * allowing them to be garbage collected when no longer referenced elsewhere.
  * The cache has a configurable maximum size and automatically cleans up stale entries.
+ * <p>
+ * Entries are kept in a {@code ConcurrentHashMap}, so reads never take a lock and writes are striped by the map
+ * itself. Instead of a strict LRU order, that would require relinking an entry on every read, the cache uses an
+ * approximate CLOCK (second chance) policy: a read just marks an entry as referenced, and eviction sweeps entries in
+ * insertion order, giving referenced entries one more round before evicting them.
+ * <p>
+ * Entries stored under a {@code WeakClassExtensionKey}, obtained via {@code weakKey(Object, Class)}, live as long as
+ * the object the key refers to: such entries hold their values strongly and are removed once the object is garbage
+ * collected. As the JVM has no ephemerons, values of such entries must not strongly reference the key's object.
+ * <p>
+ * By default, values are held weakly and the cache is bounded by the number of entries. Values can be held softly,
+ * to survive minor garbage collections, or strongly, for small sets of hot values, via {@code setValueStrength()}.
+ * The cache can also be bounded by the total weight of its values via {@code setMaxWeight()} and
+ * {@code setWeigher()}, and entries can expire after a fixed time since their creation or their last access via
+ * {@code setExpireAfterWrite()} and {@code setExpireAfterAccess()}. Expired entries are never returned and are
+ * removed on lookup or during cleanup. Expiration times are measured by a ticker, {@code System::nanoTime} unless
+ * another one is specified via {@code setTicker()}.
+ * <p>
+ * The cache collects statistics, available via {@code stats()}. Counters are {@code LongAdder}s, so recording them
+ * does not make concurrent lookups contend.
  *
  * @param <K> the type of keys maintained by this cache
  * @param <V> the type of mapped values
@@ -50,32 +80,96 @@ public class ThreadSafeWeakCache<K, V> implements Closeable {
     /**
      * The internal map storing key-value pairs with weak references
      */
-    private final LinkedHashMap<K, WeakReference<V>> cache;
+    private final ConcurrentHashMap<K, Entry<K, V>> cache;
     /**
-     * Queue for tracking garbage collected weak references
+     * CLOCK ring holding entries in insertion order; swept on eviction
      */
-    private final ReferenceQueue<V> queue;
+    private final ConcurrentLinkedQueue<Entry<K, V>> clock;
     /**
-     * Executor service for scheduling periodic cleanup tasks
+     * Number of nodes in the CLOCK ring, including ones for already removed or replaced entries
      */
-    private final ScheduledExecutorService cleanupExecutor;
+    private final AtomicInteger clockSize;
+    /**
+     * Lock allowing only one thread at a time to sweep the CLOCK ring
+     */
+    private final ReentrantLock evictionLock;
+    /**
+     * In-flight creations of missing values by their keys
+     */
+    private final ConcurrentHashMap<K, Loader<V>> loaders;
+    /**
+     * Queue for tracking garbage collected weak references, both to values and to objects weak keys refer to
+     */
+    private final ReferenceQueue<Object> queue;
+    /**
+     * Statistics counters
+     */
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expirationCount = new LongAdder();
+    private final LongAdder collectedCount = new LongAdder();
+    private final LongAdder cleanupCount = new LongAdder();
+    private final LongAdder totalCleanupTime = new LongAdder();
+    /**
+     * Periodic cleanup task registered with the shared janitor, if any
+     */
+    private ScheduledFuture<?> cleanupTask;
     /**
      * Maximum number of entries the cache can hold
      */
-    private int maxSize = 1000;
+    private volatile int maxSize = 1000;
+    /**
+     * Total weight of the entries in the cache
+     */
+    private final AtomicLong totalWeight = new AtomicLong();
+    /**
+     * Number and total weight of the entries stored under weak keys; such entries live as long as their keys, so they
+     * are never evicted and do not count toward the maximum size and weight
+     */
+    private final AtomicInteger keyBoundCount = new AtomicInteger();
+    private final AtomicLong keyBoundWeight = new AtomicLong();
+    /**
+     * Maximum total weight of the entries in the cache; {@code 0} if the cache is not bounded by weight
+     */
+    private volatile long maxWeight;
+    /**
+     * Function to compute weights of values; each value weighs {@code 1} if it is not specified
+     */
+    private volatile ToIntFunction<? super V> weigher;
+    /**
+     * Strength of references to values
+     */
+    private volatile ReferenceStrength valueStrength = ReferenceStrength.WEAK;
+    /**
+     * Time in nanoseconds an entry expires after its creation; {@code 0} if entries do not expire after creation
+     */
+    private volatile long expireAfterWriteNanos;
+    /**
+     * Time in nanoseconds an entry expires after its last access; {@code 0} if entries do not expire after access
+     */
+    private volatile long expireAfterAccessNanos;
+    /**
+     * Indicates that any expiration is specified
+     */
+    private volatile boolean expirationEnabled;
+    /**
+     * Time source for expiration, in nanoseconds
+     */
+    private volatile LongSupplier ticker = System::nanoTime;
 
     /**
      * Creates a new ThreadSafeWeakCache with default maximum size of 1000 entries.
      */
     public ThreadSafeWeakCache() {
-        this.cache = new LinkedHashMap<K, WeakReference<V>>(16, 0.75f, true) {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<K, WeakReference<V>> eldest) {
-                return size() > maxSize;
-            }
-        };
+        this.cache = new ConcurrentHashMap<>();
+        this.clock = new ConcurrentLinkedQueue<>();
+        this.clockSize = new AtomicInteger();
+        this.evictionLock = new ReentrantLock();
+        this.loaders = new ConcurrentHashMap<>();
         this.queue = new ReferenceQueue<>();
-        this.cleanupExecutor = Executors.newSingleThreadScheduledExecutor();
     }
 
     /**
@@ -90,15 +184,15 @@ public class ThreadSafeWeakCache<K, V> implements Closeable {
 
     /**
      * Sets the maximum size of the cache.
-     * @param aMaxSize new maximum size (must be >= 100)
-     * @throws IllegalArgumentException if aMaxSize is less than 100
+     * @param aMaxSize new maximum size (must be > 0)
+     * @throws IllegalArgumentException if aMaxSize is not positive
      */
-    @SuppressWarnings("unused")
     public void setMaxSize(int aMaxSize) {
-        if (aMaxSize < 100)
-            throw new IllegalArgumentException(MessageFormat.format("Invalid max cache size value: {0}. It must be >= 100", aMaxSize));
+        if (aMaxSize <= 0)
+            throw new IllegalArgumentException(MessageFormat.format("Invalid max cache size value: {0}. It must be > 0", aMaxSize));
 
         maxSize = aMaxSize;
+        evictIfNeeded();
     }
 
     /**
@@ -110,29 +204,234 @@ public class ThreadSafeWeakCache<K, V> implements Closeable {
         return maxSize;
     }
 
+    /**
+     * Sets the maximum total weight of the entries in the cache. Weights are computed by the weigher specified via
+     * {@code setWeigher()}; without it, every value weighs {@code 1}.
+     *
+     * @param aMaxWeight maximum total weight, or {@code 0} if the cache should not be bounded by weight
+     * @throws IllegalArgumentException if aMaxWeight is negative
+     */
+    public void setMaxWeight(long aMaxWeight) {
+        if (aMaxWeight < 0)
+            throw new IllegalArgumentException(MessageFormat.format("Invalid max cache weight value: {0}. It must be >= 0", aMaxWeight));
+
+        maxWeight = aMaxWeight;
+        evictIfNeeded();
+    }
+
+    /**
+     * Returns the maximum total weight of the entries in the cache.
+     * @return maximum total weight, or {@code 0} if the cache is not bounded by weight
+     */
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Sets the function to compute weights of values. A weight is computed once, when a value is put into the cache,
+     * so changing the weigher does not affect existing entries.
+     *
+     * @param aWeigher function returning a non-negative weight of a value, or {@code null} if every value should weigh
+     *                 {@code 1}
+     */
+    public void setWeigher(ToIntFunction<? super V> aWeigher) {
+        weigher = aWeigher;
+    }
+
+    /**
+     * Returns the function to compute weights of values.
+     * @return a weigher, or {@code null} if every value weighs {@code 1}
+     */
+    public ToIntFunction<? super V> getWeigher() {
+        return weigher;
+    }
+
+    /**
+     * Returns the total weight of the entries in the cache.
+     * @return total weight
+     */
+    public long getTotalWeight() {
+        return totalWeight.get();
+    }
+
+    /**
+     * Sets the strength of references to values put into the cache later on. Entries stored under weak keys always hold
+     * their values strongly.
+     *
+     * @param aValueStrength reference strength
+     */
+    public void setValueStrength(ReferenceStrength aValueStrength) {
+        valueStrength = Objects.requireNonNull(aValueStrength);
+    }
+
+    /**
+     * Returns the strength of references to values.
+     * @return reference strength
+     */
+    public ReferenceStrength getValueStrength() {
+        return valueStrength;
+    }
+
+    /**
+     * Specifies that entries should expire after a fixed time since their creation.
+     *
+     * @param aDuration time after which entries expire, or {@code null} or zero if entries should not expire after
+     *                  creation
+     */
+    public void setExpireAfterWrite(Duration aDuration) {
+        expireAfterWriteNanos = toNanos(aDuration);
+        expirationEnabled = expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0;
+    }
+
+    /**
+     * Returns the time after which entries expire since their creation.
+     * @return expiration time, or {@code null} if entries do not expire after creation
+     */
+    public Duration getExpireAfterWrite() {
+        return expireAfterWriteNanos > 0 ? Duration.ofNanos(expireAfterWriteNanos) : null;
+    }
+
+    /**
+     * Specifies that entries should expire after a fixed time since their last access.
+     *
+     * @param aDuration time after which entries expire, or {@code null} or zero if entries should not expire after
+     *                  access
+     */
+    public void setExpireAfterAccess(Duration aDuration) {
+        expireAfterAccessNanos = toNanos(aDuration);
+        expirationEnabled = expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0;
+    }
+
+    /**
+     * Returns the time after which entries expire since their last access.
+     * @return expiration time, or {@code null} if entries do not expire after access
+     */
+    public Duration getExpireAfterAccess() {
+        return expireAfterAccessNanos > 0 ? Duration.ofNanos(expireAfterAccessNanos) : null;
+    }
+
+    /**
+     * Sets the time source entry creation and access times are measured with, for expiration. Existing entries keep
+     * their times, so it should be specified before any entries are put into the cache.
+     *
+     * @param aTicker function returning the current time in nanoseconds, e.g. {@code System::nanoTime}
+     */
+    public void setTicker(LongSupplier aTicker) {
+        ticker = Objects.requireNonNull(aTicker);
+    }
+
+    /**
+     * Returns the time source entry creation and access times are measured with.
+     * @return a ticker returning the current time in nanoseconds
+     */
+    public LongSupplier getTicker() {
+        return ticker;
+    }
+
+    private static long toNanos(Duration aDuration) {
+        if (aDuration != null && aDuration.isNegative())
+            throw new IllegalArgumentException(MessageFormat.format("Invalid expiration time: {0}. It must be >= 0", aDuration));
+        return aDuration != null ? aDuration.toNanos() : 0;
+    }
+
     /**
      * Schedules periodic cleanup of stale cache entries.
-     * Cleanup will run every minute.
+     * Cleanup will run every minute. All the caches share a single daemon cleanup thread, that is started on first
+     * use, so scheduling cleanup neither creates a thread per cache nor prevents the JVM from exiting.
      */
-    public void scheduleCleanup() {
-        cleanupExecutor.scheduleAtFixedRate(this::cleanup, 1, 1, TimeUnit.MINUTES);
+    public synchronized void scheduleCleanup() {
+        if (cleanupTask == null)
+            cleanupTask = Janitor.schedule(this);
     }
 
     /**
      * Performs immediate cleanup of stale cache entries.
-     * Removes entries whose values have been garbage collected.
+     * Removes entries whose values have been garbage collected or that have expired.
      */
-    @SuppressWarnings("unchecked")
     public void cleanup() {
-        WeakReference<V> ref;
-        synchronized (cache) {
-            while ((ref = (WeakReference<V>) queue.poll()) != null) {
-                final WeakReference<V> finalRef = ref;
-                cache.entrySet().removeIf(entry -> entry.getValue() == finalRef);
-            }
+        long startTime = System.nanoTime();
+        expungeStaleEntries();
+        if (expirationEnabled)
+            expireEntries(ticker.getAsLong());
+        totalCleanupTime.add(System.nanoTime() - startTime);
+        cleanupCount.increment();
+    }
+
+    /**
+     * Removes entries whose values or weak keys have been garbage collected. Each collected reference carries its own
+     * key, so every entry is removed directly, without scanning the cache. Like in {@code WeakHashMap}, it is called on
+     * every write, so stale entries are reclaimed even if no periodic cleanup is scheduled.
+     */
+    @SuppressWarnings("unchecked")
+    private void expungeStaleEntries() {
+        Reference<?> reference;
+        while ((reference = queue.poll()) != null) {
+            boolean removed;
+            if (reference instanceof Entry<?, ?> entry)
+                removed = removeEntry((Entry<K, V>) entry);
+            else if (reference instanceof SoftValue<?> value)
+                removed = removeEntry((Entry<K, V>) value.entry);
+            else
+                removed = removeEntry(cache.get(reference)); // a collected weak key
+            if (removed)
+                collectedCount.increment();
         }
     }
 
+    /**
+     * Removes all the expired entries.
+     */
+    private void expireEntries(long aNow) {
+        for (Entry<K, V> entry : cache.values()) {
+            if (isExpired(entry, aNow) && removeEntry(entry))
+                expirationCount.increment();
+        }
+    }
+
+    private boolean isExpired(Entry<K, V> anEntry, long aNow) {
+        long expireAfterWrite = expireAfterWriteNanos;
+        long expireAfterAccess = expireAfterAccessNanos;
+        return (expireAfterWrite > 0 && aNow - anEntry.writeTime >= expireAfterWrite) ||
+                (expireAfterAccess > 0 && aNow - anEntry.accessTime >= expireAfterAccess);
+    }
+
+    /**
+     * Removes an entry if it is still mapped to its key, keeping the total weight of the entries.
+     */
+    private boolean removeEntry(Entry<K, V> anEntry) {
+        if (anEntry != null && cache.remove(anEntry.key, anEntry)) {
+            addEntry(anEntry, -1);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Adds an entry to or, if {@code aSign} is negative, subtracts it from the total weight and number of entries
+     * bound to their keys
+     */
+    private void addEntry(Entry<K, V> anEntry, int aSign) {
+        totalWeight.addAndGet(aSign * anEntry.weight);
+        if (anEntry.isKeyBound()) {
+            keyBoundCount.addAndGet(aSign);
+            keyBoundWeight.addAndGet(aSign * anEntry.weight);
+        }
+    }
+
+    /**
+     * Creates a weak key for an object and an extension interface. An entry stored under such a key lives as long
+     * as the object does and holds its value strongly, so the value must not strongly reference the object. Such
+     * entries are never evicted and do not count toward the maximum size and weight of the cache. Use
+     * {@code IdentityClassExtensionKey} to look such entries up.
+     *
+     * @param anObject             the object for which extension is requested
+     * @param anExtensionInterface the interface of the requested extension
+     * @return a weak key
+     */
+    public WeakClassExtensionKey weakKey(Object anObject, Class<?> anExtensionInterface) {
+        return new WeakClassExtensionKey(anObject, anExtensionInterface, queue);
+    }
+
     /**
      * Associates the specified value with the specified key in this cache.
      *
@@ -140,23 +439,104 @@ public class ThreadSafeWeakCache<K, V> implements Closeable {
      * @param value value to be associated with the specified key
      */
     public void put(K key, V value) {
-        synchronized (cache) {
-            cache.put(key, new WeakReference<>(value, queue));
+        put(key, value, null);
+    }
+
+    private void put(K key, V value, ReferenceStrength aValueStrength) {
+        expungeStaleEntries();
+
+        Entry<K, V> entry = newEntry(key, value, aValueStrength != null ? aValueStrength : valueStrength);
+        Entry<K, V> oldEntry = cache.put(key, entry);
+        if (oldEntry != null)
+            addEntry(oldEntry, -1);
+        addEntry(entry, 1);
+        if (! entry.isKeyBound()) {
+            clock.offer(entry);
+            clockSize.incrementAndGet();
         }
+        evictIfNeeded();
+    }
+
+    private Entry<K, V> newEntry(K key, V value, ReferenceStrength aValueStrength) {
+        ToIntFunction<? super V> currentWeigher = weigher;
+        int weight = currentWeigher != null ? currentWeigher.applyAsInt(value) : 1;
+        if (weight < 0)
+            throw new IllegalArgumentException(MessageFormat.format("Invalid weight: {0}. It must be >= 0", weight));
+
+        long time = ticker.getAsLong();
+        if (key instanceof WeakClassExtensionKey)
+            return new StrongEntry<>(key, value, weight, time);
+
+        return switch (aValueStrength) {
+            case WEAK -> new Entry<>(key, value, queue, weight, time);
+            case SOFT -> new SoftEntry<>(key, value, queue, weight, time);
+            case STRONG -> new StrongEntry<>(key, value, weight, time);
+        };
     }
 
     /**
      * Returns the value associated with the specified key, or null if either
-     * the key is not present or the value has been garbage collected.
+     * the key is not present, the value has been garbage collected or the entry has expired.
      *
      * @param key the key whose associated value is to be returned
      * @return the value associated with the specified key, or null if not found
      */
     public V get(K key) {
-        synchronized (cache) {
-            WeakReference<V> ref = cache.get(key);
-            return (ref != null) ? ref.get() : null;
+        V result = lookup(key);
+        if (result != null)
+            hitCount.increment();
+        else
+            missCount.increment();
+        return result;
+    }
+
+    /**
+     * Returns the value associated with an identity key, either {@code IdentityClassExtensionKey} or
+     * {@code WeakClassExtensionKey}, for an object and an extension interface. Unlike {@code get()} with a new
+     * {@code IdentityClassExtensionKey}, it allocates nothing, as it looks the entry up with a reusable per-thread key.
+     *
+     * @param anObject             the object for which extension is requested
+     * @param anExtensionInterface the interface of the requested extension
+     * @return the value associated with the key, or null if not found
+     */
+    @SuppressWarnings("unchecked")
+    public V getByIdentity(Object anObject, Class<?> anExtensionInterface) {
+        IdentityProbe probe = IDENTITY_PROBES.get();
+        probe.set(anObject, anExtensionInterface);
+        try {
+            return get((K) probe);
+        } finally {
+            probe.set(null, null);
+        }
+    }
+
+    /**
+     * Returns the value associated with the specified key without recording a hit or a miss.
+     */
+    private V lookup(K key) {
+        Entry<K, V> entry = cache.get(key);
+        if (entry == null)
+            return null;
+
+        V result = entry.get();
+        if (result == null)
+            return null;
+
+        if (expirationEnabled) {
+            long now = ticker.getAsLong();
+            if (isExpired(entry, now)) {
+                if (removeEntry(entry))
+                    expirationCount.increment();
+                return null;
+            }
+            if (expireAfterAccessNanos > 0)
+                entry.accessTime = now;
         }
+
+        // avoid writing to a shared cache line if the entry is already marked
+        if (! entry.referenced)
+            entry.referenced = true;
+        return result;
     }
 
     /**
@@ -168,44 +548,165 @@ public class ThreadSafeWeakCache<K, V> implements Closeable {
      * @return the current (existing or computed) value associated with the key
      */
     public V getOrCreate(K key, Supplier<V> aSupplier) {
+        return getOrCreate(key, () -> key, aSupplier);
+    }
+
+    /**
+     * Returns the value associated with the key if present, otherwise creates it using the supplied function and
+     * associates it with a key provided by {@code aStoredKey}. It allows looking up entries stored under weak keys.
+     * <p>
+     * Values are created without holding any cache-wide lock: concurrent requests for a missing key wait for a single
+     * in-flight creation, while missing values for different keys are created in parallel. So a supplier must not wait
+     * for other threads creating values of the same cache.
+     *
+     * @param key        key to look up a value for
+     * @param aStoredKey function to provide a key, equal to {@code key}, a new value should be stored under
+     * @param aSupplier  function to create new value if not present
+     * @return the current (existing or computed) value associated with the key
+     */
+    public V getOrCreate(K key, Supplier<? extends K> aStoredKey, Supplier<V> aSupplier) {
+        return getOrCreate(key, aStoredKey, aSupplier, null);
+    }
+
+    /**
+     * Returns the value associated with the key if present, otherwise creates it using the supplied function and
+     * associates it with a key provided by {@code aStoredKey}, holding it with a specified reference strength.
+     *
+     * @param key            key to look up a value for
+     * @param aStoredKey     function to provide a key, equal to {@code key}, a new value should be stored under
+     * @param aSupplier      function to create new value if not present
+     * @param aValueStrength strength of a reference to a new value, or {@code null} to use the cache value strength
+     * @return the current (existing or computed) value associated with the key
+     */
+    public V getOrCreate(K key, Supplier<? extends K> aStoredKey, Supplier<V> aSupplier, ReferenceStrength aValueStrength) {
         V result = get(key);
-        if (result == null) {
-            synchronized (cache) {
-                result = get(key);
-                if (result == null) {
-                    result = aSupplier.get();
-                    put(key, result);
-                }
+        return result != null ? result : createMissing(key, aStoredKey, aSupplier, aValueStrength);
+    }
+
+    /**
+     * Creates a value for a key a lookup has just missed, unless another thread has already created it, and associates
+     * it with a key provided by {@code aStoredKey}. Unlike {@code getOrCreate()}, it does not record a lookup, so a
+     * caller can look a value up via {@code get()} or {@code getByIdentity()} first, without allocating a supplier on
+     * a hit.
+     *
+     * @param key            key to look up a value for
+     * @param aStoredKey     function to provide a key, equal to {@code key}, a new value should be stored under
+     * @param aSupplier      function to create new value if not present
+     * @param aValueStrength strength of a reference to a new value, or {@code null} to use the cache value strength
+     * @return the current (existing or computed) value associated with the key
+     */
+    public V createMissing(K key, Supplier<? extends K> aStoredKey, Supplier<V> aSupplier, ReferenceStrength aValueStrength) {
+        V result = null;
+
+        expungeStaleEntries();
+
+        Loader<V> loader = new Loader<>();
+        Loader<V> inFlight;
+        while ((inFlight = loaders.putIfAbsent(key, loader)) != null) {
+            // the same thread asks for the value it is creating, directly or via other threads waiting for values this
+            // thread is creating; create it directly rather than wait forever
+            Thread currentThread = Thread.currentThread();
+            WAITING_LOADERS.put(currentThread, inFlight);
+            try {
+                if (isWaitingFor(inFlight, currentThread))
+                    return load(aSupplier);
+
+                // a value is null if its creation failed; then try to create it in this thread
+                result = inFlight.join();
+            } finally {
+                WAITING_LOADERS.remove(currentThread);
             }
+            if (result == null)
+                result = lookup(key);
+            if (result != null)
+                return result;
+        }
+
+        try {
+            result = lookup(key);
+            if (result == null) {
+                result = load(aSupplier);
+                put(aStoredKey.get(), result, aValueStrength);
+            }
+        } finally {
+            loaders.remove(key, loader);
+            loader.complete(result);
         }
         return result;
     }
 
+    /**
+     * Creates a missing value, recording the load count and time.
+     */
+    private V load(Supplier<V> aSupplier) {
+        long startTime = System.nanoTime();
+        V result = aSupplier.get();
+        totalLoadTime.add(System.nanoTime() - startTime);
+        loadCount.increment();
+        return result;
+    }
+
     /**
      * Removes the entry for the specified key if present.
      *
      * @param key key whose mapping is to be removed from the cache
      */
     public void remove(K key) {
-        synchronized (cache) {
-            cache.remove(key);
-        }
+        removeEntry(cache.get(key));
     }
 
     /**
      * Removes all entries from this cache.
      */
     public void clear() {
-        synchronized (cache) {
+        evictionLock.lock();
+        try {
             cache.clear();
+            clock.clear();
+            clockSize.set(0);
+            totalWeight.set(0);
+            keyBoundCount.set(0);
+            keyBoundWeight.set(0);
+        } finally {
+            evictionLock.unlock();
         }
     }
 
     /**
-     * Shuts down the cleanup executor service.
+     * Returns a snapshot of this cache statistics. Counters are read one by one, so the snapshot is not atomic under
+     * concurrent access.
+     *
+     * @return cache statistics
+     */
+    public Stats stats() {
+        return new Stats(hitCount.sum(), missCount.sum(), loadCount.sum(), totalLoadTime.sum(),
+                evictionCount.sum(), expirationCount.sum(), collectedCount.sum(), cache.size(), totalWeight.get(),
+                cleanupCount.sum(), totalCleanupTime.sum());
+    }
+
+    /**
+     * Resets this cache statistics counters.
      */
-    public void shutdownCleanup() {
-        cleanupExecutor.shutdown();
+    public void resetStats() {
+        hitCount.reset();
+        missCount.reset();
+        loadCount.reset();
+        totalLoadTime.reset();
+        evictionCount.reset();
+        expirationCount.reset();
+        collectedCount.reset();
+        cleanupCount.reset();
+        totalCleanupTime.reset();
+    }
+
+    /**
+     * Cancels periodic cleanup of stale cache entries, if it was scheduled.
+     */
+    public synchronized void shutdownCleanup() {
+        if (cleanupTask != null) {
+            cleanupTask.cancel(false);
+            cleanupTask = null;
+        }
     }
 
     /**
@@ -225,6 +726,301 @@ public class ThreadSafeWeakCache<K, V> implements Closeable {
         shutdownCleanup();
     }
 
+    /**
+     * Evicts entries using the CLOCK policy while the cache exceeds its maximum size or weight. If another thread is already
+     * evicting, this method returns immediately and leaves eviction to that thread, which checks the size again after
+     * releasing the lock, so the size bound is approximate under concurrent writes.
+     */
+    private void evictIfNeeded() {
+        while (isEvictionNeeded() && evictionLock.tryLock()) {
+            try {
+                evict();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Checks if the cache exceeds its maximum size or the CLOCK ring holds too many nodes of removed entries.
+     */
+    private boolean isEvictionNeeded() {
+        return isOverflown() || clockSize.get() > 2 * maxSize;
+    }
+
+    /**
+     * Checks if the entries that can be evicted exceed the maximum size or weight.
+     */
+    private boolean isOverflown() {
+        long max = maxWeight;
+        int size = cache.size() - keyBoundCount.get();
+        return size > maxSize || (max > 0 && totalWeight.get() - keyBoundWeight.get() > max && size > 0);
+    }
+
+    /**
+     * Sweeps the CLOCK ring until the cache fits the maximum size and weight. Must be called under the eviction lock.
+     */
+    private void evict() {
+        purgeClock(maxSize);
+
+        // entries may be referenced again by concurrent readers, so second chances are limited to one round
+        int secondChances = clockSize.get();
+        while (isOverflown()) {
+            Entry<K, V> entry = clock.poll();
+            if (entry == null) {
+                // entries inserted concurrently with clear() may miss the ring; put them back
+                for (Entry<K, V> value : cache.values())
+                    if (! value.isKeyBound())
+                        clock.offer(value);
+                clockSize.set(clock.size());
+                if (clock.isEmpty())
+                    break; // counters are updated concurrently; nothing can be evicted anyway
+                continue;
+            }
+            clockSize.decrementAndGet();
+
+            if (cache.get(entry.key) != entry)
+                continue; // already removed or replaced
+
+            if (entry.referenced && secondChances-- > 0) {
+                entry.referenced = false;
+                clock.offer(entry);
+                clockSize.incrementAndGet();
+            } else {
+                if (removeEntry(entry))
+                    evictionCount.increment();
+            }
+        }
+    }
+
+    /**
+     * Drops ring nodes of removed or replaced entries once they outnumber live ones.
+     */
+    private void purgeClock(int aMaxSize) {
+        if (clockSize.get() > 2 * Math.max(aMaxSize, cache.size())) {
+            clock.removeIf(entry -> cache.get(entry.key) != entry);
+            clockSize.set(clock.size());
+        }
+    }
+
+    /**
+     * An in-flight creation of a missing value, completed with the value or with {@code null} if creation failed
+     */
+    private static final class Loader<V> extends CompletableFuture<V> {
+        final Thread owner = Thread.currentThread();
+    }
+
+    /**
+     * Loaders threads wait for, shared by all the caches as creations of values may depend on values of other caches
+     */
+    private static final ConcurrentHashMap<Thread, Loader<?>> WAITING_LOADERS = new ConcurrentHashMap<>();
+
+    /**
+     * Checks if a loader is completed only after a thread stops waiting, i.e. the thread owns the loader or owns a
+     * loader the owner of the loader waits for, and so on. Threads register their waits before checking, so of threads
+     * waiting for each other at least one detects it.
+     */
+    private static boolean isWaitingFor(Loader<?> aLoader, Thread aThread) {
+        Loader<?> loader = aLoader;
+        // a bound guards against chains changing while being followed
+        for (int i = 0; loader != null && i <= WAITING_LOADERS.size(); i++) {
+            if (loader.owner == aThread)
+                return true;
+            loader = WAITING_LOADERS.get(loader.owner);
+        }
+        return false;
+    }
+
+    /**
+     * Shared janitor running periodic cleanup for all the caches on a single lazily started daemon thread. Caches are
+     * referenced weakly, so a registered cache that is no longer used is not retained and its task cancels itself.
+     */
+    private static final class Janitor implements Runnable {
+        private static final ScheduledThreadPoolExecutor EXECUTOR = createExecutor();
+
+        private final WeakReference<ThreadSafeWeakCache<?, ?>> cache;
+        private volatile ScheduledFuture<?> future;
+
+        private Janitor(ThreadSafeWeakCache<?, ?> aCache) {
+            cache = new WeakReference<>(aCache);
+        }
+
+        static ScheduledFuture<?> schedule(ThreadSafeWeakCache<?, ?> aCache) {
+            Janitor janitor = new Janitor(aCache);
+            janitor.future = EXECUTOR.scheduleAtFixedRate(janitor, 1, 1, TimeUnit.MINUTES);
+            return janitor.future;
+        }
+
+        @Override
+        public void run() {
+            ThreadSafeWeakCache<?, ?> target = cache.get();
+            if (target != null)
+                target.cleanup();
+            else if (future != null)
+                future.cancel(false);
+        }
+
+        private static ScheduledThreadPoolExecutor createExecutor() {
+            ScheduledThreadPoolExecutor result = new ScheduledThreadPoolExecutor(1, aRunnable -> {
+                Thread thread = new Thread(aRunnable, "ThreadSafeWeakCache-cleanup");
+                thread.setDaemon(true);
+                return thread;
+            });
+            result.setRemoveOnCancelPolicy(true);
+            return result;
+        }
+    }
+
+    /**
+     * Enum representing the strength of references a cache holds its values with
+     */
+    public enum ReferenceStrength {
+        /**
+         * Values are held weakly and released as soon as they are not used anymore
+         */
+        WEAK,
+        /**
+         * Values are held softly and released only if the JVM runs low on memory, so they survive minor garbage
+         * collections
+         */
+        SOFT,
+        /**
+         * Values are held strongly and released only when evicted, expired or removed
+         */
+        STRONG,
+    }
+
+    /**
+     * A cache entry: a weak reference to a value that also keeps its key, so it can be removed in O(1) once the value
+     * is collected, its weight, creation and last access times and a CLOCK "referenced" mark.
+     */
+    private static class Entry<K, V> extends WeakReference<V> {
+        final K key;
+        final int weight;
+        final long writeTime;
+        volatile long accessTime;
+        volatile boolean referenced;
+
+        Entry(K aKey, V aValue, ReferenceQueue<? super V> aQueue, int aWeight, long aTime) {
+            super(aValue, aQueue);
+            key = aKey;
+            weight = aWeight;
+            writeTime = aTime;
+            accessTime = writeTime;
+        }
+
+        /**
+         * Checks if an entry lives as long as its weak key, so it is never evicted
+         */
+        boolean isKeyBound() {
+            return key instanceof WeakClassExtensionKey;
+        }
+    }
+
+    /**
+     * A cache entry holding its value strongly. It is used for strong values and for weak keys, in which case its
+     * lifetime is governed by the key.
+     */
+    private static final class StrongEntry<K, V> extends Entry<K, V> {
+        private final V value;
+
+        StrongEntry(K aKey, V aValue, int aWeight, long aTime) {
+            super(aKey, null, null, aWeight, aTime);
+            value = aValue;
+        }
+
+        @Override
+        public V get() {
+            return value;
+        }
+    }
+
+    /**
+     * A cache entry holding its value softly
+     */
+    private static final class SoftEntry<K, V> extends Entry<K, V> {
+        private final SoftValue<V> value;
+
+        SoftEntry(K aKey, V aValue, ReferenceQueue<Object> aQueue, int aWeight, long aTime) {
+            super(aKey, null, null, aWeight, aTime);
+            value = new SoftValue<>(aValue, aQueue, this);
+        }
+
+        @Override
+        public V get() {
+            return value.get();
+        }
+    }
+
+    /**
+     * A soft reference to a value that keeps its entry, so the entry can be removed once the value is collected
+     */
+    private static final class SoftValue<V> extends SoftReference<V> {
+        final Entry<?, V> entry;
+
+        SoftValue(V aValue, ReferenceQueue<Object> aQueue, Entry<?, V> anEntry) {
+            super(aValue, aQueue);
+            entry = anEntry;
+        }
+    }
+
+    /**
+     * A record representing a snapshot of cache statistics.
+     *
+     * @param hitCount         number of lookups that found a cached value
+     * @param missCount        number of lookups that found no cached value
+     * @param loadCount        number of values created by {@code getOrCreate()}
+     * @param totalLoadTime    total time spent creating values, in nanoseconds
+     * @param evictionCount    number of entries evicted because the cache exceeded its maximum size or weight
+     * @param expirationCount  number of entries removed because they expired
+     * @param collectedCount   number of entries removed because their values or weak keys were garbage collected
+     * @param size             number of entries in the cache, including ones not expunged yet
+     * @param weight           total weight of the entries in the cache
+     * @param cleanupCount     number of cleanup passes
+     * @param totalCleanupTime total time spent in cleanup passes, in nanoseconds
+     */
+    public record Stats(long hitCount, long missCount, long loadCount, long totalLoadTime, long evictionCount,
+                        long expirationCount, long collectedCount, long size, long weight, long cleanupCount,
+                        long totalCleanupTime) {
+        /**
+         * Statistics of an empty cache that was never used
+         */
+        public static final Stats EMPTY = new Stats(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+        /**
+         * Returns statistics combining this statistics with another one, e.g. to sum up statistics of several caches.
+         *
+         * @param aStats statistics to add
+         * @return combined statistics
+         */
+        public Stats plus(Stats aStats) {
+            return new Stats(hitCount + aStats.hitCount, missCount + aStats.missCount, loadCount + aStats.loadCount,
+                    totalLoadTime + aStats.totalLoadTime, evictionCount + aStats.evictionCount,
+                    expirationCount + aStats.expirationCount, collectedCount + aStats.collectedCount,
+                    size + aStats.size, weight + aStats.weight, cleanupCount + aStats.cleanupCount,
+                    totalCleanupTime + aStats.totalCleanupTime);
+        }
+
+        /**
+         * Returns the ratio of lookups that found a cached value, or {@code 1.0} if there were no lookups.
+         *
+         * @return hit rate in the range {@code [0.0, 1.0]}
+         */
+        public double hitRate() {
+            long requestCount = hitCount + missCount;
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+        }
+
+        /**
+         * Returns the average time spent creating a value, in nanoseconds.
+         *
+         * @return average load time, or {@code 0.0} if no values were created
+         */
+        public double averageLoadTime() {
+            return loadCount == 0 ? 0.0 : (double) totalLoadTime / loadCount;
+        }
+    }
+
     /**
      * A record representing a key for class extension lookup.
      *
@@ -233,4 +1029,124 @@ public class ThreadSafeWeakCache<K, V> implements Closeable {
      */
     public record ClassExtensionKey(Object object, Class<?> extensionInterface) {
     }
+
+    /**
+     * A record representing a key for class extension lookup by object identity. It uses
+     * {@code System.identityHashCode()} and reference equality, so objects' own {@code hashCode()} and
+     * {@code equals()} are never called.
+     *
+     * @param object             the object for which extension is requested
+     * @param extensionInterface the interface of the requested extension
+     * @param hash               precomputed hash code
+     */
+    public record IdentityClassExtensionKey(Object object, Class<?> extensionInterface, int hash) {
+        /**
+         * Creates a key for an object and an extension interface
+         *
+         * @param object             the object for which extension is requested
+         * @param extensionInterface the interface of the requested extension
+         */
+        public IdentityClassExtensionKey(Object object, Class<?> extensionInterface) {
+            this(object, extensionInterface, identityHash(object, extensionInterface));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o instanceof IdentityClassExtensionKey key)
+                return hash == key.hash && object == key.object && extensionInterface == key.extensionInterface;
+            if (o instanceof WeakClassExtensionKey key)
+                return key.equals(this);
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static int identityHash(Object anObject, Class<?> anExtensionInterface) {
+        return 31 * System.identityHashCode(anObject) + System.identityHashCode(anExtensionInterface);
+    }
+
+    /**
+     * Reusable per-thread keys to look up entries stored under identity keys without allocating new keys
+     */
+    private static final ThreadLocal<IdentityProbe> IDENTITY_PROBES = ThreadLocal.withInitial(IdentityProbe::new);
+
+    /**
+     * A mutable key used only to look up entries stored under {@code IdentityClassExtensionKey} or
+     * {@code WeakClassExtensionKey}; it is equal to them for the same object and extension interface
+     */
+    private static final class IdentityProbe {
+        private Object object;
+        private Class<?> extensionInterface;
+        private int hash;
+
+        void set(Object anObject, Class<?> anExtensionInterface) {
+            object = anObject;
+            extensionInterface = anExtensionInterface;
+            hash = identityHash(anObject, anExtensionInterface);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o instanceof IdentityClassExtensionKey key)
+                return hash == key.hash() && object == key.object() && extensionInterface == key.extensionInterface();
+            if (o instanceof WeakClassExtensionKey key)
+                return hash == key.hash && object != null && key.refersTo(object) && extensionInterface == key.extensionInterface;
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * A key for class extension lookup that refers to an object weakly and compares it by identity. It is equal to an
+     * {@code IdentityClassExtensionKey} for the same object and extension interface, so entries stored under weak keys
+     * can be looked up without creating weak references.
+     */
+    public static final class WeakClassExtensionKey extends WeakReference<Object> {
+        private final Class<?> extensionInterface;
+        private final int hash;
+
+        WeakClassExtensionKey(Object anObject, Class<?> anExtensionInterface, ReferenceQueue<Object> aQueue) {
+            super(anObject, aQueue);
+            extensionInterface = anExtensionInterface;
+            hash = identityHash(anObject, anExtensionInterface);
+        }
+
+        /**
+         * Returns the interface of the requested extension
+         * @return the interface of the requested extension
+         */
+        public Class<?> extensionInterface() {
+            return extensionInterface;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+
+            Object object = get();
+            if (object == null)
+                return false; // a collected key is equal to itself only
+            if (o instanceof IdentityClassExtensionKey key)
+                return hash == key.hash() && object == key.object() && extensionInterface == key.extensionInterface();
+            if (o instanceof WeakClassExtensionKey key)
+                return hash == key.hash && object == key.get() && extensionInterface == key.extensionInterface;
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
@@ -0,0 +1,57 @@
+package com.gl.classext;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Assertions on memory allocated by operations. Allocation-free code paths rely on escape analysis of the JIT
+ * compiler, so the assertions are skipped if thread allocation counters are unsupported, code is interpreted only or
+ * agents, e.g. coverage ones, instrument it.
+ */
+final class AllocationAssertions {
+    private static final int ITERATIONS = 100_000;
+
+    /**
+     * Less than the smallest object, so exceeded by an allocation per call but not by occasional allocations
+     */
+    private static final long MAX_BYTES_PER_CALL = 8;
+
+    private AllocationAssertions() {
+    }
+
+    /**
+     * Asserts that an operation allocates no objects per call once it is warmed up
+     *
+     * @param aMessage   message to report a failure with
+     * @param anOperation operation to call; it gets an iteration number
+     */
+    static void assertAllocationFree(String aMessage, IntConsumer anOperation) {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean &&
+                threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled(),
+                "Thread allocation counters are not supported");
+        assumeTrue(isCompiled(), "Code is not compiled by a JIT compiler");
+        assumeTrue(ManagementFactory.getRuntimeMXBean().getInputArguments().stream().
+                noneMatch(argument -> argument.startsWith("-javaagent") || argument.startsWith("-agentpath")),
+                "Code is instrumented by agents");
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < ITERATIONS; i++) // warm up
+            anOperation.accept(i);
+
+        long startBytes = threadMXBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++)
+            anOperation.accept(i);
+        long bytesPerCall = (threadMXBean.getCurrentThreadAllocatedBytes() - startBytes) / ITERATIONS;
+
+        assertTrue(bytesPerCall < MAX_BYTES_PER_CALL, aMessage + ": " + bytesPerCall);
+    }
+
+    private static boolean isCompiled() {
+        CompilationMXBean compilationMXBean = ManagementFactory.getCompilationMXBean();
+        return compilationMXBean != null && ! System.getProperty("java.vm.info", "").contains("interpreted");
+    }
+}
@@ -1,7 +1,6 @@
 package com.gl.classext;
 
 
-import com.gl.classext.ThreadSafeWeakCache.ClassExtensionKey;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Method;
@@ -332,6 +331,26 @@ public class DynamicClassExtensionTest {
                      }""", string);
     }
 
+    @Test
+    void toStringArityLikeSuffixTest() {
+        DynamicClassExtension dynamicClassExtension = new DynamicClassExtension().builder(Item_Shippable.class).
+                operationName("getQuad").
+                    operation(Book.class, Book::getName).
+                operationName("get").
+                    operation(Book.class, (Book book, Object a, Object b, Object c) -> book.getName()).
+                build();
+        assertEquals(2, dynamicClassExtension.operationsSnapshot().size());
+        assertEquals("""
+                     interface com.gl.classext.DynamicClassExtensionTest$Item_Shippable {
+                         get {
+                             com.gl.classext.DynamicClassExtensionTest$Book -> T get(T, T, T)
+                         }
+                         getQuad {
+                             com.gl.classext.DynamicClassExtensionTest$Book -> T getQuad()
+                         }
+                     }""", dynamicClassExtension.toString(true));
+    }
+
     @Test
     void toStringGroupedByObjectClassTest() {
         StringBuilder shippingLog = new StringBuilder();
@@ -438,6 +457,52 @@ public class DynamicClassExtensionTest {
         }
     }
 
+    @Test
+    void resolvedOperationsInvalidationTest() {
+        DynamicClassExtension dynamicClassExtension = setupDynamicClassExtension(new StringBuilder());
+        Book book = new Book("The Mythical Man-Month");
+        Item_Shippable extension = dynamicClassExtension.extension(book, Item_Shippable.class);
+
+        assertEquals("The Mythical Man-Month book shipped", extension.ship().result());
+        assertEquals("The Mythical Man-Month book shipped", extension.ship().result());
+
+        // an operation of a superclass must be used after removal
+        dynamicClassExtension.builder(Item_Shippable.class).
+                operationName("ship").
+                removeOperation(Book.class, null);
+        assertEquals("The Mythical Man-Month item NOT shipped", extension.ship().result());
+
+        // a newly added operation must be used instead of a superclass one
+        dynamicClassExtension.builder(Item_Shippable.class).
+                operationName("ship").
+                operation(Book.class, aBook -> new ShippingInfo(aBook.getName() + " book shipped again"));
+        assertEquals("The Mythical Man-Month book shipped again", extension.ship().result());
+
+        // falling back to a delegate method must be reconsidered after adding an operation
+        assertEquals("The Mythical Man-Month", extension.getName());
+        dynamicClassExtension.builder(Item_Shippable.class).
+                operationName("getName").
+                operation(Book.class, aBook -> aBook.getName() + "[OVERRIDDEN]");
+        assertEquals("The Mythical Man-Month[OVERRIDDEN]", extension.getName());
+
+        dynamicClassExtension.clear();
+        assertEquals("The Mythical Man-Month", extension.getName());
+    }
+
+    @Test
+    void operationsSnapshotTest() {
+        DynamicClassExtension dynamicClassExtension = setupDynamicClassExtension(new StringBuilder());
+        Map<DynamicClassExtension.OperationKey, DynamicClassExtension.PerformerHolder<?>> operations =
+                dynamicClassExtension.operationsSnapshot();
+
+        DynamicClassExtension.OperationKey key = new DynamicClassExtension.OperationKey(Book.class, Item_Shippable.class, "ship");
+        DynamicClassExtension.PerformerHolder<?> operation = operations.get(key);
+        assertNotNull(operation);
+        assertEquals(key.toString(), operation.getOperationKey());
+        assertNotNull(operations.get(new DynamicClassExtension.OperationKey(Item.class, Item_Shippable.class, "logBi")));
+        assertThrows(UnsupportedOperationException.class, () -> operations.remove(key));
+    }
+
     @Test
     void noOperationNameTest() {
         try {
@@ -686,6 +751,186 @@ public class DynamicClassExtensionTest {
     interface NonCachedItem_Shippable extends Item_Shippable {
     }
 
+    @ExtensionInterface(cachePolicy = CachePolicy.IDENTITY)
+    interface IdentityCachedItem_Shippable extends Item_Shippable {
+    }
+
+    /**
+     * Test for extension cached per object identity
+     */
+    @Test
+    void cacheByIdentityTest() {
+        DynamicClassExtension dynamicClassExtension = setupDynamicClassExtension(new StringBuilder());
+        Book book = new Book("The Mythical Man-Month");
+
+        // identity policy enables cache even if it is turned OFF globally
+        dynamicClassExtension.setCacheEnabled(false);
+        try {
+            Item_Shippable extension = dynamicClassExtension.extension(book, IdentityCachedItem_Shippable.class);
+            assertSame(extension, dynamicClassExtension.extension(book, IdentityCachedItem_Shippable.class));
+            assertEquals("The Mythical Man-Month book shipped", extension.ship().result());
+        } finally {
+            dynamicClassExtension.setCacheEnabled(true);
+        }
+    }
+
+    @Test
+    void cacheStatsTest() {
+        DynamicClassExtension dynamicClassExtension = setupDynamicClassExtension(new StringBuilder());
+        Book book = new Book("The Mythical Man-Month");
+
+        Item_Shippable extension = dynamicClassExtension.extension(book, Item_Shippable.class);
+        assertSame(extension, dynamicClassExtension.extension(book, Item_Shippable.class));
+
+        ThreadSafeWeakCache.Stats stats = dynamicClassExtension.cacheStats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(1, stats.loadCount());
+        assertEquals(1, stats.size());
+
+        dynamicClassExtension.cacheResetStats();
+        assertEquals(0, dynamicClassExtension.cacheStats().hitCount());
+    }
+
+    @ExtensionInterface(cacheSize = 10)
+    interface HighChurnItem_Shippable extends Item_Shippable {
+    }
+
+    @Test
+    void cachePartitionsTest() {
+        DynamicClassExtension dynamicClassExtension = setupDynamicClassExtension(new StringBuilder());
+        Book book = new Book("The Mythical Man-Month");
+        Item_Shippable extension = dynamicClassExtension.extension(book, Item_Shippable.class);
+
+        List<Item_Shippable> churnExtensions = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            churnExtensions.add(dynamicClassExtension.extension(new Book("Book " + i), HighChurnItem_Shippable.class));
+
+        // a high-churn interface evicts only its own extensions
+        assertSame(extension, dynamicClassExtension.extension(book, Item_Shippable.class));
+        assertEquals(1, dynamicClassExtension.cacheStats(Item_Shippable.class).hitCount());
+        assertEquals(0, dynamicClassExtension.cacheStats(Item_Shippable.class).evictionCount());
+        assertEquals(10, dynamicClassExtension.cacheStats(HighChurnItem_Shippable.class).size());
+        assertEquals(90, dynamicClassExtension.cacheStats(HighChurnItem_Shippable.class).evictionCount());
+        assertEquals(11, dynamicClassExtension.cacheStats().size());
+        assertEquals(100, churnExtensions.size());
+    }
+
+    @ExtensionInterface(cachePolicy = CachePolicy.STRONG)
+    interface StronglyCachedItem_Shippable extends Item_Shippable {
+    }
+
+    @Test
+    void strongCachePolicyTest() {
+        DynamicClassExtension dynamicClassExtension = setupDynamicClassExtension(new StringBuilder());
+        Book book = new Book("The Mythical Man-Month");
+
+        int extensionHash = System.identityHashCode(dynamicClassExtension.extension(book, StronglyCachedItem_Shippable.class));
+        System.gc();
+        dynamicClassExtension.cacheCleanup();
+
+        // the extension survives garbage collection although nobody references it
+        assertEquals(extensionHash, System.identityHashCode(dynamicClassExtension.extension(book, StronglyCachedItem_Shippable.class)));
+        assertEquals(1, dynamicClassExtension.cacheStats().hitCount());
+    }
+
+    @ExtensionInterface(cachePolicy = CachePolicy.DELEGATE_LIFETIME)
+    interface DelegateLifetimeItem_Shippable extends Item_Shippable {
+    }
+
+    /**
+     * Benchmark comparing cache hit rates under allocation pressure for the default cache policy, that holds
+     * extensions weakly, and the delegate lifetime cache policy
+     */
+    @Test
+    void cacheHitRateUnderAllocationPressureTest() {
+        DynamicClassExtension dynamicClassExtension = setupDynamicClassExtension(new StringBuilder());
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 500; i++)
+            books.add(new Book("Book " + i));
+
+        double defaultHitRate = hitRateUnderAllocationPressure(dynamicClassExtension, books, Item_Shippable.class);
+        double delegateLifetimeHitRate = hitRateUnderAllocationPressure(dynamicClassExtension, books, DelegateLifetimeItem_Shippable.class);
+        out.println(MessageFormat.format("Cache hit rate under allocation pressure: default - {0,number,percent}, delegate lifetime - {1,number,percent}",
+                defaultHitRate, delegateLifetimeHitRate));
+
+        assertEquals(1.0, delegateLifetimeHitRate);
+        assertTrue(delegateLifetimeHitRate >= defaultHitRate);
+    }
+
+    private static double hitRateUnderAllocationPressure(DynamicClassExtension aDynamicClassExtension, List<Book> aBooks,
+                                                         Class<? extends Item_Shippable> anExtensionInterface) {
+        final int rounds = 10;
+        int[] extensionIDs = new int[aBooks.size()];
+        int hits = 0;
+        for (int round = 0; round < rounds; round++) {
+            List<byte[]> garbage = new ArrayList<>();
+            for (int i = 0; i < 32; i++)
+                garbage.add(new byte[1024 * 1024]);
+            garbage.clear();
+            System.gc();
+
+            for (int i = 0; i < aBooks.size(); i++) {
+                int extensionID = System.identityHashCode(aDynamicClassExtension.extension(aBooks.get(i), anExtensionInterface));
+                if (round > 0 && extensionIDs[i] == extensionID)
+                    hits++;
+                extensionIDs[i] = extensionID;
+            }
+        }
+        return (double) hits / ((rounds - 1) * aBooks.size());
+    }
+
+    /**
+     * Test that extensions cached for the lifetime of their objects are not evicted while the objects are alive, even
+     * if there are more live objects than a cache partition can hold
+     */
+    @Test
+    void delegateLifetimeCacheSizeTest() {
+        DynamicClassExtension dynamicClassExtension = setupDynamicClassExtension(new StringBuilder());
+        dynamicClassExtension.setCacheMaxSize(10);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            books.add(new Book("Book " + i));
+
+        int[] extensionIDs = new int[books.size()];
+        for (int i = 0; i < books.size(); i++) {
+            extensionIDs[i] = System.identityHashCode(dynamicClassExtension.extension(books.get(i), DelegateLifetimeItem_Shippable.class));
+            dynamicClassExtension.extension(books.get(i), Item_Shippable.class);
+        }
+        for (int i = 0; i < books.size(); i++)
+            assertEquals(extensionIDs[i], System.identityHashCode(dynamicClassExtension.extension(books.get(i), DelegateLifetimeItem_Shippable.class)));
+
+        ThreadSafeWeakCache.Stats stats = dynamicClassExtension.cacheStats(DelegateLifetimeItem_Shippable.class);
+        assertEquals(0, stats.evictionCount());
+        assertEquals(books.size(), stats.size());
+        assertTrue(dynamicClassExtension.cacheStats(Item_Shippable.class).evictionCount() > 0);
+    }
+
+    /**
+     * Test for extensions cached for the lifetime of their objects released along with the objects
+     */
+    @Test
+    void delegateLifetimeCacheReleaseTest() throws InterruptedException {
+        DynamicClassExtension dynamicClassExtension = setupDynamicClassExtension(new StringBuilder());
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            books.add(new Book("Book " + i));
+        for (Book book : books)
+            assertEquals(book.getName() + " book shipped", dynamicClassExtension.extension(book, DelegateLifetimeItem_Shippable.class).ship().result());
+
+        System.gc();
+        dynamicClassExtension.cacheCleanup();
+        assertFalse(dynamicClassExtension.cacheIsEmpty());
+
+        books.clear();
+        for (int i = 0; i < 50 && ! dynamicClassExtension.cacheIsEmpty(); i++) {
+            System.gc();
+            Thread.sleep(20);
+            dynamicClassExtension.cacheCleanup();
+        }
+        assertTrue(dynamicClassExtension.cacheIsEmpty());
+    }
+
     /**
      * Test for optionally cached extension
      */
@@ -713,7 +958,7 @@ public class DynamicClassExtensionTest {
         Book book = new Book("The Mythical Man-Month");
         Item_Shippable extension = dynamicClassExtension.extension(book, Item_Shippable.class);
         assertSame(extension, dynamicClassExtension.extension(book, Item_Shippable.class));
-        dynamicClassExtension.getExtensionCache().remove(new ClassExtensionKey(book, Item_Shippable.class));
+        dynamicClassExtension.getExtensionCache(Item_Shippable.class).remove(book);
         assertNotSame(extension, dynamicClassExtension.extension(book, Item_Shippable.class));
     }
 
@@ -753,8 +998,11 @@ public class DynamicClassExtensionTest {
         Book book = new Book("The Mythical Man-Month");
         Item_Shippable extension = dynamicClassExtension.extension(book, Item_Shippable.class);
         assertSame(extension, dynamicClassExtension.extension(book, Item_Shippable.class));
+        assertEquals(1, dynamicClassExtension.cacheStats(Item_Shippable.class).hitCount());
         dynamicClassExtension.cacheClear();
         assertTrue(dynamicClassExtension.cacheIsEmpty());
+        // partitions are dropped along with their statistics
+        assertEquals(ThreadSafeWeakCache.Stats.EMPTY, dynamicClassExtension.cacheStats(Item_Shippable.class));
         assertNotSame(extension, dynamicClassExtension.extension(book, Item_Shippable.class));
     }
 
@@ -828,6 +1076,259 @@ public class DynamicClassExtensionTest {
         }
     }
 
+    @Test
+    void warmUpTest() {
+        DynamicClassExtension dynamicClassExtension = new DynamicClassExtension().builder(Shippable.class).
+                operationName("ship").
+                    operation(Item.class, item -> new ShippingInfo(item.getName() + " item shipped")).
+                operationName("track").
+                    operation(Item.class, item -> new TrackingInfo(item.getName() + " item on its way")).
+                    operation(Item.class, (Item item, Boolean isVerbose) -> new TrackingInfo(item.getName() + " item on its way")).
+                build();
+
+        ClassExtension.WarmUpReport report = dynamicClassExtension.warmUp(List.of(Shippable.class),
+                List.of(Book.class, String.class), false);
+        out.println(report);
+        assertEquals(2, report.results().size());
+        assertEquals(List.of(String.class),
+                report.failures().stream().map(ClassExtension.WarmUpResult::objectClass).toList());
+
+        report = dynamicClassExtension.warmUpWithSamples(List.of(Shippable.class), List.of(new Book("Shining")), true);
+        assertTrue(report.isSuccessful());
+        assertTrue(dynamicClassExtension.cacheIsEmpty());
+    }
+
+    @ExtensionInterface(type = Type.DYNAMIC_GENERATED)
+    interface Item_Generated extends ItemInterface {
+        ShippingInfo ship();
+        void log(boolean isVerbose);
+        double weight();
+        String label(String aPrefix, int aCount);
+        Optional<String> note();
+    }
+
+    /**
+     * Test that generated extensions call operations and delegate methods directly, follow changes of registered
+     * operations and perform operations the proxy way if aspects apply
+     */
+    @Test
+    void generatedExtensionTest() {
+        List<String> log = new ArrayList<>();
+        DynamicClassExtension dynamicClassExtension = new DynamicClassExtension().builder(Item_Generated.class).
+                operationName("ship").
+                    operation(Item.class, item -> new ShippingInfo(item.getName() + " item shipped")).
+                operationName("log").
+                    voidOperation(Item.class, (Item item, Boolean isVerbose) -> log.add(item.getName() + (isVerbose ? " logged verbosely" : " logged"))).
+                operationName("weight").
+                    operation(Item.class, item -> 1.5).
+                operationName("label").
+                    operation(Item.class, (Item item, Object[] args) -> args[0] + item.getName() + " x" + args[1]).
+                operationName("note").
+                    operation(Item.class, item -> null).
+                build();
+
+        Book book = new Book("Shining");
+        Item_Generated extension = dynamicClassExtension.extension(book, Item_Generated.class);
+        assertInstanceOf(ExtensionForwarders.DynamicForwarder.class, extension);
+        assertEquals("Shining item shipped", extension.ship().result());
+        extension.log(true);
+        assertEquals(List.of("Shining logged verbosely"), log);
+        assertEquals(1.5, extension.weight());
+        assertEquals("#Shining x2", extension.label("#", 2));
+        assertEquals(Optional.empty(), extension.note());
+        assertEquals("Shining", extension.getName());
+        assertEquals(book.toString(), extension.toString());
+        assertEquals(book.hashCode(), extension.hashCode());
+        assertTrue(extension.equals(book));
+        assertSame(book, ClassExtension.getDelegate(extension));
+        assertSame(extension.getClass(), dynamicClassExtension.extension(new Book("Carrie"), Item_Generated.class).getClass());
+
+        // extensions follow changes of registered operations
+        dynamicClassExtension.builder(Item_Generated.class).
+                operationName("getName").
+                    operation(Book.class, item -> item.getName() + "[OVERRIDDEN]").
+                operationName("ship").
+                    operation(Book.class, item -> new ShippingInfo(item.getName() + " book shipped"));
+        assertEquals("Shining[OVERRIDDEN]", extension.getName());
+        assertEquals("Shining book shipped", extension.ship().result());
+        dynamicClassExtension.builder(Item_Generated.class).
+                operationName("getName").
+                    removeOperation(Book.class, null);
+        assertEquals("Shining", extension.getName());
+
+        dynamicClassExtension.aspectBuilder().
+                extensionInterface("*").
+                    operation("weight()").
+                    objectClass(Book.class).
+                        around((performer, operation, object, args) -> {
+                            log.add("AROUND: " + operation);
+                            return 2 * (double) applyDefault(performer, operation, object, args);
+                        });
+        assertEquals(3.0, extension.weight());
+        assertEquals("AROUND: weight", log.getLast());
+
+        // supplementary interfaces are supported by proxies only
+        assertFalse(dynamicClassExtension.extensionNoCache(book, null, Item_Generated.class, IdentityHolder.class) instanceof
+                ExtensionForwarders.DynamicForwarder);
+    }
+
+    interface Item_Measured extends ItemInterface {
+        int quantity();
+        int scale(int aFactor);
+        long stock();
+        long reserve(long anAmount);
+        double price();
+        double discount(double aRate);
+        boolean available();
+        boolean matches(boolean isStrict);
+    }
+
+    @ExtensionInterface(type = Type.DYNAMIC_GENERATED)
+    interface Item_MeasuredGenerated extends Item_Measured {
+    }
+
+    private static <E extends Item_Measured> E measuredExtension(DynamicClassExtension aClassExtension, Class<E> anExtensionInterface, Book aBook) {
+        aClassExtension.builder(anExtensionInterface).
+                operationName("quantity").
+                    intOperation(Item.class, item -> item.getName().length()).
+                operationName("scale").
+                    intOperation(Item.class, (Item item, int factor) -> item.getName().length() * factor).
+                operationName("stock").
+                    longOperation(Item.class, item -> 10_000_000_000L).
+                operationName("reserve").
+                    longOperation(Item.class, (Item item, long amount) -> 10_000_000_000L - amount).
+                operationName("price").
+                    doubleOperation(Item.class, item -> 9.5).
+                operationName("discount").
+                    doubleOperation(Item.class, (Item item, double rate) -> 9.5 * (1 - rate)).
+                operationName("available").
+                    booleanOperation(Item.class, item -> true).
+                operationName("matches").
+                    booleanOperation(Item.class, (Item item, boolean isStrict) -> ! isStrict).
+                build();
+        return aClassExtension.extension(aBook, anExtensionInterface);
+    }
+
+    @Test
+    void primitiveOperationsTest() {
+        DynamicClassExtension dynamicClassExtension = new DynamicClassExtension();
+        Book book = new Book("Shining");
+        for (Item_Measured extension : List.of(measuredExtension(dynamicClassExtension, Item_Measured.class, book),
+                measuredExtension(dynamicClassExtension, Item_MeasuredGenerated.class, book))) {
+            assertEquals(7, extension.quantity());
+            assertEquals(21, extension.scale(3));
+            assertEquals(10_000_000_000L, extension.stock());
+            assertEquals(9_999_999_990L, extension.reserve(10));
+            assertEquals(9.5, extension.price());
+            assertEquals(4.75, extension.discount(0.5));
+            assertTrue(extension.available());
+            assertFalse(extension.matches(true));
+            assertEquals("Shining", extension.getName());
+        }
+        assertInstanceOf(ExtensionForwarders.DynamicForwarder.class,
+                dynamicClassExtension.extension(book, Item_MeasuredGenerated.class));
+        assertTrue(dynamicClassExtension.toString().contains("int scale(int)"));
+
+        // primitive operations still work the proxy way if they are intercepted
+        List<String> log = new ArrayList<>();
+        dynamicClassExtension.aspectBuilder().
+                extensionInterface("*").
+                    operation("scale(*)").
+                    objectClass(Book.class).
+                        before((operation, object, args) -> log.add("BEFORE: " + operation + args[0]));
+        assertEquals(14, dynamicClassExtension.extension(book, Item_MeasuredGenerated.class).scale(2));
+        assertEquals(List.of("BEFORE: scale2"), log);
+    }
+
+    /**
+     * Test that calling primitive operations of generated extensions allocates nothing
+     */
+    @Test
+    void primitiveOperationsAllocationTest() {
+        Item_MeasuredGenerated extension = measuredExtension(new DynamicClassExtension(), Item_MeasuredGenerated.class,
+                new Book("Shining"));
+
+        double[] result = {0};
+        AllocationAssertions.assertAllocationFree("Bytes allocated per call", i -> result[0] += measure(extension, i));
+        assertTrue(result[0] > 0);
+    }
+
+    private static double measure(Item_Measured anExtension, int anIndex) {
+        return anExtension.quantity() + anExtension.scale(anIndex) + anExtension.reserve(anIndex) +
+                anExtension.discount(0.1) + (anExtension.matches(false) ? 1 : 0);
+    }
+
+    interface Item_Priced extends ItemInterface {
+        String label(String aPrefix, int aCount);
+        double price(int aCount, double aDiscount, boolean isGift);
+        void log(String aPrefix, boolean isVerbose);
+        void log(String aPrefix, String aSuffix, int aLevel);
+        String describe(String aPrefix, String aSuffix);
+    }
+
+    @ExtensionInterface(type = Type.DYNAMIC_GENERATED)
+    interface Item_PricedGenerated extends Item_Priced {
+    }
+
+    private static <E extends Item_Priced> E pricedExtension(DynamicClassExtension aClassExtension, Class<E> anExtensionInterface,
+                                                             Book aBook, List<String> aLog) {
+        aClassExtension.builder(anExtensionInterface).
+                operationName("label").
+                    operation(Item.class, (Item item, String prefix, Integer count) -> prefix + item.getName() + " x" + count).
+                operationName("price").
+                    operation(Item.class, (Item item, Integer count, Double discount, Boolean isGift) ->
+                            count * 10 * (1 - discount) + (isGift ? 5 : 0)).
+                operationName("log").
+                    voidOperation(Item.class, (Item item, String prefix, Boolean isVerbose) ->
+                            aLog.add(prefix + item.getName() + (isVerbose ? " logged verbosely" : " logged"))).
+                    voidOperation(Item.class, (Item item, String prefix, String suffix, Integer level) ->
+                            aLog.add(prefix + item.getName() + suffix + level)).
+                operationName("describe").
+                    // operations taking arguments as an array are still supported
+                    operation(Item.class, (Item item, Object[] args) -> args[0] + item.getName() + args[1]).
+                build();
+        return aClassExtension.extension(aBook, anExtensionInterface);
+    }
+
+    @Test
+    void multipleParametersTest() {
+        DynamicClassExtension dynamicClassExtension = new DynamicClassExtension();
+        Book book = new Book("Shining");
+        List<String> log = new ArrayList<>();
+        for (Item_Priced extension : List.of(pricedExtension(dynamicClassExtension, Item_Priced.class, book, log),
+                pricedExtension(dynamicClassExtension, Item_PricedGenerated.class, book, log))) {
+            log.clear();
+            assertEquals("#Shining x2", extension.label("#", 2));
+            assertEquals(23.0, extension.price(2, 0.1, true));
+            extension.log("#", true);
+            extension.log("<", ">", 3);
+            assertEquals(List.of("#Shining logged verbosely", "<Shining>3"), log);
+            assertEquals("[Shining]", extension.describe("[", "]"));
+        }
+        assertInstanceOf(ExtensionForwarders.DynamicForwarder.class,
+                dynamicClassExtension.extension(book, Item_PricedGenerated.class));
+
+        String operations = dynamicClassExtension.toString();
+        assertTrue(operations.contains("T label(T, T)"));
+        assertTrue(operations.contains("T price(T, T, T)"));
+        assertTrue(operations.contains("void log(T, T)"));
+        assertTrue(operations.contains("void log(T, T, T)"));
+        assertTrue(operations.contains("T describe(T)"));
+
+        assertThrows(IllegalArgumentException.class, () -> dynamicClassExtension.builder(Item_Priced.class).
+                operationName("label").
+                    operation(Item.class, (Item item, String prefix, Integer count) -> prefix));
+        assertEquals(List.of("T label(T, T)"), new DynamicClassExtension().listUndefinedOperations(Book.class,
+                Item_Priced.class, false).stream().filter(operation -> operation.contains("label")).toList());
+
+        // removing a typed operation falls back to an operation taking arguments as an array
+        dynamicClassExtension.builder(Item_Priced.class).
+                operationName("label").
+                    operation(Item.class, (Item item, Object[] args) -> "packed " + args[0] + args[1]).
+                    removeOperation(Item.class, new Class<?>[]{String.class, int.class});
+        assertEquals("packed #2", dynamicClassExtension.extension(book, Item_Priced.class).label("#", 2));
+    }
+
     @Test
     void callUndefinedOperationTest() {
         StringBuilder shippingLog = new StringBuilder();
@@ -0,0 +1,109 @@
+package com.gl.classext;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OperationRegistryTest {
+
+    @Test
+    public void testOperationIds() {
+        OperationRegistry<String> registry = new OperationRegistry<>();
+        int id = registry.operationId("registryTestOperation", 0);
+        int biId = registry.operationId("registryTestOperation", 1);
+
+        assertNotEquals(id, biId);
+        assertEquals(id, registry.operationId("registryTestOperation", 0));
+        assertEquals(biId, registry.findOperationId("registryTestOperation", 1));
+        assertEquals(-1, registry.findOperationId("registryTestUnknownOperation", 0));
+        assertEquals("registryTestOperation", registry.operationName(id));
+        assertEquals("registryTestOperationBi", registry.operationName(biId));
+
+        int triId = registry.operationId("registryTestOperation", 2);
+        int quadId = registry.operationId("registryTestOperation", 3);
+        assertEquals(4, Set.of(id, biId, triId, quadId).size());
+        assertEquals("registryTestOperationTri", registry.operationName(triId));
+        assertEquals("registryTestOperationQuad", registry.operationName(quadId));
+        assertEquals("registryTestOperation", registry.simpleOperationName(quadId));
+
+        // names ending with arity suffixes are kept as is
+        int getQuadId = registry.operationId("getQuad", 0);
+        assertEquals("getQuad", registry.operationName(getQuadId));
+        assertEquals("getQuad", registry.simpleOperationName(getQuadId));
+        assertThrows(IllegalArgumentException.class, () -> registry.operationId("registryTestOperation", 4));
+
+        // names are interned per registry
+        assertEquals(-1, new OperationRegistry<String>().findOperationId("registryTestOperation", 0));
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        OperationRegistry<String> registry = new OperationRegistry<>();
+        int id = registry.operationId("ship", 0);
+        int biId = registry.operationId("ship", 1);
+
+        assertNull(registry.putIfAbsent(String.class, Runnable.class, id, "ship()"));
+        assertNull(registry.putIfAbsent(String.class, Runnable.class, biId, "ship(T)"));
+        assertEquals("ship()", registry.putIfAbsent(String.class, Runnable.class, id, "duplicate"));
+
+        assertEquals("ship()", registry.get(String.class, Runnable.class, id));
+        assertEquals("ship(T)", registry.get(String.class, Runnable.class, biId));
+        assertNull(registry.get(Integer.class, Runnable.class, id));
+        assertNull(registry.get(String.class, Comparable.class, id));
+        assertEquals(2, registry.size());
+
+        assertEquals("ship()", registry.remove(String.class, Runnable.class, id));
+        assertNull(registry.remove(String.class, Runnable.class, id));
+        assertNull(registry.get(String.class, Runnable.class, id));
+        assertEquals("ship(T)", registry.get(String.class, Runnable.class, biId));
+        assertEquals(1, registry.size());
+
+        registry.clear();
+        assertNull(registry.get(String.class, Runnable.class, biId));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void testManyOperations() {
+        OperationRegistry<Integer> registry = new OperationRegistry<>();
+        Class<?>[] objectClasses = {String.class, Integer.class, Long.class, Double.class, Object.class};
+        Class<?>[] extensionInterfaces = {Runnable.class, Comparable.class, CharSequence.class};
+        int[] ids = new int[200];
+        for (int i = 0; i < ids.length; i++)
+            ids[i] = registry.operationId("registryTestOperation" + i, i % (OperationRegistry.MAX_ARITY + 1));
+
+        int value = 0;
+        for (int id : ids)
+            for (Class<?> objectClass : objectClasses)
+                for (Class<?> extensionInterface : extensionInterfaces)
+                    assertNull(registry.putIfAbsent(objectClass, extensionInterface, id, value++));
+        assertEquals(value, registry.size());
+
+        // remove every other operation, leaving tombstones to be skipped and then rebuilt
+        for (int i = 0; i < ids.length; i += 2)
+            for (Class<?> objectClass : objectClasses)
+                for (Class<?> extensionInterface : extensionInterfaces)
+                    assertNotNull(registry.remove(objectClass, extensionInterface, ids[i]));
+        for (int i = 0; i < ids.length; i += 2)
+            assertNull(registry.putIfAbsent(String.class, Runnable.class, ids[i], -i));
+
+        value = 0;
+        for (int i = 0; i < ids.length; i++)
+            for (Class<?> objectClass : objectClasses)
+                for (Class<?> extensionInterface : extensionInterfaces) {
+                    Integer expected = i % 2 == 1 ? Integer.valueOf(value) :
+                            objectClass == String.class && extensionInterface == Runnable.class ? -i : null;
+                    assertEquals(expected, registry.get(objectClass, extensionInterface, ids[i]));
+                    value++;
+                }
+
+        Map<Integer, Integer> visited = new HashMap<>();
+        registry.forEach((anObjectClass, anExtensionInterface, anOperationId, anOperation) ->
+                visited.merge(anOperationId, 1, Integer::sum));
+        assertEquals(registry.size(), visited.values().stream().mapToInt(Integer::intValue).sum());
+    }
+}
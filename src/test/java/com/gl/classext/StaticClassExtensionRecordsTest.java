@@ -2,7 +2,7 @@ package com.gl.classext;
 
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 @SuppressWarnings("unused")
 public class StaticClassExtensionRecordsTest {
@@ -86,6 +86,27 @@ public class StaticClassExtensionRecordsTest {
                 shippingInfos.toString());
     }
 
+    @Test
+    void cacheByIdentityTest() {
+        Book book1 = new Book("The Mythical Man-Month");
+        Book book2 = new Book("The Mythical Man-Month");
+
+        StaticClassExtension classExtension = StaticClassExtension.sharedInstance();
+        assertSame(classExtension.extension(book1, Shippable.class), classExtension.extension(book2, Shippable.class));
+
+        classExtension.setCacheByIdentity(true);
+        try {
+            Shippable extension1 = classExtension.extension(book1, Shippable.class);
+            Shippable extension2 = classExtension.extension(book2, Shippable.class);
+            assertNotSame(extension1, extension2);
+            assertSame(extension1, classExtension.extension(book1, Shippable.class));
+            assertSame(book1, ClassExtension.getDelegate(extension1));
+            assertSame(book2, ClassExtension.getDelegate(extension2));
+        } finally {
+            classExtension.setCacheByIdentity(false);
+        }
+    }
+
     public ShippingInfo ship(Item anItem) {
         return ItemShippable.extensionFor(anItem).ship();
     }
@@ -1,11 +1,27 @@
 package com.gl.classext;
 
-import com.gl.classext.ThreadSafeWeakCache.ClassExtensionKey;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.gl.classext.Aspects.AroundAdvice.applyDefault;
 import static org.junit.jupiter.api.Assertions.*;
@@ -153,6 +169,126 @@ class ElectronicItemShippable extends ItemShippable {
     }
 }
 
+@ExtensionInterface(type = ClassExtension.Type.STATIC_GENERATED)
+interface Forwardable {
+    String label(String aPrefix, int aCount, long aWeight, double aPrice, boolean isFragile);
+    double price();
+    void log();
+    Optional<String> note();
+}
+
+interface ForwardableItem extends Forwardable, ItemInterface {
+}
+
+@SuppressWarnings("unused")
+class ItemForwardable implements Forwardable {
+    static final StringBuilder LOG = new StringBuilder();
+
+    private final Item delegate;
+
+    public ItemForwardable(Item aDelegate) {
+        delegate = aDelegate;
+    }
+
+    public String label(String aPrefix, int aCount, long aWeight, double aPrice, boolean isFragile) {
+        return MessageFormat.format("{0}{1} x{2} {3}kg ${4}{5}", aPrefix, delegate.getName(), aCount, aWeight, aPrice,
+                isFragile ? " fragile" : "");
+    }
+
+    public double price() {
+        return 9.5;
+    }
+
+    public void log() {
+        LOG.append(delegate.getName());
+    }
+
+    public Optional<String> note() {
+        return null;
+    }
+}
+
+@ExtensionInterface(type = ClassExtension.Type.STATIC_GENERATED)
+interface Failing {
+    void fail(String aMessage) throws IOException;
+}
+
+@SuppressWarnings("unused")
+class ItemFailing implements Failing {
+    public ItemFailing(Item aDelegate) {
+    }
+
+    public void fail(String aMessage) throws IOException {
+        if (aMessage == null)
+            throw new IllegalStateException("No message");
+        throw new IOException(aMessage);
+    }
+}
+
+@ExtensionInterface
+interface Priceable {
+    double price();
+}
+
+@SuppressWarnings("unused")
+class ItemPriceable implements Priceable {
+    private final Item delegate;
+
+    public ItemPriceable(Item aDelegate) {
+        delegate = aDelegate;
+    }
+
+    public double price() {
+        return delegate.getName().length();
+    }
+}
+
+@ExtensionInterface
+interface Labeled {
+    String label();
+}
+
+@ExtensionInterface(type = ClassExtension.Type.STATIC_GENERATED)
+interface FastLabeled extends Labeled {
+}
+
+@SuppressWarnings("unused")
+class ItemLabeled implements Labeled, ClassExtension.DelegateHolder<Item> {
+    private Item delegate;
+
+    public String label() {
+        return delegate.getName();
+    }
+
+    public Item getDelegate() {
+        return delegate;
+    }
+
+    public void setDelegate(Item aDelegate) {
+        delegate = aDelegate;
+    }
+}
+
+@SuppressWarnings("unused")
+class ItemFastLabeled extends ItemLabeled implements FastLabeled {
+}
+
+@SuppressWarnings("unused")
+class ExpressShipping implements Shippable {
+    private final Item delegate;
+
+    public ExpressShipping(Item aDelegate) {
+        delegate = aDelegate;
+    }
+
+    public ShippingInfo ship() {
+        return new ShippingInfo(delegate + " shipped express");
+    }
+
+    public void log() {
+    }
+}
+
 public class StaticClassExtensionTest {
     /**
      * Tests for exact match when a matching extension is defined for the passed object's class
@@ -274,6 +410,334 @@ public class StaticClassExtensionTest {
         }
     }
 
+    /**
+     * Test that extension classes are resolved once per object class, including missing ones, until extension
+     * packages change
+     */
+    @Test
+    void extensionResolutionCacheTest() {
+        AtomicInteger resolutionCount = new AtomicInteger();
+        StaticClassExtension classExtension = new StaticClassExtension() {
+            @Override
+            <T> Class<T> extensionClassForObject(Class<?> anObjectClass, Class<T> anExtensionInterface, List<String> aPackageNames) {
+                resolutionCount.incrementAndGet();
+                return super.extensionClassForObject(anObjectClass, anExtensionInterface, aPackageNames);
+            }
+        };
+        classExtension.setCacheEnabled(false);
+
+        for (int i = 0; i < 3; i++)
+            assertEquals("Shining shipped", classExtension.extension(new Book("Shining"), Shippable.class).ship().result());
+        assertEquals(1, resolutionCount.get());
+
+        for (int i = 0; i < 3; i++)
+            assertThrows(IllegalArgumentException.class, () -> classExtension.extension(new Book("Shining"), StaticClassExtension.DelegateHolder.class));
+        assertEquals(2, resolutionCount.get());
+
+        classExtension.addExtensionPackage(Shippable.class, "com.gl.classext.missing");
+        classExtension.extension(new Book("Shining"), Shippable.class);
+        assertEquals(3, resolutionCount.get());
+
+        classExtension.removeExtensionPackage(Shippable.class, "com.gl.classext.missing");
+        classExtension.extension(new Book("Shining"), Shippable.class);
+        assertEquals(4, resolutionCount.get());
+    }
+
+    /**
+     * Test that extension classes indexed at compile time are found without probing classes by names, neither in
+     * extension packages nor for superclasses
+     */
+    @Test
+    void extensionIndexTest() throws Exception {
+        StaticClassExtension.ExtensionIndex extensionIndex = StaticClassExtension.loadExtensionIndex(getClass().getClassLoader());
+        assertTrue(extensionIndex.classNames().containsAll(List.of("com.gl.classext.BookShippable",
+                "com.gl.classext.ItemShippable", "com.gl.classext.ItemForwardable")));
+        assertFalse(extensionIndex.classNames().contains("com.gl.classext.Item"));
+        assertTrue(extensionIndex.packageNames().containsAll(List.of("com.gl.classext",
+                "com.gl.classext.com.gl.classext.shipment", "com.gl.classext.com.gl.classext.shipment.impl")));
+
+        // an object class of its own class loader lets all the extension classes looked up be recorded
+        List<String> loadedClassNames = new ArrayList<>();
+        ClassLoader classLoader = new PluginClassLoader(Set.of(com.gl.classext.com.gl.classext.shipment.impl.AutoPart.class)) {
+            @Override
+            protected Class<?> loadClass(String aName, boolean isResolve) throws ClassNotFoundException {
+                if (aName.endsWith("Shippable"))
+                    loadedClassNames.add(aName);
+                return super.loadClass(aName, isResolve);
+            }
+        };
+        Object autoPart = classLoader.loadClass(com.gl.classext.com.gl.classext.shipment.impl.AutoPart.class.getName()).
+                getConstructor(String.class).newInstance("Tire");
+        Class<com.gl.classext.com.gl.classext.shipment.Shippable> shippableClass = com.gl.classext.com.gl.classext.shipment.Shippable.class;
+
+        // AutoPartShippable is missing in the extension packages, so only the indexed ItemShippable of the last package is loaded
+        StaticClassExtension classExtension = new StaticClassExtension();
+        classExtension.setCacheEnabled(false);
+        classExtension.addExtensionPackage(shippableClass, "com.gl.classext.com.gl.classext.shipment.impl.grocery");
+        assertEquals("Tire NOT shipped", classExtension.extension(autoPart, shippableClass).ship().result());
+        assertEquals(List.of("com.gl.classext.com.gl.classext.shipment.ItemShippable"), loadedClassNames);
+
+        // names in packages that are not indexed are still probed; ItemShippable is already loaded, so it is not recorded again
+        loadedClassNames.clear();
+        classExtension.addExtensionPackage(shippableClass, "com.gl.classext.missing");
+        assertEquals("Tire NOT shipped", classExtension.extension(autoPart, shippableClass).ship().result());
+        assertEquals(List.of("com.gl.classext.missing.AutoPartShippable", "com.gl.classext.missing.ItemShippable",
+                "com.gl.classext.missing.ObjectShippable"), loadedClassNames);
+    }
+
+    /**
+     * Test that indexes of different jars are all read even if their extension classes share a package
+     */
+    @Test
+    void multipleExtensionIndexesTest() throws IOException {
+        List<URL> urls = new ArrayList<>();
+        for (String extensionClassName : List.of("com.example.BookShippable", "com.example.ItemShippable")) {
+            Path root = Files.createTempDirectory("index");
+            Path index = root.resolve(StaticExtensionIndexProcessor.INDEX_RESOURCE_NAME);
+            Files.createDirectories(index.getParent());
+            Files.writeString(index, extensionClassName + "\n" + StaticExtensionIndexProcessor.PACKAGE_PREFIX + "com.example\n");
+            urls.add(root.toUri().toURL());
+        }
+        try (URLClassLoader classLoader = new URLClassLoader(urls.toArray(new URL[0]), null)) {
+            StaticClassExtension.ExtensionIndex extensionIndex = StaticClassExtension.loadExtensionIndex(classLoader);
+            assertEquals(Set.of("com.example.BookShippable", "com.example.ItemShippable"), extensionIndex.classNames());
+            assertEquals(Set.of("com.example"), extensionIndex.packageNames());
+        }
+    }
+
+    /**
+     * Test that an extension class missing from an index takes precedence over an indexed extension class of a
+     * superclass, e.g. if it comes from a jar built without the index processor, unless its package is fully indexed
+     */
+    @Test
+    void partialExtensionIndexTest() {
+        StaticClassExtension classExtension = new StaticClassExtension() {
+            @Override
+            ExtensionIndex extensionIndex(List<ClassLoader> aClassLoaders) {
+                return new ExtensionIndex(Set.of("com.gl.classext.ItemShippable"), Set.of());
+            }
+        };
+        assertEquals("Shining shipped", classExtension.extension(new Book("Shining"), Shippable.class).ship().result());
+        assertEquals("Tire NOT shipped", classExtension.extension(new AutoPart("Tire"), Shippable.class).ship().result());
+
+        classExtension = new StaticClassExtension() {
+            @Override
+            ExtensionIndex extensionIndex(List<ClassLoader> aClassLoaders) {
+                return new ExtensionIndex(Set.of("com.gl.classext.ItemShippable"), Set.of("com.gl.classext"));
+            }
+        };
+        assertEquals("Shining NOT shipped", classExtension.extension(new Book("Shining"), Shippable.class).ship().result());
+    }
+
+    /**
+     * Test that registered extension classes are resolved through object class hierarchies without looking them up by
+     * names, and take precedence over ones found by names
+     */
+    @Test
+    void registeredExtensionClassTest() {
+        AtomicInteger probeCount = new AtomicInteger();
+        StaticClassExtension classExtension = new StaticClassExtension() {
+            @Override
+            <T> Class<T> extensionClassForObject(Class<?> anObjectClass, Class<T> anExtensionInterface, List<String> aPackageNames) {
+                probeCount.incrementAndGet();
+                return super.extensionClassForObject(anObjectClass, anExtensionInterface, aPackageNames);
+            }
+        };
+        classExtension.setCacheEnabled(false);
+
+        classExtension.registerExtensionClass(AutoPart.class, Shippable.class, ExpressShipping.class);
+        assertEquals("Tire shipped express", classExtension.extension(new AutoPart("Tire"), Shippable.class).ship().result());
+        assertEquals("Tire shipped express", classExtension.extension(new AutoPart("Tire"), ShippableItemInterface.class).ship().result());
+        assertEquals("Shining shipped", classExtension.extension(new Book("Shining"), Shippable.class).ship().result());
+        assertEquals(1, probeCount.get());
+
+        classExtension.registerExtensionClass(ItemInterface.class, Shippable.class, ExpressShipping.class);
+        assertEquals("Shining shipped express", classExtension.extension(new Book("Shining"), Shippable.class).ship().result());
+
+        classExtension.unregisterExtensionClass(ItemInterface.class, Shippable.class);
+        classExtension.unregisterExtensionClass(AutoPart.class, Shippable.class);
+        assertEquals("Shining shipped", classExtension.extension(new Book("Shining"), Shippable.class).ship().result());
+        assertEquals("Tire NOT shipped", classExtension.extension(new AutoPart("Tire"), Shippable.class).ship().result());
+
+        assertThrows(IllegalStateException.class, () -> classExtension.registerExtensionClass(Book.class, Shippable.class, Book.class));
+    }
+
+    /**
+     * Test that extension classes are looked up in class loaders of objects, and that neither resolutions, cached and
+     * scoped extensions nor extension packages made for classes of a class loader prevent it from unloading while a
+     * class extension is still in use
+     */
+    @Test
+    void pluginClassLoaderTest() throws Exception {
+        StaticClassExtension classExtension = new StaticClassExtension();
+        WeakReference<ClassLoader> pluginClassLoader = usePluginClassLoader(classExtension);
+        for (int i = 0; i < 50 && pluginClassLoader.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(pluginClassLoader.get());
+        assertEquals("Shining shipped", classExtension.extension(new Book("Shining"), Shippable.class).ship().result());
+    }
+
+    private static WeakReference<ClassLoader> usePluginClassLoader(StaticClassExtension aClassExtension) throws Exception {
+        ClassLoader pluginClassLoader = new PluginClassLoader(Set.of(ItemInterface.class, Item.class, Book.class,
+                ShippingInfo.class, Shippable.class, ItemShippable.class, BookShippable.class,
+                Labeled.class, FastLabeled.class, ItemLabeled.class, ItemFastLabeled.class));
+        Class<?> bookClass = pluginClassLoader.loadClass(Book.class.getName());
+        Class<?> shippableClass = pluginClassLoader.loadClass(Shippable.class.getName());
+        Class<?> labeledClass = pluginClassLoader.loadClass(Labeled.class.getName());
+        assertNotSame(Book.class, bookClass);
+
+        Constructor<?> bookConstructor = bookClass.getConstructor(String.class);
+        bookConstructor.setAccessible(true);
+        Object book = bookConstructor.newInstance("Shining");
+        Object extension = aClassExtension.extension(book, shippableClass);
+        Method shipMethod = shippableClass.getMethod("ship");
+        shipMethod.setAccessible(true);
+        assertEquals("ShippingInfo[result=Shining shipped]", shipMethod.invoke(extension).toString());
+        assertEquals("Shining shipped", aClassExtension.extension(new Book("Shining"), Shippable.class).ship().result());
+
+        Method labelMethod = labeledClass.getMethod("label");
+        labelMethod.setAccessible(true);
+        for (String interfaceName : List.of(Labeled.class.getName(), FastLabeled.class.getName())) {
+            Class<?> extensionInterface = pluginClassLoader.loadClass(interfaceName);
+            assertEquals("Shining", aClassExtension.withExtension(book, extensionInterface, labeled -> {
+                try {
+                    return labelMethod.invoke(labeled);
+                } catch (ReflectiveOperationException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }));
+        }
+
+        aClassExtension.addExtensionPackage(shippableClass, "com.gl.classext.plugin");
+        assertNotNull(aClassExtension.extension(book, shippableClass));
+
+        return new WeakReference<>(pluginClassLoader);
+    }
+
+    /**
+     * A class loader defining its own copies of some classes, like a plugin host does
+     */
+    static class PluginClassLoader extends ClassLoader {
+        private final Set<String> classNames;
+
+        PluginClassLoader(Set<Class<?>> aClasses) {
+            super(StaticClassExtensionTest.class.getClassLoader());
+            classNames = aClasses.stream().map(Class::getName).collect(Collectors.toSet());
+        }
+
+        @Override
+        protected Class<?> loadClass(String aName, boolean isResolve) throws ClassNotFoundException {
+            if (! classNames.contains(aName))
+                return super.loadClass(aName, isResolve);
+
+            synchronized (getClassLoadingLock(aName)) {
+                Class<?> result = findLoadedClass(aName);
+                if (result == null) {
+                    try (InputStream inputStream = getParent().getResourceAsStream(aName.replace('.', '/') + ".class")) {
+                        byte[] bytes = Objects.requireNonNull(inputStream).readAllBytes();
+                        result = defineClass(aName, bytes, 0, bytes.length);
+                    } catch (IOException ex) {
+                        throw new ClassNotFoundException(aName, ex);
+                    }
+                }
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Test that an extension implementing supplementary interfaces is a single proxy dispatching calls to extensions of
+     * interfaces declaring methods, and it is cached apart from single interface extensions
+     */
+    @Test
+    void supplementaryInterfacesTest() {
+        StaticClassExtension classExtension = new StaticClassExtension();
+        Book book = new Book("Shining");
+        Shippable extension = classExtension.extension(book, Shippable.class, Priceable.class, ItemInterface.class);
+
+        assertEquals("Shining shipped", extension.ship().result());
+        assertEquals(7.0, ((Priceable) extension).price());
+        assertEquals("Shining", ((ItemInterface) extension).getName());
+        assertEquals("Shining", extension.toString());
+        assertSame(book, ClassExtension.getDelegate(extension));
+
+        assertSame(extension, classExtension.extension(book, Shippable.class, Priceable.class, ItemInterface.class));
+        assertNotSame(extension, classExtension.extension(book, Shippable.class, Priceable.class));
+        assertFalse(classExtension.extension(book, Shippable.class) instanceof Priceable);
+        assertEquals(7.0, ((Priceable) StaticClassExtension.sharedInstance().extension(book, Shippable.class, Priceable.class)).price());
+
+        assertThrows(IllegalArgumentException.class, () -> classExtension.extension(book, Shippable.class, Runnable.class));
+    }
+
+    /**
+     * Test that a cache hit of an extension implementing supplementary interfaces allocates nothing
+     */
+    @Test
+    void supplementaryInterfacesCacheHitAllocationTest() {
+        StaticClassExtension classExtension = new StaticClassExtension();
+        Book book = new Book("Shining");
+        Class<?>[] supplementaryInterfaces = {Priceable.class, ItemInterface.class};
+        Shippable extension = classExtension.extension(book, Shippable.class, supplementaryInterfaces);
+        assertSame(extension, classExtension.extension(book, Shippable.class, supplementaryInterfaces.clone()));
+
+        AllocationAssertions.assertAllocationFree("Bytes allocated per cache hit", i -> {
+            if (classExtension.extension(book, Shippable.class, supplementaryInterfaces) != extension)
+                fail("Cache miss");
+        });
+    }
+
+    /**
+     * Test that scoped extensions are borrowed from a pool and re-bound to objects, and they do not allocate per use
+     */
+    @Test
+    void scopedExtensionTest() {
+        StaticClassExtension classExtension = new StaticClassExtension();
+        Book shining = new Book("Shining");
+        Book carrie = new Book("Carrie");
+
+        for (Class<? extends Labeled> extensionInterface : List.of(Labeled.class, FastLabeled.class)) {
+            assertEquals("Shining", classExtension.withExtension(shining, extensionInterface, Labeled::label));
+            Labeled extension = classExtension.withExtension(shining, extensionInterface, labeled -> labeled);
+            assertSame(extension, classExtension.withExtension(carrie, extensionInterface, labeled -> labeled));
+            assertNull(ClassExtension.getDelegate(extension));
+            assertEquals("Shining & Carrie", classExtension.withExtension(shining, extensionInterface, outer ->
+                    classExtension.withExtension(carrie, extensionInterface, inner -> outer.label() + " & " + inner.label())));
+        }
+        assertInstanceOf(ExtensionForwarders.Forwarder.class, classExtension.withExtension(shining, FastLabeled.class, labeled -> labeled));
+        // extensions that can't be re-bound are created per use
+        assertEquals("Shining shipped", classExtension.withExtension(shining, Shippable.class, shippable -> shippable.ship().result()));
+
+        Book[] books = {shining, carrie};
+        AllocationAssertions.assertAllocationFree("Bytes allocated per scoped extension use", i -> {
+            if (classExtension.withExtension(books[i & 1], FastLabeled.class, Labeled::label) == null)
+                fail("No label");
+        });
+    }
+
+    /**
+     * Test that pools of scoped extensions are shared by threads, and an extension is never used by two threads at once
+     */
+    @Test
+    void scopedExtensionConcurrencyTest() {
+        StaticClassExtension classExtension = new StaticClassExtension();
+        Book shining = new Book("Shining");
+        Book carrie = new Book("Carrie");
+
+        Labeled extension = classExtension.withExtension(shining, FastLabeled.class, labeled -> labeled);
+        // a released extension is not kept by a thread that used it
+        assertSame(extension, CompletableFuture.supplyAsync(() ->
+                classExtension.withExtension(carrie, FastLabeled.class, labeled -> labeled)).join());
+
+        List<Book> books = IntStream.range(0, 64).mapToObj(i -> new Book("Book " + i)).toList();
+        IntStream.range(0, 100_000).parallel().forEach(i -> {
+            Book book = books.get(i % books.size());
+            assertEquals(book.getName() + " & Shining", classExtension.withExtension(book, FastLabeled.class, outer ->
+                    classExtension.withExtension(shining, FastLabeled.class, inner -> outer.label() + " & " + inner.label())));
+        });
+    }
+
     /**
      * Test for cached extension
      */
@@ -305,10 +769,169 @@ public class StaticClassExtensionTest {
         Book book = new Book("");
         Shippable extension = Shippable.extensionFor(book);
         assertSame(extension, Shippable.extensionFor(book));
-        StaticClassExtension.sharedInstance().getExtensionCache().remove(new ClassExtensionKey(book, Shippable.class));
+        StaticClassExtension.sharedInstance().getExtensionCache(Shippable.class).remove(book);
         assertNotSame(extension, Shippable.extensionFor(book));
     }
 
+    /**
+     * Test that a cache hit allocates nothing
+     */
+    @Test
+    void cacheHitAllocationTest() {
+        StaticClassExtension classExtension = StaticClassExtension.sharedInstance();
+        Book book = new Book("The Mythical Man-Month");
+        Shippable extension = classExtension.extension(book, Shippable.class);
+
+        AllocationAssertions.assertAllocationFree("Bytes allocated per cache hit", i -> {
+            if (classExtension.extension(book, Shippable.class) != extension)
+                fail("Cache miss");
+        });
+    }
+
+    /**
+     * Test that extensions created by compiled factories get their own delegates and reports the cost of a creation
+     */
+    @Test
+    void extensionCreationTest() {
+        StaticClassExtension classExtension = new StaticClassExtension();
+        classExtension.setCacheEnabled(false);
+        Book book = new Book("Shining");
+        Furniture furniture = new Furniture("Chair");
+
+        int iterations = 100_000;
+        for (int i = 0; i < iterations; i++) { // warm up
+            assertEquals("Shining shipped", classExtension.extension(book, Shippable.class).ship().result());
+            assertEquals("Chair shipped", classExtension.extension(furniture, Shippable.class).ship().result());
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (classExtension.extension(book, Shippable.class) == null)
+                fail("No extension");
+        }
+        System.out.println("Extension creation: " + (System.nanoTime() - start) / iterations + " ns");
+    }
+
+    /**
+     * Test that exceptions thrown by extension methods reach callers unchanged, whether extensions are generated or
+     * their methods are performed the proxy way via method handles or reflection
+     */
+    @Test
+    void extensionExceptionTest() throws NoSuchMethodException {
+        StaticClassExtension classExtension = new StaticClassExtension();
+        Failing extension = classExtension.extension(new Book("Shining"), Failing.class);
+        assertInstanceOf(ExtensionForwarders.Forwarder.class, extension);
+        assertFailures(extension);
+
+        // performed the proxy way as an aspect applies
+        classExtension.aspectBuilder().
+                extensionInterface("*").
+                    operation("*").
+                    objectClass(Book.class).
+                        before((operation, object, args) -> {});
+        assertFailures(extension);
+
+        Performer<Object> performer = StaticClassExtension.DispatchPlan.reflectiveMethodPerformer(
+                ItemFailing.class.getMethod("fail", String.class));
+        ItemFailing itemFailing = new ItemFailing(new Book("Shining"));
+        assertEquals("Shining", assertThrows(IOException.class,
+                () -> performer.perform("fail", itemFailing, new Object[]{"Shining"})).getMessage());
+        assertEquals("No message", assertThrows(IllegalStateException.class,
+                () -> performer.perform("fail", itemFailing, new Object[]{null})).getMessage());
+    }
+
+    private static void assertFailures(Failing anExtension) {
+        assertEquals("Shining", assertThrows(IOException.class, () -> anExtension.fail("Shining")).getMessage());
+        assertEquals("No message", assertThrows(IllegalStateException.class, () -> anExtension.fail(null)).getMessage());
+    }
+
+    /**
+     * Test that generated extensions forward calls to extensions and delegates, and perform them the proxy way if
+     * aspects apply
+     */
+    @Test
+    void generatedExtensionTest() {
+        Book book = new Book("Shining");
+        StaticClassExtension classExtension = new StaticClassExtension();
+        ForwardableItem extension = classExtension.extension(book, ForwardableItem.class);
+
+        assertInstanceOf(ExtensionForwarders.Forwarder.class, extension);
+        assertEquals("#Shining x2 3kg $4.5 fragile", extension.label("#", 2, 3L, 4.5, true));
+        assertEquals(9.5, extension.price());
+        ItemForwardable.LOG.setLength(0);
+        extension.log();
+        assertEquals("Shining", ItemForwardable.LOG.toString());
+        assertEquals(Optional.empty(), extension.note());
+        assertEquals("Shining", extension.getName());
+        assertEquals("Shining", extension.toString());
+        assertEquals(book.hashCode(), extension.hashCode());
+        assertTrue(extension.equals(book));
+        assertSame(book, ClassExtension.getDelegate(extension));
+        assertSame(extension.getClass(), classExtension.extension(new Book("Carrie"), ForwardableItem.class).getClass());
+
+        List<String> out = new ArrayList<>();
+        classExtension.aspectBuilder().
+                extensionInterface("*").
+                    operation("price()").
+                    objectClass(Book.class).
+                        around((performer, operation, object, args) -> {
+                            out.add("AROUND: " + operation);
+                            return 2 * (double) applyDefault(performer, operation, object, args);
+                        });
+        assertEquals(19.0, extension.price());
+        assertEquals(List.of("AROUND: price"), out);
+        assertEquals("#Shining x2 3kg $4.5", extension.label("#", 2, 3L, 4.5, false));
+    }
+
+    /**
+     * Test that dispatch plans are precomputed once for all interface methods
+     */
+    @Test
+    void dispatchPlansTest() throws NoSuchMethodException {
+        Map<Method, StaticClassExtension.DispatchPlan> dispatchPlans =
+                StaticClassExtension.dispatchPlans(ShippableItemInterface.class, BookShippable.class, Book.class);
+        assertSame(dispatchPlans, StaticClassExtension.dispatchPlans(ShippableItemInterface.class, BookShippable.class, Book.class));
+
+        assertEquals(StaticClassExtension.DispatchTarget.EXTENSION,
+                dispatchPlans.get(Shippable.class.getMethod("ship")).target());
+        assertEquals(StaticClassExtension.DispatchTarget.DELEGATE,
+                dispatchPlans.get(ItemInterface.class.getMethod("getName")).target());
+        assertEquals(StaticClassExtension.DispatchTarget.DELEGATE_HOLDER,
+                dispatchPlans.get(ClassExtension.PrivateDelegateHolder.class.getMethod("__getDelegate")).target());
+        assertEquals(StaticClassExtension.DispatchTarget.OBJECT_METHOD,
+                dispatchPlans.get(Object.class.getMethod("toString")).target());
+        assertFalse(dispatchPlans.get(Shippable.class.getMethod("ship")).transformsResult());
+
+        ShippableItemInterface extension = new StaticClassExtension().extension(new Book("Shining"), ShippableItemInterface.class);
+        assertEquals("Shining shipped", extension.ship().result());
+        assertEquals("Shining", extension.getName());
+    }
+
+    /**
+     * Test that warming up reports results per extension interface and object class pair, including failed ones
+     */
+    @Test
+    void warmUpTest() {
+        StaticClassExtension classExtension = new StaticClassExtension();
+        ClassExtension.WarmUpReport report = classExtension.warmUp(List.of(Shippable.class, ForwardableItem.class),
+                List.of(Book.class, Furniture.class, String.class), true);
+        System.out.println(report);
+
+        assertEquals(6, report.results().size());
+        assertFalse(report.isSuccessful());
+        assertEquals(List.of(String.class, String.class),
+                report.failures().stream().map(ClassExtension.WarmUpResult::objectClass).toList());
+        assertInstanceOf(IllegalArgumentException.class, report.failures().getFirst().error());
+        assertTrue(report.results().stream().allMatch(result -> ! result.duration().isNegative()));
+
+        report = classExtension.warmUpWithSamples(List.of(Shippable.class, ForwardableItem.class), List.of(new Book("Shining")), false);
+        assertTrue(report.isSuccessful());
+        assertEquals(List.of(Shippable.class, ForwardableItem.class),
+                report.results().stream().map(ClassExtension.WarmUpResult::extensionInterface).toList());
+        assertTrue(classExtension.cacheIsEmpty());
+        assertEquals("Shining shipped", classExtension.extension(new Book("Shining"), Shippable.class).ship().result());
+    }
+
     /**
      * Test for not cached extension
      */
@@ -2,6 +2,17 @@ package com.gl.classext;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ThreadSafeWeakCacheTest {
@@ -23,4 +34,256 @@ public class ThreadSafeWeakCacheTest {
         assertEquals("three", cache.get("3")); // "3" should be present
     }
 
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        ThreadSafeWeakCache<Integer, String> cache = new ThreadSafeWeakCache<>(100);
+        String[] values = new String[1000];
+        for (int i = 0; i < values.length; i++)
+            values[i] = "value" + i;
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 100_000; i++) {
+                        int key = (i * 31 + seed) % values.length;
+                        String value = cache.getOrCreate(key, () -> values[key]);
+                        assertSame(values[key], value);
+                    }
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get(1, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdown();
+        }
+
+        int size = 0;
+        for (int i = 0; i < values.length; i++)
+            if (cache.get(i) != null)
+                size++;
+        assertTrue(size <= 100 + 8, "Cache must stay bounded: " + size);
+    }
+
+    @Test
+    public void testStaleEntriesExpungedOnWrite() throws InterruptedException {
+        ThreadSafeWeakCache<String, Object> cache = new ThreadSafeWeakCache<>();
+        cache.put("collectable", new Object());
+
+        for (int i = 0; i < 50 && ! cache.isEmpty(); i++) {
+            System.gc();
+            Thread.sleep(20);
+            // any write expunges collected entries, no explicit cleanup() call is needed
+            cache.put("other", "other");
+            cache.remove("other");
+        }
+
+        assertTrue(cache.isEmpty());
+    }
+
+    @Test
+    public void testSharedCleanupThread() {
+        List<ThreadSafeWeakCache<String, String>> caches = new ArrayList<>();
+        try {
+            for (int i = 0; i < 20; i++) {
+                ThreadSafeWeakCache<String, String> cache = new ThreadSafeWeakCache<>();
+                cache.scheduleCleanup();
+                caches.add(cache);
+            }
+
+            List<Thread> cleanupThreads = Thread.getAllStackTraces().keySet().stream().
+                    filter(thread -> thread.getName().equals("ThreadSafeWeakCache-cleanup")).
+                    toList();
+            assertEquals(1, cleanupThreads.size());
+            assertTrue(cleanupThreads.get(0).isDaemon());
+        } finally {
+            caches.forEach(ThreadSafeWeakCache::shutdownCleanup);
+        }
+    }
+
+    @Test
+    public void testSingleInFlightCreationPerKey() throws Exception {
+        ThreadSafeWeakCache<String, String> cache = new ThreadSafeWeakCache<>();
+        AtomicInteger creationCount = new AtomicInteger();
+        String value = "value";
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> cache.getOrCreate("key", () -> {
+                    creationCount.incrementAndGet();
+                    sleep(200);
+                    return value;
+                })));
+            }
+            for (Future<String> future : futures)
+                assertSame(value, future.get(1, TimeUnit.MINUTES));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, creationCount.get());
+    }
+
+    @Test
+    public void testParallelCreationForDifferentKeys() throws Exception {
+        ThreadSafeWeakCache<String, String> cache = new ThreadSafeWeakCache<>();
+        CountDownLatch latch = new CountDownLatch(2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (String key : List.of("1", "2")) {
+                // each creation waits for the other one, so it completes only if they run in parallel
+                futures.add(executor.submit(() -> cache.getOrCreate(key, () -> {
+                    latch.countDown();
+                    try {
+                        return latch.await(10, TimeUnit.SECONDS) ? key : null;
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                })));
+            }
+            assertEquals("1", futures.get(0).get(1, TimeUnit.MINUTES));
+            assertEquals("2", futures.get(1).get(1, TimeUnit.MINUTES));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCrossDependentCreations() throws Exception {
+        ThreadSafeWeakCache<String, String> cache = new ThreadSafeWeakCache<>();
+        CountDownLatch latch = new CountDownLatch(2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (List<String> keys : List.of(List.of("1", "2"), List.of("2", "1"))) {
+                // each creation needs a value the other one is creating
+                futures.add(executor.submit(() -> cache.getOrCreate(keys.get(0), () -> {
+                    latch.countDown();
+                    try {
+                        assertTrue(latch.await(10, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return keys.get(0) + cache.getOrCreate(keys.get(1), () -> keys.get(1));
+                })));
+            }
+            String value1 = futures.get(0).get(1, TimeUnit.MINUTES);
+            String value2 = futures.get(1).get(1, TimeUnit.MINUTES);
+            assertTrue(value1.startsWith("1") && value2.startsWith("2"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testStats() {
+        ThreadSafeWeakCache<Integer, String> cache = new ThreadSafeWeakCache<>(100);
+        String[] values = new String[200];
+        for (int i = 0; i < values.length; i++)
+            values[i] = "value" + i;
+
+        for (int i = 0; i < values.length; i++) {
+            int key = i;
+            cache.getOrCreate(key, () -> values[key]);
+        }
+        assertEquals(values[199], cache.getOrCreate(199, () -> "other"));
+        cache.cleanup();
+
+        ThreadSafeWeakCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(200, stats.missCount());
+        assertEquals(200, stats.loadCount());
+        assertTrue(stats.totalLoadTime() > 0);
+        assertEquals(100, stats.evictionCount());
+        assertEquals(100, stats.size());
+        assertEquals(1, stats.cleanupCount());
+        assertEquals(1.0 / 201, stats.hitRate(), 1e-9);
+
+        cache.resetStats();
+        stats = cache.stats();
+        assertEquals(0, stats.hitCount());
+        assertEquals(0, stats.missCount());
+        assertEquals(0, stats.loadCount());
+        assertEquals(0, stats.evictionCount());
+        assertEquals(100, stats.size());
+    }
+
+    @Test
+    public void testExpiration() {
+        ThreadSafeWeakCache<String, String> cache = new ThreadSafeWeakCache<>();
+        cache.setValueStrength(ThreadSafeWeakCache.ReferenceStrength.STRONG);
+        AtomicLong time = new AtomicLong();
+        cache.setTicker(time::get);
+
+        cache.setExpireAfterWrite(Duration.ofMillis(200));
+        cache.put("1", "one");
+        time.addAndGet(Duration.ofMillis(199).toNanos());
+        assertEquals("one", cache.get("1"));
+        time.addAndGet(Duration.ofMillis(1).toNanos());
+        assertNull(cache.get("1"));
+        assertTrue(cache.isEmpty());
+        cache.setExpireAfterWrite(null);
+
+        cache.setExpireAfterAccess(Duration.ofMillis(200));
+        cache.put("2", "two");
+        for (int i = 0; i < 5; i++) {
+            time.addAndGet(Duration.ofMillis(100).toNanos());
+            assertEquals("two", cache.get("2")); // every access extends the entry lifetime
+        }
+        time.addAndGet(Duration.ofMillis(199).toNanos());
+        cache.cleanup();
+        assertFalse(cache.isEmpty());
+        time.addAndGet(Duration.ofMillis(1).toNanos());
+        cache.cleanup();
+        assertTrue(cache.isEmpty());
+        assertEquals(2, cache.stats().expirationCount());
+    }
+
+    @Test
+    public void testValueStrength() {
+        ThreadSafeWeakCache<String, Object> cache = new ThreadSafeWeakCache<>();
+        cache.setValueStrength(ThreadSafeWeakCache.ReferenceStrength.STRONG);
+        cache.put("strong", new Object());
+        cache.setValueStrength(ThreadSafeWeakCache.ReferenceStrength.SOFT);
+        cache.put("soft", new Object());
+
+        System.gc();
+        cache.cleanup();
+
+        assertNotNull(cache.get("strong"));
+        assertNotNull(cache.get("soft"));
+    }
+
+    @Test
+    public void testWeightBound() {
+        ThreadSafeWeakCache<Integer, String> cache = new ThreadSafeWeakCache<>();
+        cache.setValueStrength(ThreadSafeWeakCache.ReferenceStrength.STRONG);
+        cache.setWeigher(String::length);
+        cache.setMaxWeight(100);
+
+        for (int i = 0; i < 100; i++)
+            cache.put(i, "0123456789");
+
+        assertTrue(cache.getTotalWeight() <= 100);
+        assertEquals(10, cache.stats().size());
+        assertEquals(90, cache.stats().evictionCount());
+
+        cache.remove(99);
+        assertEquals(90, cache.getTotalWeight());
+    }
+
+    private static void sleep(long aMillis) {
+        try {
+            Thread.sleep(aMillis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }